@@ -18,10 +18,22 @@ CREATE TABLE properties (
     zip_code VARCHAR(20) NOT NULL,
     latitude DECIMAL(10,8),
     longitude DECIMAL(11,8),
+    thumbnail_url VARCHAR(512),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Optimistic lock version, incremented on every update; part of the ETag
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Indexes backing property search filters and sort orders
+CREATE INDEX idx_properties_city_price ON properties (city, price);
+CREATE INDEX idx_properties_type_status_price ON properties (property_type, status, price);
+CREATE INDEX idx_properties_state ON properties (state);
+CREATE INDEX idx_properties_zip_code ON properties (zip_code);
+CREATE INDEX idx_properties_price ON properties (price);
+CREATE INDEX idx_properties_bedrooms ON properties (bedrooms);
+CREATE INDEX idx_properties_created_at ON properties (created_at);
+
 ## Agents Table
 CREATE TABLE agents (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -31,7 +43,9 @@ CREATE TABLE agents (
     phone VARCHAR(20),
     bio TEXT,
     license_number VARCHAR(50) UNIQUE NOT NULL,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 ## Listings Table
@@ -42,7 +56,96 @@ CREATE TABLE listings (
     listing_date DATE NOT NULL,
     listing_price DECIMAL(12,2) NOT NULL,
     is_featured BOOLEAN DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (property_id) REFERENCES properties(id),
     FOREIGN KEY (agent_id) REFERENCES agents(id)
 );
+
+-- Keyset pages of an agent's listings by date or by price; the price index also covers the agent's totals
+CREATE INDEX idx_listings_agent_date ON listings (agent_id, listing_date, id);
+CREATE INDEX idx_listings_agent_price ON listings (agent_id, listing_price, id);
+
+## Listing Price History Table
+-- Append-only: the initial price of each listing and every change of it. The primary key clusters a
+-- listing's history by time, so a time range of it is one contiguous read.
+CREATE TABLE listing_price_history (
+    listing_id BIGINT NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    price DECIMAL(12,2) NOT NULL,
+    previous_price DECIMAL(12,2),
+    PRIMARY KEY (listing_id, changed_at),
+    FOREIGN KEY (listing_id) REFERENCES listings(id)
+);
+
+CREATE INDEX idx_listing_price_history_changed_at ON listing_price_history (changed_at);
+
+-- Start the history of existing listings at their current price
+INSERT IGNORE INTO listing_price_history (listing_id, changed_at, price)
+    SELECT id, listing_date, listing_price FROM listings;
+
+## Listing Counters Table
+-- View and contact counts of each listing, added to in periodic batches by the application
+CREATE TABLE listing_counters (
+    listing_id BIGINT PRIMARY KEY,
+    views BIGINT NOT NULL DEFAULT 0,
+    contacts BIGINT NOT NULL DEFAULT 0
+);
+
+## Saved Searches Table
+-- A user's property search criteria, matched against property and listing writes
+CREATE TABLE saved_searches (
+    id BIGINT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    query_text VARCHAR(255),
+    property_type ENUM('RESIDENTIAL', 'COMMERCIAL', 'LAND'),
+    status ENUM('AVAILABLE', 'SOLD', 'PENDING'),
+    city VARCHAR(100),
+    state VARCHAR(50),
+    zip_code VARCHAR(20),
+    min_price DECIMAL(12,2),
+    max_price DECIMAL(12,2),
+    min_bedrooms INT,
+    max_bedrooms INT,
+    min_bathrooms DOUBLE,
+    min_square_feet INT,
+    max_square_feet INT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_saved_searches_username ON saved_searches (username);
+
+## Saved Search Matches Table
+-- Matches queued for the next digest email; deleted once sent
+CREATE TABLE saved_search_matches (
+    id BIGINT PRIMARY KEY,
+    saved_search_id BIGINT NOT NULL,
+    property_id BIGINT NOT NULL,
+    listing_id BIGINT,
+    matched_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_saved_search_matches_search ON saved_search_matches (saved_search_id);
+
+## ID Blocks Table
+-- Entity IDs are allocated in blocks of 100 from this table rather than by AUTO_INCREMENT,
+-- so Hibernate can batch inserts. next_val is the first ID of the next unallocated block.
+CREATE TABLE id_blocks (
+    entity VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+-- Start each block above the existing rows (the application also does this on startup)
+INSERT INTO id_blocks (entity, next_val) SELECT 'properties', COALESCE(MAX(id), 0) + 1 FROM properties
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_blocks (entity, next_val) SELECT 'agents', COALESCE(MAX(id), 0) + 1 FROM agents
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_blocks (entity, next_val) SELECT 'listings', COALESCE(MAX(id), 0) + 1 FROM listings
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_blocks (entity, next_val) SELECT 'saved_searches', COALESCE(MAX(id), 0) + 1 FROM saved_searches
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+INSERT INTO id_blocks (entity, next_val) SELECT 'saved_search_matches', COALESCE(MAX(id), 0) + 1 FROM saved_search_matches
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
 ```
@@ -0,0 +1,50 @@
+package com.realestate.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Configures the in-process caches in front of the lookups by ID.
+ * Caches are bounded in size and age by a Caffeine spec, and hit, miss and eviction
+ * statistics are published through the actuator {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PROPERTIES = "properties";
+    public static final String LISTINGS = "listings";
+    public static final String AGENTS = "agents";
+
+    /**
+     * Version stamps of properties and listings, used to answer conditional GETs without loading the row.
+     */
+    public static final String PROPERTY_STAMPS = "propertyStamps";
+    public static final String LISTING_STAMPS = "listingStamps";
+
+    /**
+     * Creates the cache manager. Evictions made inside a transaction are deferred until it commits,
+     * so a concurrent read cannot re-cache the old row between the eviction and the commit.
+     *
+     * @param spec the Caffeine spec applied to the entity caches
+     * @param stampSpec the Caffeine spec applied to the version stamp caches
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${realestate.cache.spec}") String spec,
+            @Value("${realestate.cache.stamp-spec}") String stampSpec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(PROPERTIES, LISTINGS, AGENTS);
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false);
+        caffeine.registerCustomCache(PROPERTY_STAMPS, Caffeine.from(stampSpec).build());
+        caffeine.registerCustomCache(LISTING_STAMPS, Caffeine.from(stampSpec).build());
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
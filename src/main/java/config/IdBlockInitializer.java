@@ -0,0 +1,52 @@
+package com.realestate.app.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Seeds the {@code id_blocks} table the entity ID generators allocate from.
+ * Each entity's next block must start above every ID already in its table, including
+ * rows created while the tables still used AUTO_INCREMENT, or the first batch of
+ * inserts would collide with them. Runs after Hibernate has created or updated the schema.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdBlockInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdBlockInitializer.class);
+
+    /**
+     * Generator key to the table whose IDs it allocates; keys match the {@code pkColumnValue} of each entity.
+     */
+    private static final Map<String, String> TABLES_BY_GENERATOR = Map.of(
+        "properties", "properties",
+        "agents", "agents",
+        "listings", "listings",
+        "user", "user",
+        "saved_searches", "saved_searches",
+        "saved_search_matches", "saved_search_matches");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seedIdBlocks() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_blocks ("
+            + "entity VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+        for (Map.Entry<String, String> entry : TABLES_BY_GENERATOR.entrySet()) {
+            // Never moves a block backwards, so seeding is safe to repeat on every start
+            jdbcTemplate.update("INSERT INTO id_blocks (entity, next_val) "
+                + "SELECT ?, COALESCE(MAX(id), 0) + 1 FROM `" + entry.getValue() + "` "
+                + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))", entry.getKey());
+        }
+        log.debug("Seeded id_blocks for {}", TABLES_BY_GENERATOR.keySet());
+    }
+}
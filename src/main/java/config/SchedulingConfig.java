@@ -0,0 +1,12 @@
+package com.realestate.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the scheduled background jobs, such as the saved search digests.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
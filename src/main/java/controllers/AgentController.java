@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,13 +15,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.realestate.app.exceptionHandlers.AgentNotFoundException;
 import com.realestate.app.exceptionHandlers.ErrorResponse;
 import com.realestate.app.models.Agent;
+import com.realestate.app.models.AgentListingPage;
 import com.realestate.app.services.AgentService;
+import com.realestate.app.services.PropertyService;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -96,6 +101,31 @@ public class AgentController {
             .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    /**
+     * Retrieves one keyset page of an agent's listings, headed by the number of listings the agent
+     * has and their total price.
+     *
+     * @param id The ID of the agent.
+     * @param sort {@code date} (default) or {@code price}; ties are broken by listing ID.
+     * @param direction {@code asc} or {@code desc}; by default newest first by date and cheapest first by price.
+     * @param cursor The {@code nextCursor} of the previous page, for the same sort and direction (optional).
+     * @param size The number of listings per page, capped at {@link PropertyService#MAX_PAGE_SIZE}.
+     * @return A ResponseEntity containing the page and the agent's totals, or 404 if the agent does not exist.
+     */
+    @GetMapping("/{id}/listings")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<AgentListingPage> getAgentListings(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "date") String sort,
+        @RequestParam(required = false) String direction,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + PropertyService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        AgentService.ListingSort listingSort = AgentService.ListingSort.parse(sort);
+        Sort.Direction sortDirection = direction == null ? null : Sort.Direction.fromString(direction);
+        return ResponseEntity.ok(agentService.findAgentListings(id, listingSort, sortDirection, cursor, size));
+    }
+
     /**
      * Updates an existing agent's details.
      */
@@ -134,9 +164,10 @@ public class AgentController {
     }
     
     /**
-     * Fallback method for rate-limited endpoints
+     * Fallback method for rate-limited endpoints, called only when the rate limiter rejects a call;
+     * other exceptions reach the {@code GlobalExceptionHandler}
      */
-    public ResponseEntity<Object> rateLimiterFallback(Exception ex) {
+    public ResponseEntity<Object> rateLimiterFallback(RequestNotPermitted ex) {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .body("Rate limit exceeded. Please try again later.");
     }
@@ -0,0 +1,102 @@
+package com.realestate.app.controllers;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.realestate.app.models.MarketStats;
+import com.realestate.app.models.SearchCacheStats;
+import com.realestate.app.models.VersionStamp;
+import com.realestate.app.services.CollectionVersions;
+import com.realestate.app.services.MarketAnalytics;
+import com.realestate.app.services.PropertyIndexManager;
+import com.realestate.app.services.SearchResultCache;
+
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+
+/**
+ * Controller class serving market analytics from in-memory aggregates, and search cache statistics.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private MarketAnalytics marketAnalytics;
+
+    @Autowired
+    private PropertyIndexManager propertyIndexManager;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    /**
+     * Retrieves price, price per square foot and days-on-market statistics for the whole market,
+     * or per city, state, ZIP code or property type.
+     * 
+     * @param groupBy The dimension to group by: {@code market} (default), {@code city}, {@code state},
+     *                {@code zipCode} or {@code propertyType}.
+     * @param key The groups to return, e.g. {@code key=Austin&key=Dallas}; matched case-insensitively.
+     *            If omitted, the groups with the most properties are returned.
+     * @param limit The maximum number of groups, capped at {@link MarketAnalytics#MAX_GROUPS}.
+     * @param request The current request; answered with 304 Not Modified if no property or listing has
+     *                changed since, on the same day.
+     * @return A ResponseEntity containing the statistics of each group.
+     */
+    @GetMapping("/market")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<MarketStats>> getMarketStats(
+        @RequestParam(defaultValue = "market") String groupBy,
+        @RequestParam(required = false) List<String> key,
+        @RequestParam(defaultValue = "50") int limit,
+        WebRequest request
+    ) {
+        MarketAnalytics.Dimension dimension = MarketAnalytics.Dimension.parse(groupBy);
+        propertyIndexManager.requireReady();
+        marketAnalytics.requireReady();
+        // Days on market move with the calendar, so the figures also change at midnight
+        LocalDate today = LocalDate.now();
+        VersionStamp listings = collectionVersions.stamp(CollectionVersions.Collection.LISTINGS);
+        VersionStamp stamp = new VersionStamp(listings.getEtag() + "-" + today.toEpochDay(),
+            Math.max(listings.getLastModified(), today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        if (ConditionalRequests.notModified(request, stamp)) {
+            return null;
+        }
+        return ResponseEntity.ok(marketAnalytics.stats(dimension, key == null ? List.of() : key, limit));
+    }
+
+    /**
+     * Reports how often each cached search was answered from the search result cache, to show which
+     * searches are worth caching.
+     * 
+     * @param limit The maximum number of searches, most requested first.
+     * @return A ResponseEntity containing the hits, misses and hit rate of each search.
+     */
+    @GetMapping("/search-cache")
+    @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<SearchCacheStats>> getSearchCacheStats(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(searchResultCache.stats(limit));
+    }
+
+    /**
+     * Fallback method for rate-limited endpoints, called only when the rate limiter rejects a call;
+     * other exceptions reach the {@code GlobalExceptionHandler}
+     */
+    public ResponseEntity<Object> rateLimiterFallback(RequestNotPermitted ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body("Rate limit exceeded. Please try again later.");
+    }
+}
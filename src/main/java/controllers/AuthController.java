@@ -18,6 +18,7 @@ import com.realestate.app.models.JwtResponse;
 import com.realestate.app.models.User;
 import com.realestate.app.repositories.UserRepository;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -131,11 +132,11 @@ public class AuthController {
     }
     
  // Fallback methods for rate limiting
-    public ResponseEntity<?> loginFallback(User loginRequest, Throwable t) {
+    public ResponseEntity<?> loginFallback(User loginRequest, RequestNotPermitted t) {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many login attempts. Please try again later.");
     }
 
-    public ResponseEntity<?> registerFallback(User userRequest, Throwable t) {
+    public ResponseEntity<?> registerFallback(User userRequest, RequestNotPermitted t) {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many registration attempts. Please try again later.");
     }
 }
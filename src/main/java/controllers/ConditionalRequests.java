@@ -0,0 +1,48 @@
+package com.realestate.app.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.realestate.app.models.VersionStamp;
+
+/**
+ * Answers conditional GETs ({@code If-None-Match} and {@code If-Modified-Since}) from version stamps.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @return true if the request carries a validator that a version stamp could satisfy
+     */
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+            || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Checks the request's validators against a stamp. If the client's copy is current the
+     * response status is set to 304 and the handler should return {@code null} without
+     * producing a body; otherwise the stamp's ETag and Last-Modified headers are added to the response.
+     *
+     * @param request the current request
+     * @param stamp the current stamp of the requested resource
+     * @return true if the response is 304 Not Modified
+     */
+    static boolean notModified(WebRequest request, VersionStamp stamp) {
+        return request.checkNotModified(stamp.getEtag(), stamp.getLastModified());
+    }
+
+    /**
+     * Builds a 200 response carrying the stamp's ETag and Last-Modified headers.
+     */
+    static <T> ResponseEntity<T> ok(T body, VersionStamp stamp) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(stamp.getEtag());
+        if (stamp.getLastModified() >= 0) {
+            response.lastModified(stamp.getLastModified());
+        }
+        return response.body(body);
+    }
+}
@@ -1,25 +1,49 @@
 package com.realestate.app.controllers;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.realestate.app.models.Listing;
+import com.realestate.app.models.ListingPriceChange;
+import com.realestate.app.models.ListingSummary;
+import com.realestate.app.models.ListingWithCounts;
+import com.realestate.app.models.TrendingListing;
+import com.realestate.app.models.PagedResult;
+import com.realestate.app.models.VersionStamp;
+import com.realestate.app.services.CollectionVersions;
+import com.realestate.app.services.ExportService;
+import com.realestate.app.services.FeaturedListingSnapshot;
+import com.realestate.app.services.ListingCounters;
 import com.realestate.app.services.ListingService;
+import com.realestate.app.services.PropertyService;
+import com.realestate.app.services.TrendingListings;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 
 /**
@@ -32,6 +56,21 @@ public class ListingController {
     @Autowired
     private ListingService listingService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private FeaturedListingSnapshot featuredListingSnapshot;
+
+    @Autowired
+    private ListingCounters listingCounters;
+
+    @Autowired
+    private TrendingListings trendingListings;
+
     /**
      * Creates a new real estate listing.
      */
@@ -50,43 +89,189 @@ public class ListingController {
     }
 
     /**
-     * Retrieves all real estate listings.
+     * Retrieves all real estate listings, or 304 Not Modified if no listing has changed since the client's copy.
+     * With {@code view=summary} only the columns of a {@link ListingSummary} are read and returned.
      */
     @GetMapping
     @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<List<Listing>> getAllListings() {
-        List<Listing> listings = listingService.getAllListings();
+    public ResponseEntity<List<?>> getAllListings(@RequestParam(defaultValue = "full") String view, WebRequest request) {
+        ResponseView responseView = ResponseView.parse(view);
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.LISTINGS))) {
+            return null;
+        }
+        List<?> listings = responseView == ResponseView.SUMMARY
+            ? listingService.getAllListingSummaries()
+            : listingService.getAllListings();
         return listings.isEmpty() 
             ? ResponseEntity.noContent().build() 
             : ResponseEntity.ok(listings);
     }
 
     /**
-     * Retrieves all featured listings.
+     * Exports every listing as NDJSON (one JSON object per line, with its property and agent) or CSV,
+     * streamed from the database straight into the response.
+     */
+    @GetMapping("/export")
+    @RateLimiter(name = "exportOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<StreamingResponseBody> exportListings(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        StreamingResponseBody body = out -> exportService.exportListings(exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"listings." + exportFormat.getExtension() + "\"")
+            .body(body);
+    }
+
+    /**
+     * Retrieves the featured listings, or 304 Not Modified if the snapshot has not changed since the client's copy.
+     * They are served from a pre-serialized in-memory snapshot, gzip-encoded ahead of time for clients that
+     * accept it when the whole set is requested; the gzip body has its own ETag, suffixed {@code -gz}, since it is
+     * not byte-for-byte the same representation. With {@code view=summary} the items are {@link ListingSummary}s.
+     * {@code minPrice} and {@code maxPrice} keep only the listings priced within the band, bounds included;
+     * with a {@code page} or {@code size} the result is a {@link PagedResult} instead of a plain array.
      */
     @GetMapping("/featured")
     @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<List<Listing>> getFeaturedListings() {
-        List<Listing> featuredListings = listingService.findFeaturedListings();
-        return featuredListings.isEmpty() 
-            ? ResponseEntity.noContent().build() 
-            : ResponseEntity.ok(featuredListings);
+    public ResponseEntity<byte[]> getFeaturedListings(
+        @RequestParam(defaultValue = "full") String view,
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(required = false) Integer page,
+        @RequestParam(required = false) Integer size,
+        WebRequest request
+    ) {
+        ResponseView responseView = ResponseView.parse(view);
+        FeaturedListingSnapshot.Body body = responseView == ResponseView.SUMMARY
+            ? featuredListingSnapshot.findSummaries(minPrice, maxPrice, page, size)
+            : featuredListingSnapshot.findListings(minPrice, maxPrice, page, size);
+        boolean gzip = body.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        VersionStamp stamp = gzip
+            ? new VersionStamp(body.stamp().getEtag() + "-gz", body.stamp().getLastModified())
+            : body.stamp();
+        // Validate against the version the snapshot was built from, which lags the live one during a rebuild
+        if (ConditionalRequests.notModified(request, stamp)) {
+            return null;
+        }
+        if (body.count() == 0) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
     }
 
     /**
-     * Retrieves a real estate listing by its ID.
+     * Retrieves the most viewed listings of the last hour or day, overall or in one city. Views are
+     * counted approximately in memory, so the counts may slightly overestimate, never underestimate.
+     * Revalidations answered with 304 Not Modified are not counted. A city is ranked from its own most
+     * viewed listings while it is among the first {@value TrendingListings#MAX_CITIES_PER_BUCKET} cities
+     * viewed in a time bucket, and from the most viewed listings of all cities otherwise.
+     *
+     * @param window {@code hour} (default) or {@code day}.
+     * @param city The city to rank, case-insensitively (optional; all cities by default).
+     * @param limit The maximum number of listings, capped at {@link TrendingListings#MAX_RESULTS}.
+     * @return A ResponseEntity containing the summaries of the listings with their views, most viewed first.
+     */
+    @GetMapping("/trending")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<TrendingListing>> getTrendingListings(
+        @RequestParam(defaultValue = "hour") String window,
+        @RequestParam(required = false) String city,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<TrendingListing> trending = listingService.findTrendingListings(TrendingListings.Window.parse(window), city, limit);
+        return trending.isEmpty()
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.ok(trending);
+    }
+
+    /**
+     * Retrieves a real estate listing by its ID, with a strong ETag built from the versions of the listing,
+     * its property and its agent. A conditional request is answered from the cached version stamp of the
+     * listing, so a client whose copy is current gets 304 Not Modified without the listing being loaded.
+     * Every request counts as a view; a 200 response also carries the listing's {@code viewCount} and
+     * {@code contactCount}, which are not part of the ETag.
      */
     @GetMapping("/{id}")
     @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<Listing> getListingById(@PathVariable Long id) {
+    public ResponseEntity<ListingWithCounts> getListingById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.isConditional(request)) {
+            VersionStamp stamp = listingService.findListingStamp(id);
+            if (stamp != null && ConditionalRequests.notModified(request, stamp)) {
+                listingCounters.viewed(id);
+                return null;
+            }
+        }
         try {
             Listing listing = listingService.findListingById(id);
-            return ResponseEntity.ok(listing);
+            listingCounters.viewed(id);
+            trendingListings.viewed(id, listing.getProperty().getCity());
+            ListingCounters.Counts counts = listingCounters.counts(id);
+            return ConditionalRequests.ok(new ListingWithCounts(listing, counts.views(), counts.contacts()),
+                VersionStamp.of(listing));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    /**
+     * Counts a contact of the listing's agent about a listing, such as a click on its contact button.
+     *
+     * @param id The ID of the listing.
+     * @return 204 No Content, or 404 if the listing does not exist.
+     */
+    @PostMapping("/{id}/contacts")
+    @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<Void> recordContact(@PathVariable Long id) {
+        if (listingService.findListingStamp(id) == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        listingCounters.contacted(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Retrieves the price history of a listing, oldest first: its initial price, then every change,
+     * each with the price it replaced.
+     *
+     * @param id The ID of the listing.
+     * @param from The start of the time range, inclusive, as an ISO date-time (optional).
+     * @param to The end of the time range, exclusive, as an ISO date-time (optional).
+     * @return A ResponseEntity containing up to 1000 prices within the range, or 404 if the listing does not exist.
+     */
+    @GetMapping("/{id}/price-history")
+    @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<ListingPriceChange>> getPriceHistory(
+        @PathVariable Long id,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ResponseEntity.ok(listingService.findPriceHistory(id, from, to));
+    }
+
+    /**
+     * Retrieves the listing price reductions of the last days, most recent first.
+     *
+     * @param days The number of days to look back (default 7).
+     * @param limit The maximum number of reductions, capped at {@link PropertyService#MAX_PAGE_SIZE}.
+     * @return A ResponseEntity containing the reductions, each with the listing ID and the old and new price.
+     */
+    @GetMapping("/price-drops")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<ListingPriceChange>> getPriceDrops(
+        @RequestParam(defaultValue = "7") int days,
+        @RequestParam(defaultValue = "" + PropertyService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        List<ListingPriceChange> drops = listingService.findPriceDrops(days, limit);
+        return drops.isEmpty()
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.ok(drops);
+    }
+
     /**
      * Updates a real estate listing by its ID.
      */
@@ -104,6 +289,24 @@ public class ListingController {
         }
     }
 
+    /**
+     * Partially updates a listing's date, price or featured flag with a JSON Merge Patch
+     * ({@code application/merge-patch+json}), writing only the changed columns. When the version the
+     * client last read is given, in {@code If-Match} or as a {@code version} member, the update skips
+     * reading the row and fails with 409 Conflict if the listing has changed since.
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    @RateLimiter(name = "writeOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<Listing> patchListing(
+        @PathVariable Long id,
+        @RequestBody ObjectNode patch,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion = ifMatch == null ? null : VersionStamp.listingVersionOf(id, ifMatch);
+        Listing patchedListing = listingService.patchListing(id, patch, expectedVersion);
+        return ConditionalRequests.ok(patchedListing, VersionStamp.of(patchedListing));
+    }
+
     /**
      * Deletes a real estate listing by its ID.
      */
@@ -119,9 +322,27 @@ public class ListingController {
     }
     
     /**
-     * Fallback method for rate-limited endpoints
+     * @return true if an {@code Accept-Encoding} header allows gzip
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fallback method for rate-limited endpoints, called only when the rate limiter rejects a call;
+     * other exceptions reach the {@code GlobalExceptionHandler}
      */
-    public ResponseEntity<Object> rateLimiterFallback(Exception ex) {
+    public ResponseEntity<Object> rateLimiterFallback(RequestNotPermitted ex) {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .body("Rate limit exceeded. Please try again later.");
     }
@@ -1,25 +1,64 @@
 package com.realestate.app.controllers;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.app.models.BulkStatusResult;
+import com.realestate.app.models.BulkStatusUpdate;
+import com.realestate.app.models.GeoPoint;
+import com.realestate.app.models.ImportJob;
+import com.realestate.app.models.PagedResult;
 import com.realestate.app.models.Property;
+import com.realestate.app.models.PropertyFacets;
+import com.realestate.app.models.PropertySearchCriteria;
+import com.realestate.app.models.PropertySummary;
+import com.realestate.app.models.Suggestion;
+import com.realestate.app.models.VersionStamp;
+import com.realestate.app.services.CollectionVersions;
+import com.realestate.app.services.ExportService;
+import com.realestate.app.services.KeysetCursor;
+import com.realestate.app.services.PropertyGeoIndex;
+import com.realestate.app.services.PropertyImportService;
+import com.realestate.app.services.PropertyIndexManager;
+import com.realestate.app.services.PropertySearchService;
 import com.realestate.app.services.PropertyService;
+import com.realestate.app.services.PropertySimilarityIndex;
+import com.realestate.app.services.PropertySuggestIndex;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 
 /**
@@ -32,6 +71,30 @@ public class PropertyController {
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private PropertySearchService propertySearchService;
+
+    @Autowired
+    private PropertyGeoIndex propertyGeoIndex;
+
+    @Autowired
+    private PropertyIndexManager propertyIndexManager;
+
+    @Autowired
+    private PropertySuggestIndex propertySuggestIndex;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PropertyImportService propertyImportService;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Creates a new property.
      * 
@@ -46,50 +109,307 @@ public class PropertyController {
     }
 
     /**
-     * Retrieves all properties.
+     * Retrieves one keyset page of properties, ordered by ID.
+     * The page is written to the response as rows are read from the database,
+     * followed by an opaque cursor for the next page ({@code null} on the last page).
+     * Answers 304 Not Modified when no property has changed since the client's copy.
      * 
-     * @return A ResponseEntity containing a list of all properties.
+     * @param cursor The cursor returned with the previous page (optional).
+     * @param size The number of properties per page, capped at {@link PropertyService#MAX_PAGE_SIZE}.
+     * @param view {@code full} (default) for whole properties, or {@code summary} to read and return
+     *             only the columns of a {@link PropertySummary}.
+     * @param request The current request, checked for {@code If-None-Match} and {@code If-Modified-Since}.
+     * @return A ResponseEntity streaming the page as {@code {"items": [...], "nextCursor": "..."}}.
      */
     @GetMapping
     @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<List<Property>> findAllProperties() {
-        List<Property> properties = propertyService.findAll();
-        return properties.isEmpty() 
-            ? ResponseEntity.noContent().build() 
-            : ResponseEntity.ok(properties);
+    public ResponseEntity<StreamingResponseBody> findAllProperties(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + PropertyService.DEFAULT_PAGE_SIZE) int size,
+        @RequestParam(defaultValue = "full") String view,
+        WebRequest request
+    ) {
+        // Decode before streaming starts so a bad cursor or view is still reported as 400
+        long afterId = cursor == null ? 0L : Long.parseLong(KeysetCursor.decode(cursor, 1)[0]);
+        ResponseView responseView = ResponseView.parse(view);
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        int pageSize = PropertyService.clampPageSize(size);
+        StreamingResponseBody body = out -> writePropertyPage(out, afterId, pageSize, responseView);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    /**
+     * Exports every property as NDJSON (one JSON object per line) or CSV.
+     * The export is streamed from the database straight into the response.
+     * 
+     * @param format The output format, {@code ndjson} (default) or {@code csv}.
+     * @return A ResponseEntity streaming the export as an attachment.
+     */
+    @GetMapping("/export")
+    @RateLimiter(name = "exportOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<StreamingResponseBody> exportProperties(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        StreamingResponseBody body = out -> exportService.exportProperties(exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"properties." + exportFormat.getExtension() + "\"")
+            .body(body);
     }
 
     /**
-     * Retrieves a property by its ID.
+     * Starts a bulk import of properties from a CSV (with a header row) or NDJSON request body.
+     * The body is accepted as a whole and imported in the background; rows that fail to parse,
+     * validate or save are reported on the job without stopping it.
+     * 
+     * @param contentType The content type of the body, {@code text/csv} or {@code application/x-ndjson}.
+     * @param body The rows to import.
+     * @return A ResponseEntity with status Accepted containing the queued import job.
+     * @throws IOException If the body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @RateLimiter(name = "writeOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<ImportJob> importProperties(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body
+    ) throws IOException {
+        ExportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(ExportService.Format.CSV.getMediaType())
+            ? ExportService.Format.CSV
+            : ExportService.Format.NDJSON;
+        ImportJob job = propertyImportService.submit(format, body);
+        URI location = ServletUriComponentsBuilder
+            .fromCurrentRequest()
+            .path("/{jobId}")
+            .buildAndExpand(job.getId())
+            .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Moves many properties to a new status at once, e.g. when a development sells out.
+     * The properties are selected by {@code ids} or by a search {@code filter}; with {@code fromStatus}
+     * only properties currently in that status are moved. The change is applied by set-based
+     * UPDATEs in chunks, without loading the properties.
+     * 
+     * @param request The target status, optional source status, and the IDs or filter.
+     * @return A ResponseEntity containing the number of properties matched, updated and left unchanged.
+     */
+    @PostMapping("/status")
+    @RateLimiter(name = "criticalOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<BulkStatusResult> updatePropertyStatuses(@RequestBody BulkStatusUpdate request) {
+        return ResponseEntity.ok(propertyService.updatePropertyStatuses(request));
+    }
+
+    /**
+     * Retrieves the progress of a bulk import: rows read, imported and rejected, throughput and row errors.
+     * 
+     * @param jobId The ID of the import job.
+     * @return A ResponseEntity containing the job if found, or a Not Found status if not found.
+     */
+    @GetMapping("/import/{jobId}")
+    @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        return propertyImportService.findJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Retrieves a property by its ID, with a strong ETag built from its version and a Last-Modified header.
+     * A conditional request is first checked against the cached version stamp of the property,
+     * so a client whose copy is current gets 304 Not Modified without the property being loaded.
      * 
      * @param id The ID of the property to be retrieved.
+     * @param request The current request, checked for {@code If-None-Match} and {@code If-Modified-Since}.
      * @return A ResponseEntity containing the property if found, or a Not Found status if not found.
      */
     @GetMapping("/{id}")
     @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<Property> getProperty(@PathVariable Long id) {
+    public ResponseEntity<Property> getProperty(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.isConditional(request)) {
+            VersionStamp stamp = propertyService.findPropertyStamp(id);
+            if (stamp != null && ConditionalRequests.notModified(request, stamp)) {
+                return null;
+            }
+        }
         return propertyService.findPropertyById(id)
-            .map(ResponseEntity::ok)
+            .map(property -> ConditionalRequests.ok(property, VersionStamp.of(property)))
             .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
     /**
-     * Searches for properties based on the provided price range.
+     * Recommends available properties similar to a property by price, square footage, bedrooms,
+     * bathrooms, type and location, answered from an in-memory nearest-neighbour search.
      * 
-     * @param minPrice The minimum price for the search (optional).
-     * @param maxPrice The maximum price for the search (optional).
-     * @return A ResponseEntity containing a list of properties within the price range.
+     * @param id The ID of the property.
+     * @param limit The maximum number of properties, capped at {@link PropertySimilarityIndex#MAX_RESULTS}.
+     * @param request The current request; answered with 304 Not Modified if no property has changed since.
+     * @return A ResponseEntity containing the summaries of the most similar properties, nearest first.
+     */
+    @GetMapping("/{id}/similar")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<PropertySummary>> findSimilarProperties(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "10") int limit,
+        WebRequest request
+    ) {
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        return ResponseEntity.ok(propertyService.findSimilarProperties(id, limit));
+    }
+
+    /**
+     * Searches for properties matching any combination of type, status, city, state, ZIP code,
+     * price, bedroom, bathroom and square footage filters, optionally narrowed by a free-text
+     * query {@code q} (terms, {@code prefix*} and {@code "quoted phrases"}), whose matches are
+     * ordered by relevance unless a sort is given.
+     * 
+     * @param criteria The search filters, bound from the query parameters (all optional).
+     * @param pageable The page, size and sort (e.g. {@code sort=price,desc}); only indexed columns are sortable.
+     * @param view {@code full} (default) for whole properties, or {@code summary} to read and return
+     *             only the columns of a {@link PropertySummary}.
+     * @param request The current request; answered with 304 Not Modified if no property has changed since.
+     * @return A ResponseEntity containing the requested page of matching properties.
      */
     @GetMapping("/search")
     @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
-    public ResponseEntity<List<Property>> searchProperties(
-        @RequestParam(required = false) BigDecimal minPrice,
-        @RequestParam(required = false) BigDecimal maxPrice
+    public ResponseEntity<PagedResult<?>> searchProperties(
+        PropertySearchCriteria criteria,
+        @PageableDefault(size = PropertyService.DEFAULT_PAGE_SIZE) Pageable pageable,
+        @RequestParam(defaultValue = "full") String view,
+        WebRequest request
     ) {
-        List<Property> properties = propertyService.findPropertiesByPriceRange(minPrice, maxPrice);
-        return properties.isEmpty() 
+        ResponseView responseView = ResponseView.parse(view);
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        PagedResult<?> results = responseView == ResponseView.SUMMARY
+            ? propertySearchService.searchSummaries(criteria, pageable)
+            : propertySearchService.search(criteria, pageable);
+        return results.getContent().isEmpty() 
             ? ResponseEntity.noContent().build() 
-            : ResponseEntity.ok(properties);
+            : ResponseEntity.ok(results);
+    }
+
+    /**
+     * Counts the properties matching a search per type, status, city, state, bedroom bucket and price bucket.
+     * Every facet is computed in one pass over the in-memory catalog; a facet ignores its own filter.
+     * 
+     * @param criteria The search filters, bound from the same query parameters as {@code /search}.
+     * @param request The current request; answered with 304 Not Modified if no property has changed since.
+     * @return A ResponseEntity containing the facet counts.
+     */
+    @GetMapping("/facets")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<PropertyFacets> getPropertyFacets(PropertySearchCriteria criteria, WebRequest request) {
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        return ResponseEntity.ok(propertySearchService.facets(criteria));
+    }
+
+    /**
+     * Finds property locations by radius, bounding box or polygon, answered from the in-memory spatial index.
+     * Exactly one shape must be given: {@code lat}, {@code lng} and {@code radiusKm} for a radius search
+     * (nearest first); {@code minLat}, {@code minLng}, {@code maxLat} and {@code maxLng} for a bounding box;
+     * or {@code polygon} as {@code lat,lng;lat,lng;...} with at least three vertices.
+     * 
+     * @param limit The maximum number of locations to return, capped at {@link PropertyGeoIndex#MAX_RESULTS}.
+     * @param request The current request; answered with 304 Not Modified if no property has changed since.
+     * @return A ResponseEntity containing the matching property locations.
+     */
+    @GetMapping("/near")
+    @RateLimiter(name = "searchOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<GeoPoint>> findPropertiesNear(
+        @RequestParam(required = false) Double lat,
+        @RequestParam(required = false) Double lng,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double maxLng,
+        @RequestParam(required = false) String polygon,
+        @RequestParam(defaultValue = "200") int limit,
+        WebRequest request
+    ) {
+        propertyIndexManager.requireReady();
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        int maxResults = Math.max(1, Math.min(limit, PropertyGeoIndex.MAX_RESULTS));
+        List<GeoPoint> points;
+        if (lat != null && lng != null && radiusKm != null) {
+            requireCoordinate(lat, lng);
+            if (radiusKm <= 0 || radiusKm > PropertyGeoIndex.MAX_RADIUS_KM) {
+                throw new IllegalArgumentException("radiusKm must be between 0 and " + PropertyGeoIndex.MAX_RADIUS_KM);
+            }
+            points = propertyGeoIndex.withinRadius(lat, lng, radiusKm, maxResults);
+        } else if (minLat != null && minLng != null && maxLat != null && maxLng != null) {
+            requireCoordinate(minLat, minLng);
+            requireCoordinate(maxLat, maxLng);
+            if (minLat > maxLat) {
+                throw new IllegalArgumentException("minLat must not be greater than maxLat");
+            }
+            points = propertyGeoIndex.withinBox(minLat, minLng, maxLat, maxLng, maxResults);
+        } else if (polygon != null) {
+            String[] vertices = polygon.split(";");
+            if (vertices.length < 3) {
+                throw new IllegalArgumentException("polygon needs at least three vertices");
+            }
+            double[] latitudes = new double[vertices.length];
+            double[] longitudes = new double[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                String[] pair = vertices[i].split(",");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("polygon vertices must be given as lat,lng");
+                }
+                latitudes[i] = Double.parseDouble(pair[0].trim());
+                longitudes[i] = Double.parseDouble(pair[1].trim());
+                requireCoordinate(latitudes[i], longitudes[i]);
+            }
+            points = propertyGeoIndex.withinPolygon(latitudes, longitudes, maxResults);
+        } else {
+            throw new IllegalArgumentException("Provide lat/lng/radiusKm, minLat/minLng/maxLat/maxLng or polygon");
+        }
+        return ResponseEntity.ok(points);
+    }
+
+    /**
+     * Completes what a user has typed into the search box with cities, states, ZIP codes and
+     * addresses of existing properties, most common first, answered from the in-memory suggestion index.
+     * 
+     * @param prefix The text typed so far; matching ignores case.
+     * @param types The fields to suggest from, comma separated among {@code city}, {@code state},
+     *              {@code zipCode} and {@code address}; all of them if omitted.
+     * @param limit The maximum number of suggestions, capped at {@link PropertySuggestIndex#MAX_SUGGESTIONS}.
+     * @param request The current request; answered with 304 Not Modified if no property has changed since.
+     * @return A ResponseEntity containing the suggestions.
+     */
+    @GetMapping("/suggest")
+    @RateLimiter(name = "suggestOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<Suggestion>> suggest(
+        @RequestParam String prefix,
+        @RequestParam(required = false) List<String> types,
+        @RequestParam(defaultValue = "10") int limit,
+        WebRequest request
+    ) {
+        propertyIndexManager.requireReady();
+        if (prefix.isBlank()) {
+            throw new IllegalArgumentException("prefix must not be blank");
+        }
+        Set<PropertySuggestIndex.Field> fields = EnumSet.allOf(PropertySuggestIndex.Field.class);
+        if (types != null && !types.isEmpty()) {
+            fields.clear();
+            types.forEach(type -> fields.add(PropertySuggestIndex.Field.parse(type)));
+        }
+        if (ConditionalRequests.notModified(request, collectionVersions.stamp(CollectionVersions.Collection.PROPERTIES))) {
+            return null;
+        }
+        return ResponseEntity.ok(propertySuggestIndex.suggest(prefix, fields, limit));
     }
 
     /**
@@ -111,6 +431,30 @@ public class PropertyController {
         }
     }
 
+    /**
+     * Partially updates a property with a JSON Merge Patch ({@code application/merge-patch+json}):
+     * only the fields present are changed, and {@code null} clears an optional field. Only the changed
+     * columns are written. When the version the client last read is given, as the property's ETag in
+     * {@code If-Match} or as a {@code version} member of the patch, the update is applied without reading
+     * the row first and fails with 409 Conflict if the property has changed since.
+     * 
+     * @param id The ID of the property to be patched.
+     * @param patch The fields to change.
+     * @param ifMatch The ETag of the version the patch was made against (optional).
+     * @return A ResponseEntity containing the patched property and its new ETag.
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    @RateLimiter(name = "writeOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<Property> patchProperty(
+        @PathVariable Long id,
+        @RequestBody ObjectNode patch,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion = ifMatch == null ? null : VersionStamp.propertyVersionOf(id, ifMatch);
+        Property patchedProperty = propertyService.patchProperty(id, patch, expectedVersion);
+        return ConditionalRequests.ok(patchedProperty, VersionStamp.of(patchedProperty));
+    }
+
     /**
      * Deletes a property by its ID.
      * 
@@ -128,11 +472,42 @@ public class PropertyController {
         }
     }
     
+    private static void requireCoordinate(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinate: " + latitude + "," + longitude);
+        }
+    }
+
+    /**
+     * Writes a keyset page of properties to the output stream as they are read.
+     */
+    private void writePropertyPage(OutputStream out, long afterId, int pageSize, ResponseView view) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            Consumer<Object> writer = item -> {
+                try {
+                    generator.writeObject(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            Long resumeAfter = view == ResponseView.SUMMARY
+                ? propertyService.streamPropertySummariesAfter(afterId, pageSize, writer::accept)
+                : propertyService.streamPropertiesAfter(afterId, pageSize, writer::accept);
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", resumeAfter == null ? null : KeysetCursor.encode(resumeAfter));
+            generator.writeEndObject();
+        }
+    }
+
 	/*
 	 * 
-	 * Fallback method for all rate-limited endpoints
+	 * Fallback method for all rate-limited endpoints, called only when the rate limiter rejects a call;
+	 * other exceptions reach the {@code GlobalExceptionHandler}
 	 */
-	 public ResponseEntity<?> rateLimiterFallback(Throwable t) {
+	 public ResponseEntity<?> rateLimiterFallback(RequestNotPermitted t) {
 	     return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
 	         .body("Too many requests. Please slow down and try again.");
 	 }
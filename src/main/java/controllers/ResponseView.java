@@ -0,0 +1,34 @@
+package com.realestate.app.controllers;
+
+import java.util.Locale;
+
+/**
+ * The shape of the items returned by list and search endpoints, chosen with the {@code view} query parameter.
+ */
+enum ResponseView {
+
+    /**
+     * Whole entities, with every column and nested association.
+     */
+    FULL,
+
+    /**
+     * Only the columns shown in result lists, read with a projection query.
+     */
+    SUMMARY;
+
+    /**
+     * Parses the {@code view} query parameter, case-insensitively.
+     *
+     * @param value {@code full} or {@code summary}
+     * @return the matching view
+     * @throws IllegalArgumentException if the value names no view
+     */
+    static ResponseView parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported view '" + value + "'; use full or summary");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.realestate.app.controllers;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.realestate.app.models.SavedSearch;
+import com.realestate.app.services.SavedSearchService;
+
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+
+/**
+ * Controller class for the saved searches of the authenticated user.
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+public class SavedSearchController {
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    /**
+     * Saves a search. New and updated properties, and new listings, that match its criteria are
+     * emailed to the given address in a periodic digest.
+     *
+     * @param search The search: an {@code email}, an optional {@code name}, and the {@code criteria},
+     *               with the same filters as the property search. At least one filter is required.
+     * @param principal The authenticated user, who owns the search.
+     * @return A ResponseEntity containing the saved search.
+     */
+    @PostMapping
+    @RateLimiter(name = "writeOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<SavedSearch> createSavedSearch(@RequestBody SavedSearch search, Principal principal) {
+        return new ResponseEntity<>(savedSearchService.createSavedSearch(principal.getName(), search), HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves the saved searches of the authenticated user.
+     *
+     * @param principal The authenticated user.
+     * @return A ResponseEntity containing the user's saved searches.
+     */
+    @GetMapping
+    @RateLimiter(name = "standardApi", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<List<SavedSearch>> getSavedSearches(Principal principal) {
+        return ResponseEntity.ok(savedSearchService.findSavedSearches(principal.getName()));
+    }
+
+    /**
+     * Deletes a saved search of the authenticated user.
+     *
+     * @param id The ID of the saved search.
+     * @param principal The authenticated user.
+     * @return A ResponseEntity with no content.
+     */
+    @DeleteMapping("/{id}")
+    @RateLimiter(name = "writeOperations", fallbackMethod = "rateLimiterFallback")
+    public ResponseEntity<Void> deleteSavedSearch(@PathVariable Long id, Principal principal) {
+        savedSearchService.deleteSavedSearch(principal.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Fallback method for rate-limited endpoints, called only when the rate limiter rejects a call;
+     * other exceptions reach the {@code GlobalExceptionHandler}
+     */
+    public ResponseEntity<Object> rateLimiterFallback(RequestNotPermitted ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body("Rate limit exceeded. Please try again later.");
+    }
+}
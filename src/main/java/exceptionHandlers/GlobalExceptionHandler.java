@@ -3,6 +3,7 @@ package com.realestate.app.exceptionHandlers;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -10,6 +11,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+
 /**
  * Global exception handler that handles various types of exceptions across the application.
  * This class intercepts exceptions thrown by controllers and returns appropriate HTTP responses.
@@ -47,6 +50,61 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());  // Return a 404 response with the message.
     }
 
+    /**
+     * Handles IllegalArgumentException, which is thrown when a request parameter
+     * (such as a pagination cursor) is malformed.
+     * It returns a 400 Bad Request response with the exception message.
+     *
+     * @param ex the IllegalArgumentException that was thrown.
+     * @return a ResponseEntity with the error details and a 400 status.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", ex.getMessage()));
+    }
+
+    /**
+     * Handles IndexNotReadyException, which is thrown when an in-memory index is still
+     * being built after startup.
+     * It returns a 503 Service Unavailable response asking the client to retry.
+     *
+     * @param ex the IndexNotReadyException that was thrown.
+     * @return a ResponseEntity with the error details, a Retry-After header and a 503 status.
+     */
+    @ExceptionHandler(IndexNotReadyException.class)
+    public ResponseEntity<ErrorResponse> handleIndexNotReady(IndexNotReadyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(new ErrorResponse("SERVICE_UNAVAILABLE", ex.getMessage()));
+    }
+
+    /**
+     * Handles VersionConflictException, which is thrown when an update was made against
+     * a version of the resource that has since changed.
+     * It returns a 409 Conflict response; the client should re-read the resource and retry.
+     *
+     * @param ex the VersionConflictException that was thrown.
+     * @return a ResponseEntity with the error details and a 409 status.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(VersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse("CONFLICT", ex.getMessage()));
+    }
+
+    /**
+     * Handles RequestNotPermitted, which the rate limiter throws when a call exceeds its limit
+     * and no fallback method of the endpoint's signature takes it.
+     * It returns a 429 Too Many Requests response.
+     *
+     * @param ex the RequestNotPermitted that was thrown.
+     * @return a ResponseEntity with the error details and a 429 status.
+     */
+    @ExceptionHandler(RequestNotPermitted.class)
+    public ResponseEntity<ErrorResponse> handleRequestNotPermitted(RequestNotPermitted ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .body(new ErrorResponse("TOO_MANY_REQUESTS", "Rate limit exceeded. Please try again later."));
+    }
+
     /**
      * Handles general exceptions that do not fall into specific categories.
      * It returns a 500 Internal Server Error response with a generic error message.
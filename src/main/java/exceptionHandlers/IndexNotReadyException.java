@@ -0,0 +1,19 @@
+package com.realestate.app.exceptionHandlers;
+
+/**
+ * Custom exception thrown when a request needs an in-memory index that is still
+ * being built from the database after startup.
+ */
+public class IndexNotReadyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new IndexNotReadyException with the specified detail message.
+     *
+     * @param message the detail message explaining which index is not ready
+     */
+    public IndexNotReadyException(String message) {
+        super(message);
+    }
+}
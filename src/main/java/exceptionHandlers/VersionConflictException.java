@@ -0,0 +1,19 @@
+package com.realestate.app.exceptionHandlers;
+
+/**
+ * Custom exception thrown when a conditional update names a version of a resource
+ * that is no longer current, because another write changed it first.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new VersionConflictException with the specified detail message.
+     *
+     * @param message the detail message explaining which resource was changed
+     */
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
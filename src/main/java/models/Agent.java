@@ -2,22 +2,31 @@ package com.realestate.app.models;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 /**
  * Entity class representing an agent in the real estate system.
  * This class maps to the "agents" table in the database.
  */
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "agents")
 public class Agent {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "agent_ids")
+    @TableGenerator(name = "agent_ids", table = "id_blocks", pkColumnName = "entity", valueColumnName = "next_val",
+        pkColumnValue = "agents", allocationSize = 100)
     private Long id;
 
     @Column(nullable = false)
@@ -39,6 +48,32 @@ public class Agent {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Stamps the creation and update times of a new agent.
+     */
+    @PrePersist
+    void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    /**
+     * Stamps the update time of a modified agent.
+     */
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     /**
      * Gets the ID of the agent.
      * 
@@ -183,6 +218,42 @@ public class Agent {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Gets the timestamp when the agent record was last updated.
+     * 
+     * @return the last update timestamp of the agent record.
+     */
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the timestamp when the agent record was last updated.
+     * 
+     * @param updatedAt the last update timestamp of the agent record.
+     */
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets the optimistic lock version of the agent.
+     * 
+     * @return the version of the agent.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic lock version of the agent.
+     * 
+     * @param version the version of the agent.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Returns a string representation of the Agent object.
      * 
@@ -0,0 +1,61 @@
+package com.realestate.app.models;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One keyset page of an agent's listings, headed by totals over all of the agent's listings.
+ */
+public class AgentListingPage {
+
+    /**
+     * The listings on this page, with their properties and agent.
+     */
+    private List<Listing> items;
+
+    /**
+     * The number of listings the agent has.
+     */
+    private long totalCount;
+
+    /**
+     * The sum of the listing prices of all the agent's listings.
+     */
+    private BigDecimal totalValue;
+
+    /**
+     * The cursor of the next page, or {@code null} on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Constructs a new page of an agent's listings.
+     *
+     * @param items the listings on this page
+     * @param totalCount the number of listings the agent has
+     * @param totalValue the sum of the listing prices of all the agent's listings
+     * @param nextCursor the cursor of the next page, or {@code null} on the last page
+     */
+    public AgentListingPage(List<Listing> items, long totalCount, BigDecimal totalValue, String nextCursor) {
+        this.items = items;
+        this.totalCount = totalCount;
+        this.totalValue = totalValue;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Listing> getItems() {
+        return items;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,57 @@
+package com.realestate.app.models;
+
+import com.realestate.app.models.Property.PropertyStatus;
+
+/**
+ * Represents the outcome of a bulk status update.
+ */
+public class BulkStatusResult {
+
+    /**
+     * The status the properties were moved to.
+     */
+    private final PropertyStatus status;
+
+    /**
+     * The number of properties selected by the request's IDs or filter.
+     */
+    private final long matched;
+
+    /**
+     * The number of properties whose status changed.
+     */
+    private final long updated;
+
+    /**
+     * Constructs a new bulk status result.
+     *
+     * @param status the status the properties were moved to
+     * @param matched the number of properties selected
+     * @param updated the number of properties whose status changed
+     */
+    public BulkStatusResult(PropertyStatus status, long matched, long updated) {
+        this.status = status;
+        this.matched = matched;
+        this.updated = updated;
+    }
+
+    public PropertyStatus getStatus() {
+        return status;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return the number of selected properties left as they were: missing, already in the
+     *         target status, or not in the required {@code fromStatus}
+     */
+    public long getUnchanged() {
+        return matched - updated;
+    }
+}
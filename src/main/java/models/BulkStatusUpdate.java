@@ -0,0 +1,70 @@
+package com.realestate.app.models;
+
+import java.util.List;
+
+import com.realestate.app.models.Property.PropertyStatus;
+
+/**
+ * Represents a request to move many properties to a new status at once.
+ * The properties are selected either by ID or by search filter, never both.
+ */
+public class BulkStatusUpdate {
+
+    /**
+     * The status to move the properties to.
+     */
+    private PropertyStatus status;
+
+    /**
+     * If set, only properties currently in this status are moved (e.g. PENDING to SOLD).
+     */
+    private PropertyStatus fromStatus;
+
+    /**
+     * The IDs of the properties to update.
+     */
+    private List<Long> ids;
+
+    /**
+     * The search filters selecting the properties to update, as accepted by {@code /api/properties/search}.
+     */
+    private PropertySearchCriteria filter;
+
+    public PropertyStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PropertyStatus status) {
+        this.status = status;
+    }
+
+    public PropertyStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public void setFromStatus(PropertyStatus fromStatus) {
+        this.fromStatus = fromStatus;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public PropertySearchCriteria getFilter() {
+        return filter;
+    }
+
+    public void setFilter(PropertySearchCriteria filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkStatusUpdate [status=" + status + ", fromStatus=" + fromStatus + ", ids="
+                + (ids == null ? null : ids.size() + " ids") + ", filter=" + filter + "]";
+    }
+}
@@ -0,0 +1,58 @@
+package com.realestate.app.models;
+
+/**
+ * Represents a property location returned by a geographic search.
+ */
+public class GeoPoint {
+
+    /**
+     * The ID of the property.
+     */
+    private Long id;
+
+    /**
+     * The latitude of the property location.
+     */
+    private double latitude;
+
+    /**
+     * The longitude of the property location.
+     */
+    private double longitude;
+
+    /**
+     * The distance in kilometres from the search centre, or {@code null} for non-radius searches.
+     */
+    private Double distanceKm;
+
+    /**
+     * Constructs a new GeoPoint.
+     *
+     * @param id the ID of the property
+     * @param latitude the latitude of the property location
+     * @param longitude the longitude of the property location
+     * @param distanceKm the distance from the search centre, or {@code null}
+     */
+    public GeoPoint(Long id, double latitude, double longitude, Double distanceKm) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+}
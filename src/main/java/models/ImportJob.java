@@ -0,0 +1,237 @@
+package com.realestate.app.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a bulk property import and its progress.
+ * Counters are updated by the import pipeline while the job runs and may be read at any time.
+ */
+public class ImportJob {
+
+    /**
+     * At most this many row errors are kept for reporting; later errors are only counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * Lifecycle of an import job.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * The unique identifier of the job.
+     */
+    private final String id;
+
+    /**
+     * The format of the imported data (NDJSON or CSV).
+     */
+    private final String format;
+
+    /**
+     * The current status of the job.
+     */
+    private volatile Status status = Status.QUEUED;
+
+    /**
+     * Why the job failed, if it did.
+     */
+    private volatile String failureMessage;
+
+    /**
+     * The timestamp when the job was submitted.
+     */
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    /**
+     * The timestamp when the job started running.
+     */
+    private volatile LocalDateTime startedAt;
+
+    /**
+     * The timestamp when the job finished.
+     */
+    private volatile LocalDateTime finishedAt;
+
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Constructs a new queued import job.
+     *
+     * @param id the unique identifier of the job
+     * @param format the format of the imported data
+     */
+    public ImportJob(String id, String format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    /**
+     * Marks the job as running.
+     */
+    public void start() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    /**
+     * Marks the job as completed.
+     */
+    public void complete() {
+        finish(Status.COMPLETED);
+    }
+
+    /**
+     * Marks the job as failed.
+     *
+     * @param message why the job failed
+     */
+    public void fail(String message) {
+        failureMessage = message;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status finalStatus) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    /**
+     * Records rows read from the input.
+     *
+     * @param count the number of rows read
+     */
+    public void addRowsRead(long count) {
+        rowsRead.addAndGet(count);
+    }
+
+    /**
+     * Records rows committed to the database.
+     *
+     * @param count the number of rows imported
+     */
+    public void addRowsImported(long count) {
+        rowsImported.addAndGet(count);
+    }
+
+    /**
+     * Records a row that could not be imported.
+     *
+     * @param line the line number of the row in the input
+     * @param message why the row was rejected
+     */
+    public void addRowError(long line, String message) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    /**
+     * @return the rows processed (imported or rejected) per second since the job started
+     */
+    public double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        long end = finishedAt != null ? finishedNanos : System.nanoTime();
+        double seconds = Math.max(end - startedNanos, 1) / 1_000_000_000.0;
+        return Math.round((rowsImported.get() + rowsFailed.get()) / seconds * 10) / 10.0;
+    }
+
+    /**
+     * @return the first {@link #MAX_REPORTED_ERRORS} row errors, in the order they were found
+     */
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    /**
+     * A rejected input row.
+     */
+    public static class RowError {
+
+        /**
+         * The line number of the row in the input, starting at 1.
+         */
+        private final long line;
+
+        /**
+         * Why the row was rejected.
+         */
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -2,42 +2,70 @@ package com.realestate.app.models;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 /**
  * Represents a real estate listing.
  * This entity links a property with an agent, and includes details like the listing date, price, and whether it is featured.
+ * The property and agent are loaded lazily; queries whose results are serialized whole fetch them
+ * in the same statement through the {@value #WITH_PROPERTY_AND_AGENT} entity graph.
  */
 @Entity
-@Table(name = "listings")
+@DynamicUpdate
+@Table(name = "listings", indexes = {
+    @Index(name = "idx_listings_agent_date", columnList = "agent_id, listing_date, id"),
+    @Index(name = "idx_listings_agent_price", columnList = "agent_id, listing_price, id")
+})
+@NamedEntityGraph(name = Listing.WITH_PROPERTY_AND_AGENT, attributeNodes = {
+    @NamedAttributeNode("property"),
+    @NamedAttributeNode("agent")
+})
 public class Listing {
 
+    /**
+     * Entity graph that fetches a listing's property and agent with it.
+     */
+    public static final String WITH_PROPERTY_AND_AGENT = "Listing.withPropertyAndAgent";
+
     /**
      * The unique identifier for the listing.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "listing_ids")
+    @TableGenerator(name = "listing_ids", table = "id_blocks", pkColumnName = "entity", valueColumnName = "next_val",
+        pkColumnValue = "listings", allocationSize = 100)
     private Long id;
 
     /**
      * The property being listed.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "property_id", nullable = false)
     private Property property;
 
     /**
      * The agent handling the listing.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "agent_id", nullable = false)
     private Agent agent;
 
@@ -58,6 +86,27 @@ public class Listing {
      */
     private Boolean isFeatured;
 
+    /**
+     * The timestamp when the listing was last updated.
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * The optimistic lock version, incremented on every update.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Stamps the update time of a new or modified listing.
+     */
+    @PrePersist
+    @PreUpdate
+    void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
     /**
      * Gets the unique identifier of the listing.
      * 
@@ -166,6 +215,42 @@ public class Listing {
         this.isFeatured = isFeatured;
     }
 
+    /**
+     * Gets the timestamp when the listing was last updated.
+     * 
+     * @return the last update timestamp of the listing.
+     */
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the timestamp when the listing was last updated.
+     * 
+     * @param updatedAt the last update timestamp of the listing.
+     */
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets the optimistic lock version of the listing.
+     * 
+     * @return the version of the listing.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic lock version of the listing.
+     * 
+     * @param version the version of the listing.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Provides a string representation of the Listing object.
      * 
@@ -174,6 +259,6 @@ public class Listing {
     @Override
     public String toString() {
         return "Listing [id=" + id + ", property=" + property + ", agent=" + agent + ", listingDate=" + listingDate
-                + ", listingPrice=" + listingPrice + ", isFeatured=" + isFeatured + "]";
+                + ", listingPrice=" + listingPrice + ", isFeatured=" + isFeatured + ", updatedAt=" + updatedAt + ", version=" + version + "]";
     }
 }
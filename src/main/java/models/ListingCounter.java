@@ -0,0 +1,61 @@
+package com.realestate.app.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Represents the persisted view and contact counts of a listing.
+ * Kept apart from the listings table so the periodic counter flushes never lock or version listing rows;
+ * counts are added to the row with upserts and are never read back before writing.
+ */
+@Entity
+@Table(name = "listing_counters")
+public class ListingCounter {
+
+    /**
+     * The ID of the listing.
+     */
+    @Id
+    @Column(name = "listing_id")
+    private Long listingId;
+
+    /**
+     * The number of times the listing was viewed.
+     */
+    @Column(nullable = false)
+    private long views;
+
+    /**
+     * The number of times the listing's agent was contacted about it.
+     */
+    @Column(nullable = false)
+    private long contacts;
+
+    // Getters and Setters
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+
+    public long getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(long contacts) {
+        this.contacts = contacts;
+    }
+}
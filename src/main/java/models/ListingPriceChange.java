@@ -0,0 +1,137 @@
+package com.realestate.app.models;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Represents one price of a listing in its append-only price history: the initial listing price,
+ * or a change of it. Rows are keyed on the listing and the time of the change, so the history of
+ * a listing is stored contiguously in the clustered primary key and any time range of it is read
+ * with one range scan.
+ */
+@Entity
+@IdClass(ListingPriceChange.Key.class)
+@Table(name = "listing_price_history", indexes = {
+    @Index(name = "idx_listing_price_history_changed_at", columnList = "changed_at")
+})
+public class ListingPriceChange {
+
+    /**
+     * The ID of the listing.
+     */
+    @Id
+    @Column(name = "listing_id")
+    private Long listingId;
+
+    /**
+     * The timestamp when the listing took this price.
+     */
+    @Id
+    @Column(name = "changed_at", columnDefinition = "DATETIME(6)")
+    private LocalDateTime changedAt;
+
+    /**
+     * The listing price from this change on.
+     */
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    /**
+     * The listing price before this change, or {@code null} for the initial price.
+     */
+    @Column(precision = 12, scale = 2)
+    private BigDecimal previousPrice;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public ListingPriceChange() {
+    }
+
+    public ListingPriceChange(Long listingId, BigDecimal previousPrice, BigDecimal price) {
+        this.listingId = listingId;
+        this.changedAt = LocalDateTime.now();
+        this.previousPrice = previousPrice;
+        this.price = price;
+    }
+
+    // Getters and Setters
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getPreviousPrice() {
+        return previousPrice;
+    }
+
+    public void setPreviousPrice(BigDecimal previousPrice) {
+        this.previousPrice = previousPrice;
+    }
+
+    /**
+     * The primary key of a price history row.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long listingId;
+
+        private LocalDateTime changedAt;
+
+        public Key() {
+        }
+
+        public Key(Long listingId, LocalDateTime changedAt) {
+            this.listingId = listingId;
+            this.changedAt = changedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(listingId, other.listingId) && Objects.equals(changedAt, other.changedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(listingId, changedAt);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.realestate.app.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A listing as shown in result lists: its own columns, the summary columns of its property and
+ * the name of its agent, selected in one query without loading the property or agent entities.
+ * Returned by list endpoints with {@code view=summary}.
+ *
+ * @param id the ID of the listing
+ * @param listingPrice the listing price
+ * @param listingDate the listing date
+ * @param isFeatured whether the listing is featured
+ * @param propertyId the ID of the listed property
+ * @param title the title of the property
+ * @param city the city where the property is located
+ * @param bedrooms the number of bedrooms
+ * @param bathrooms the number of bathrooms
+ * @param thumbnailUrl the URL of the property's thumbnail image, may be null
+ * @param agentId the ID of the listing agent
+ * @param agentName the first and last name of the listing agent
+ */
+public record ListingSummary(
+    Long id,
+    BigDecimal listingPrice,
+    LocalDate listingDate,
+    Boolean isFeatured,
+    Long propertyId,
+    String title,
+    String city,
+    Integer bedrooms,
+    Double bathrooms,
+    String thumbnailUrl,
+    Long agentId,
+    String agentName
+) {
+}
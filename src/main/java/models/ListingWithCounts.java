@@ -0,0 +1,18 @@
+package com.realestate.app.models;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A listing with its view and contact counts, serialized as the listing's own fields plus
+ * {@code viewCount} and {@code contactCount}.
+ *
+ * @param listing the listing
+ * @param viewCount the number of times the listing was viewed, including views not flushed to the database yet
+ * @param contactCount the number of times the listing's agent was contacted about it, likewise
+ */
+public record ListingWithCounts(
+    @JsonUnwrapped Listing listing,
+    long viewCount,
+    long contactCount
+) {
+}
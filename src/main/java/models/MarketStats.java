@@ -0,0 +1,209 @@
+package com.realestate.app.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the market statistics of one group of properties: a city, state, ZIP code,
+ * property type, or the whole market. Price and price per square foot quantiles are
+ * estimates within one percent of the true value; counts, averages and days on market are exact.
+ */
+public class MarketStats {
+
+    /**
+     * The dimension the properties are grouped by: {@code market}, {@code city}, {@code state},
+     * {@code zipCode} or {@code propertyType}.
+     */
+    private String groupBy;
+
+    /**
+     * The value of the dimension shared by the group, e.g. the city name.
+     */
+    private String key;
+
+    /**
+     * The number of properties in the group.
+     */
+    private long propertyCount;
+
+    /**
+     * The average property price, or {@code null} if the group has no properties.
+     */
+    private BigDecimal averagePrice;
+
+    /**
+     * The 10th percentile of property prices.
+     */
+    private BigDecimal p10Price;
+
+    /**
+     * The median property price.
+     */
+    private BigDecimal medianPrice;
+
+    /**
+     * The 90th percentile of property prices.
+     */
+    private BigDecimal p90Price;
+
+    /**
+     * The average price per square foot, over the properties with a known square footage.
+     */
+    private BigDecimal averagePricePerSquareFoot;
+
+    /**
+     * The 10th percentile of prices per square foot.
+     */
+    private BigDecimal p10PricePerSquareFoot;
+
+    /**
+     * The median price per square foot.
+     */
+    private BigDecimal medianPricePerSquareFoot;
+
+    /**
+     * The 90th percentile of prices per square foot.
+     */
+    private BigDecimal p90PricePerSquareFoot;
+
+    /**
+     * The number of listings of properties in the group.
+     */
+    private long listingCount;
+
+    /**
+     * The average number of days since the listings were listed, or {@code null} if there are none.
+     */
+    private Double averageDaysOnMarket;
+
+    /**
+     * The median number of days since the listings were listed.
+     */
+    private Integer medianDaysOnMarket;
+
+    /**
+     * The 90th percentile of the number of days since the listings were listed.
+     */
+    private Integer p90DaysOnMarket;
+
+    // Getters and Setters
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getPropertyCount() {
+        return propertyCount;
+    }
+
+    public void setPropertyCount(long propertyCount) {
+        this.propertyCount = propertyCount;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(BigDecimal averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    public BigDecimal getP10Price() {
+        return p10Price;
+    }
+
+    public void setP10Price(BigDecimal p10Price) {
+        this.p10Price = p10Price;
+    }
+
+    public BigDecimal getMedianPrice() {
+        return medianPrice;
+    }
+
+    public void setMedianPrice(BigDecimal medianPrice) {
+        this.medianPrice = medianPrice;
+    }
+
+    public BigDecimal getP90Price() {
+        return p90Price;
+    }
+
+    public void setP90Price(BigDecimal p90Price) {
+        this.p90Price = p90Price;
+    }
+
+    public BigDecimal getAveragePricePerSquareFoot() {
+        return averagePricePerSquareFoot;
+    }
+
+    public void setAveragePricePerSquareFoot(BigDecimal averagePricePerSquareFoot) {
+        this.averagePricePerSquareFoot = averagePricePerSquareFoot;
+    }
+
+    public BigDecimal getP10PricePerSquareFoot() {
+        return p10PricePerSquareFoot;
+    }
+
+    public void setP10PricePerSquareFoot(BigDecimal p10PricePerSquareFoot) {
+        this.p10PricePerSquareFoot = p10PricePerSquareFoot;
+    }
+
+    public BigDecimal getMedianPricePerSquareFoot() {
+        return medianPricePerSquareFoot;
+    }
+
+    public void setMedianPricePerSquareFoot(BigDecimal medianPricePerSquareFoot) {
+        this.medianPricePerSquareFoot = medianPricePerSquareFoot;
+    }
+
+    public BigDecimal getP90PricePerSquareFoot() {
+        return p90PricePerSquareFoot;
+    }
+
+    public void setP90PricePerSquareFoot(BigDecimal p90PricePerSquareFoot) {
+        this.p90PricePerSquareFoot = p90PricePerSquareFoot;
+    }
+
+    public long getListingCount() {
+        return listingCount;
+    }
+
+    public void setListingCount(long listingCount) {
+        this.listingCount = listingCount;
+    }
+
+    public Double getAverageDaysOnMarket() {
+        return averageDaysOnMarket;
+    }
+
+    public void setAverageDaysOnMarket(Double averageDaysOnMarket) {
+        this.averageDaysOnMarket = averageDaysOnMarket;
+    }
+
+    public Integer getMedianDaysOnMarket() {
+        return medianDaysOnMarket;
+    }
+
+    public void setMedianDaysOnMarket(Integer medianDaysOnMarket) {
+        this.medianDaysOnMarket = medianDaysOnMarket;
+    }
+
+    public Integer getP90DaysOnMarket() {
+        return p90DaysOnMarket;
+    }
+
+    public void setP90DaysOnMarket(Integer p90DaysOnMarket) {
+        this.p90DaysOnMarket = p90DaysOnMarket;
+    }
+}
@@ -0,0 +1,73 @@
+package com.realestate.app.models;
+
+import java.util.List;
+
+/**
+ * Represents one page of results returned by a paged endpoint.
+ *
+ * @param <T> the type of the items in the page
+ */
+public class PagedResult<T> {
+
+    /**
+     * The items on this page.
+     */
+    private List<T> content;
+
+    /**
+     * The zero-based page number.
+     */
+    private int page;
+
+    /**
+     * The requested page size.
+     */
+    private int size;
+
+    /**
+     * The total number of matching items, or {@code null} if it was not counted.
+     */
+    private Long totalElements;
+
+    /**
+     * Whether another page follows this one.
+     */
+    private boolean hasNext;
+
+    /**
+     * Constructs a new page of results.
+     *
+     * @param content the items on this page
+     * @param page the zero-based page number
+     * @param size the requested page size
+     * @param totalElements the total number of matching items, or {@code null} if not counted
+     * @param hasNext whether another page follows this one
+     */
+    public PagedResult(List<T> content, int page, int size, Long totalElements, boolean hasNext) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+}
@@ -3,6 +3,10 @@ package com.realestate.app.models;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -10,21 +14,38 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 /**
  * Represents a property listed in the real estate application.
  * Includes details such as title, description, price, type, status, and location.
  */
 @Entity
-@Table(name = "properties")
+@DynamicUpdate
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@Table(name = "properties", indexes = {
+    @Index(name = "idx_properties_city_price", columnList = "city, price"),
+    @Index(name = "idx_properties_type_status_price", columnList = "property_type, status, price"),
+    @Index(name = "idx_properties_state", columnList = "state"),
+    @Index(name = "idx_properties_zip_code", columnList = "zip_code"),
+    @Index(name = "idx_properties_price", columnList = "price"),
+    @Index(name = "idx_properties_bedrooms", columnList = "bedrooms"),
+    @Index(name = "idx_properties_created_at", columnList = "created_at")
+})
 public class Property {
 
     /**
      * The unique identifier for the property.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "property_ids")
+    @TableGenerator(name = "property_ids", table = "id_blocks", pkColumnName = "entity", valueColumnName = "next_val",
+        pkColumnValue = "properties", allocationSize = 100)
     private Long id;
 
     /**
@@ -126,6 +147,12 @@ public class Property {
      */
     private Double longitude;
 
+    /**
+     * The URL of a small image shown for the property in result lists.
+     */
+    @Column(length = 512)
+    private String thumbnailUrl;
+
     /**
      * The timestamp when the property was created.
      */
@@ -137,6 +164,33 @@ public class Property {
      */
     private LocalDateTime updatedAt;
 
+    /**
+     * The optimistic lock version, incremented on every update. Together with the ID it forms the property's ETag.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Stamps the creation and update times of a new property.
+     */
+    @PrePersist
+    void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    /**
+     * Stamps the update time of a modified property.
+     */
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     // Getters and Setters
 
     public Long getId() {
@@ -259,6 +313,14 @@ public class Property {
 		this.longitude = longitude;
 	}
 
+	public String getThumbnailUrl() {
+		return thumbnailUrl;
+	}
+
+	public void setThumbnailUrl(String thumbnailUrl) {
+		this.thumbnailUrl = thumbnailUrl;
+	}
+
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
@@ -274,6 +336,14 @@ public class Property {
 	public void setUpdatedAt(LocalDateTime updatedAt) {
 		this.updatedAt = updatedAt;
 	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
 	
     // Other methods (e.g., toString)
 
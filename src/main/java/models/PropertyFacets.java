@@ -0,0 +1,96 @@
+package com.realestate.app.models;
+
+import java.util.Map;
+
+/**
+ * Represents the facet counts of a property search.
+ * Each facet maps a value (or bucket label) to the number of matching properties with that value.
+ * A facet ignores its own filter, so it also counts the alternatives to the currently selected value.
+ */
+public class PropertyFacets {
+
+    /**
+     * The number of properties matching every filter.
+     */
+    private long total;
+
+    /**
+     * Counts per property type.
+     */
+    private Map<String, Long> propertyType;
+
+    /**
+     * Counts per property status.
+     */
+    private Map<String, Long> status;
+
+    /**
+     * Counts per city, most frequent first.
+     */
+    private Map<String, Long> city;
+
+    /**
+     * Counts per state, most frequent first.
+     */
+    private Map<String, Long> state;
+
+    /**
+     * Counts per bedroom bucket.
+     */
+    private Map<String, Long> bedrooms;
+
+    /**
+     * Counts per price bucket.
+     */
+    private Map<String, Long> price;
+
+    /**
+     * Constructs a new set of facet counts.
+     *
+     * @param total the number of properties matching every filter
+     * @param propertyType counts per property type
+     * @param status counts per property status
+     * @param city counts per city
+     * @param state counts per state
+     * @param bedrooms counts per bedroom bucket
+     * @param price counts per price bucket
+     */
+    public PropertyFacets(long total, Map<String, Long> propertyType, Map<String, Long> status, Map<String, Long> city,
+            Map<String, Long> state, Map<String, Long> bedrooms, Map<String, Long> price) {
+        this.total = total;
+        this.propertyType = propertyType;
+        this.status = status;
+        this.city = city;
+        this.state = state;
+        this.bedrooms = bedrooms;
+        this.price = price;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getPropertyType() {
+        return propertyType;
+    }
+
+    public Map<String, Long> getStatus() {
+        return status;
+    }
+
+    public Map<String, Long> getCity() {
+        return city;
+    }
+
+    public Map<String, Long> getState() {
+        return state;
+    }
+
+    public Map<String, Long> getBedrooms() {
+        return bedrooms;
+    }
+
+    public Map<String, Long> getPrice() {
+        return price;
+    }
+}
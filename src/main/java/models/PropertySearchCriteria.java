@@ -0,0 +1,203 @@
+package com.realestate.app.models;
+
+import java.math.BigDecimal;
+
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+/**
+ * Represents the filters of a property search.
+ * Every filter is optional; a search combines whichever filters are set.
+ * Embedded as columns of a {@link SavedSearch}.
+ */
+@Embeddable
+public class PropertySearchCriteria {
+
+    /**
+     * Free-text query matched against title, description, address and city.
+     */
+    @Column(name = "query_text")
+    private String q;
+
+    /**
+     * The type of property to match.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "property_type")
+    private PropertyType type;
+
+    /**
+     * The status of property to match.
+     */
+    @Enumerated(EnumType.STRING)
+    private PropertyStatus status;
+
+    /**
+     * The city to match.
+     */
+    private String city;
+
+    /**
+     * The state to match.
+     */
+    private String state;
+
+    /**
+     * The ZIP code to match.
+     */
+    private String zipCode;
+
+    /**
+     * The minimum price (inclusive).
+     */
+    private BigDecimal minPrice;
+
+    /**
+     * The maximum price (inclusive).
+     */
+    private BigDecimal maxPrice;
+
+    /**
+     * The minimum number of bedrooms.
+     */
+    private Integer minBedrooms;
+
+    /**
+     * The maximum number of bedrooms.
+     */
+    private Integer maxBedrooms;
+
+    /**
+     * The minimum number of bathrooms.
+     */
+    private Double minBathrooms;
+
+    /**
+     * The minimum square footage.
+     */
+    private Integer minSquareFeet;
+
+    /**
+     * The maximum square footage.
+     */
+    private Integer maxSquareFeet;
+
+    // Getters and Setters
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public PropertyType getType() {
+        return type;
+    }
+
+    public void setType(PropertyType type) {
+        this.type = type;
+    }
+
+    public PropertyStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PropertyStatus status) {
+        this.status = status;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getZipCode() {
+        return zipCode;
+    }
+
+    public void setZipCode(String zipCode) {
+        this.zipCode = zipCode;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMinBedrooms() {
+        return minBedrooms;
+    }
+
+    public void setMinBedrooms(Integer minBedrooms) {
+        this.minBedrooms = minBedrooms;
+    }
+
+    public Integer getMaxBedrooms() {
+        return maxBedrooms;
+    }
+
+    public void setMaxBedrooms(Integer maxBedrooms) {
+        this.maxBedrooms = maxBedrooms;
+    }
+
+    public Double getMinBathrooms() {
+        return minBathrooms;
+    }
+
+    public void setMinBathrooms(Double minBathrooms) {
+        this.minBathrooms = minBathrooms;
+    }
+
+    public Integer getMinSquareFeet() {
+        return minSquareFeet;
+    }
+
+    public void setMinSquareFeet(Integer minSquareFeet) {
+        this.minSquareFeet = minSquareFeet;
+    }
+
+    public Integer getMaxSquareFeet() {
+        return maxSquareFeet;
+    }
+
+    public void setMaxSquareFeet(Integer maxSquareFeet) {
+        this.maxSquareFeet = maxSquareFeet;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySearchCriteria [q=" + q + ", type=" + type + ", status=" + status + ", city=" + city + ", state=" + state
+                + ", zipCode=" + zipCode + ", minPrice=" + minPrice + ", maxPrice=" + maxPrice + ", minBedrooms="
+                + minBedrooms + ", maxBedrooms=" + maxBedrooms + ", minBathrooms=" + minBathrooms
+                + ", minSquareFeet=" + minSquareFeet + ", maxSquareFeet=" + maxSquareFeet + "]";
+    }
+}
@@ -0,0 +1,26 @@
+package com.realestate.app.models;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of a property shown in result lists, selected without the description and other detail columns.
+ * Returned by list and search endpoints with {@code view=summary}.
+ *
+ * @param id the ID of the property
+ * @param title the title of the property
+ * @param price the price of the property
+ * @param city the city where the property is located
+ * @param bedrooms the number of bedrooms
+ * @param bathrooms the number of bathrooms
+ * @param thumbnailUrl the URL of the property's thumbnail image, may be null
+ */
+public record PropertySummary(
+    Long id,
+    String title,
+    BigDecimal price,
+    String city,
+    Integer bedrooms,
+    Double bathrooms,
+    String thumbnailUrl
+) {
+}
@@ -0,0 +1,118 @@
+package com.realestate.app.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+/**
+ * Represents a property search a user has saved to be notified of new matches.
+ * New and updated properties, and new listings, that match the criteria are collected
+ * and sent to the user's email address in a periodic digest.
+ */
+@Entity
+@Table(name = "saved_searches", indexes = {
+    @Index(name = "idx_saved_searches_username", columnList = "username")
+})
+public class SavedSearch {
+
+    /**
+     * The unique identifier for the saved search.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "saved_search_ids")
+    @TableGenerator(name = "saved_search_ids", table = "id_blocks", pkColumnName = "entity", valueColumnName = "next_val",
+        pkColumnValue = "saved_searches", allocationSize = 100)
+    private Long id;
+
+    /**
+     * The username of the user who saved the search.
+     */
+    @Column(nullable = false)
+    private String username;
+
+    /**
+     * The address the match digests are sent to.
+     */
+    @Column(nullable = false)
+    private String email;
+
+    /**
+     * A name for the search chosen by the user, shown in the digests.
+     */
+    private String name;
+
+    /**
+     * The filters a property must match.
+     */
+    @Embedded
+    private PropertySearchCriteria criteria = new PropertySearchCriteria();
+
+    /**
+     * The timestamp when the search was saved.
+     */
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public PropertySearchCriteria getCriteria() {
+        return criteria;
+    }
+
+    public void setCriteria(PropertySearchCriteria criteria) {
+        this.criteria = criteria;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.realestate.app.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+/**
+ * Represents a match of a saved search that has not been sent to its user yet.
+ * Matches are queued as rows so they survive a restart, and deleted once a digest containing them is sent.
+ */
+@Entity
+@Table(name = "saved_search_matches", indexes = {
+    @Index(name = "idx_saved_search_matches_search", columnList = "saved_search_id")
+})
+public class SavedSearchMatch {
+
+    /**
+     * The unique identifier for the match.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "saved_search_match_ids")
+    @TableGenerator(name = "saved_search_match_ids", table = "id_blocks", pkColumnName = "entity", valueColumnName = "next_val",
+        pkColumnValue = "saved_search_matches", allocationSize = 100)
+    private Long id;
+
+    /**
+     * The ID of the saved search that matched.
+     */
+    @Column(name = "saved_search_id", nullable = false)
+    private Long savedSearchId;
+
+    /**
+     * The ID of the matching property.
+     */
+    @Column(nullable = false)
+    private Long propertyId;
+
+    /**
+     * The ID of the new listing of the property, or {@code null} if the property itself is new or changed.
+     */
+    private Long listingId;
+
+    /**
+     * The timestamp when the match was found.
+     */
+    @Column(nullable = false)
+    private LocalDateTime matchedAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public SavedSearchMatch() {
+    }
+
+    public SavedSearchMatch(Long savedSearchId, Long propertyId, Long listingId) {
+        this.savedSearchId = savedSearchId;
+        this.propertyId = propertyId;
+        this.listingId = listingId;
+        this.matchedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSavedSearchId() {
+        return savedSearchId;
+    }
+
+    public void setSavedSearchId(Long savedSearchId) {
+        this.savedSearchId = savedSearchId;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public void setPropertyId(Long propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(LocalDateTime matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.realestate.app.models;
+
+/**
+ * Represents the hit rate of one key of the search result cache.
+ */
+public class SearchCacheStats {
+
+    /**
+     * The canonical form of the request parameters the results are cached under.
+     */
+    private final String key;
+
+    /**
+     * The number of requests answered from the cache.
+     */
+    private final long hits;
+
+    /**
+     * The number of requests that had to run the search.
+     */
+    private final long misses;
+
+    /**
+     * Whether the key currently has an up-to-date cached result.
+     */
+    private final boolean cached;
+
+    /**
+     * Constructs the statistics of a key.
+     *
+     * @param key the canonical key
+     * @param hits the number of requests answered from the cache
+     * @param misses the number of requests that had to run the search
+     * @param cached whether the key currently has an up-to-date cached result
+     */
+    public SearchCacheStats(String key, long hits, long misses, boolean cached) {
+        this.key = key;
+        this.hits = hits;
+        this.misses = misses;
+        this.cached = cached;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getRequests() {
+        return hits + misses;
+    }
+
+    /**
+     * @return the share of requests answered from the cache, between 0 and 1
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+}
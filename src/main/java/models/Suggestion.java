@@ -0,0 +1,47 @@
+package com.realestate.app.models;
+
+/**
+ * Represents an autocomplete suggestion for the property search box.
+ */
+public class Suggestion {
+
+    /**
+     * The suggested value, as written on the properties.
+     */
+    private final String text;
+
+    /**
+     * The property field the value comes from: {@code city}, {@code state}, {@code zipCode} or {@code address}.
+     */
+    private final String field;
+
+    /**
+     * The number of properties with this value.
+     */
+    private final int count;
+
+    /**
+     * Constructs a new suggestion.
+     *
+     * @param text the suggested value
+     * @param field the property field the value comes from
+     * @param count the number of properties with this value
+     */
+    public Suggestion(String text, String field, int count) {
+        this.text = text;
+        this.field = field;
+        this.count = count;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
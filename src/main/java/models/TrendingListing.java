@@ -0,0 +1,13 @@
+package com.realestate.app.models;
+
+/**
+ * A listing among the most viewed of a recent time window.
+ *
+ * @param listing the summary of the listing
+ * @param views the estimated number of views of the listing within the window; never below the true number
+ */
+public record TrendingListing(
+    ListingSummary listing,
+    long views
+) {
+}
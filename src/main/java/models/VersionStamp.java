@@ -0,0 +1,147 @@
+package com.realestate.app.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Identifies one version of a resource for conditional requests: a strong ETag and the
+ * time it was last modified. Stamps are small enough to be cached for far more resources
+ * than the resources themselves, so a conditional GET can usually be answered without loading the row.
+ */
+public class VersionStamp {
+
+    /**
+     * The ETag, without quotes.
+     */
+    private final String etag;
+
+    /**
+     * The last modification time in epoch milliseconds, or -1 if unknown.
+     */
+    private final long lastModified;
+
+    public VersionStamp(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Builds the stamp of a property from its version and update time.
+     *
+     * @param id the ID of the property
+     * @param version the version of the property
+     * @param updatedAt when the property was last updated, may be null
+     * @return the stamp of the property
+     */
+    public static VersionStamp ofProperty(Long id, long version, LocalDateTime updatedAt) {
+        return new VersionStamp("p" + id + "-" + version, toEpochMillis(updatedAt));
+    }
+
+    /**
+     * Builds the stamp of a property.
+     *
+     * @param property the property
+     * @return the stamp of the property
+     */
+    public static VersionStamp of(Property property) {
+        return ofProperty(property.getId(), property.getVersion(), property.getUpdatedAt());
+    }
+
+    /**
+     * Builds the stamp of a listing. A listing is rendered with its property and agent,
+     * so their versions are part of its ETag.
+     *
+     * @param id the ID of the listing
+     * @param version the version of the listing
+     * @param propertyVersion the version of the listed property
+     * @param agentVersion the version of the listing agent
+     * @param updatedAt the latest update time of the listing, its property and its agent, may be null
+     * @return the stamp of the listing
+     */
+    public static VersionStamp ofListing(Long id, long version, long propertyVersion, long agentVersion,
+            LocalDateTime updatedAt) {
+        return new VersionStamp("l" + id + "-" + version + "." + propertyVersion + "." + agentVersion,
+            toEpochMillis(updatedAt));
+    }
+
+    /**
+     * Builds the stamp of a listing.
+     *
+     * @param listing the listing, with its property and agent
+     * @return the stamp of the listing
+     */
+    public static VersionStamp of(Listing listing) {
+        return ofListing(listing.getId(), listing.getVersion(), listing.getProperty().getVersion(),
+            listing.getAgent().getVersion(), latest(listing.getUpdatedAt(), listing.getProperty().getUpdatedAt(),
+                listing.getAgent().getUpdatedAt()));
+    }
+
+    /**
+     * Reads the property version out of a property ETag, as sent back by a client in {@code If-Match}.
+     *
+     * @param id the ID of the property
+     * @param etag the ETag, quoted or not, or {@code *}
+     * @return the version named by the ETag, or {@code null} for {@code *}
+     * @throws IllegalArgumentException if the value is not an ETag of this property
+     */
+    public static Long propertyVersionOf(Long id, String etag) {
+        return versionOf("p" + id + "-", etag);
+    }
+
+    /**
+     * Reads the listing version out of a listing ETag, as sent back by a client in {@code If-Match}.
+     * Only the listing's own version is used; the property and agent versions it embeds are ignored.
+     *
+     * @param id the ID of the listing
+     * @param etag the ETag, quoted or not, or {@code *}
+     * @return the version named by the ETag, or {@code null} for {@code *}
+     * @throws IllegalArgumentException if the value is not an ETag of this listing
+     */
+    public static Long listingVersionOf(Long id, String etag) {
+        return versionOf("l" + id + "-", etag);
+    }
+
+    private static Long versionOf(String prefix, String etag) {
+        String value = etag.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.startsWith(prefix)) {
+            int end = value.indexOf('.');
+            try {
+                return Long.parseLong(value.substring(prefix.length(), end < 0 ? value.length() : end));
+            } catch (NumberFormatException e) {
+                // Not one of our ETags; reported below
+            }
+        }
+        throw new IllegalArgumentException("If-Match " + etag + " is not an ETag of this resource");
+    }
+
+    /**
+     * @return the latest of the given timestamps, ignoring nulls, or null if all are null
+     */
+    public static LocalDateTime latest(LocalDateTime... timestamps) {
+        LocalDateTime latest = null;
+        for (LocalDateTime timestamp : timestamps) {
+            if (timestamp != null && (latest == null || timestamp.isAfter(latest))) {
+                latest = timestamp;
+            }
+        }
+        return latest;
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp == null ? -1 : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,21 @@
+package com.realestate.app.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.realestate.app.models.ListingCounter;
+
+public interface ListingCounterRepository extends JpaRepository<ListingCounter, Long> {
+
+    /**
+     * Deletes the counts of a deleted listing.
+     *
+     * @param listingId the ID of the listing
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM ListingCounter c WHERE c.listingId = :listingId")
+    int deleteByListingId(@Param("listingId") Long listingId);
+}
@@ -0,0 +1,50 @@
+package com.realestate.app.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.realestate.app.models.ListingPriceChange;
+
+public interface ListingPriceChangeRepository extends JpaRepository<ListingPriceChange, ListingPriceChange.Key> {
+
+    /**
+     * Reads the prices of a listing within a time range, oldest first, as one range scan of the primary key.
+     *
+     * @param listingId the ID of the listing
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @param limit the maximum number of prices
+     * @return the prices of the listing within the range
+     */
+    @Query("SELECT h FROM ListingPriceChange h WHERE h.listingId = :listingId "
+         + "AND h.changedAt >= :from AND h.changedAt < :to ORDER BY h.changedAt")
+    List<ListingPriceChange> findHistory(@Param("listingId") Long listingId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Reads the price reductions made since a point in time, most recent first.
+     *
+     * @param since the start of the period (inclusive)
+     * @param limit the maximum number of reductions
+     * @return the reductions
+     */
+    @Query("SELECT h FROM ListingPriceChange h WHERE h.changedAt >= :since AND h.price < h.previousPrice "
+         + "ORDER BY h.changedAt DESC")
+    List<ListingPriceChange> findPriceDropsSince(@Param("since") LocalDateTime since, Limit limit);
+
+    /**
+     * Deletes the price history of a deleted listing.
+     *
+     * @param listingId the ID of the listing
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM ListingPriceChange h WHERE h.listingId = :listingId")
+    int deleteByListingId(@Param("listingId") Long listingId);
+}
@@ -1,33 +1,89 @@
 package com.realestate.app.repositories;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.realestate.app.models.Listing;
+import com.realestate.app.models.ListingSummary;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long> {
 
+    /**
+     * Retrieves all listings with their properties and agents in one query.
+     * 
+     * @return a list of all listings
+     */
+    @Override
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
+    List<Listing> findAll();
+
+    /**
+     * Retrieves a listing with its property and agent in one query.
+     * 
+     * @param id the ID of the listing
+     * @return the listing, if it exists
+     */
+    @Override
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
+    Optional<Listing> findById(Long id);
+
     /**
      * Retrieves all featured listings.
      * 
      * @return a list of featured listings
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     List<Listing> findByIsFeaturedTrue();
 
+    /**
+     * Retrieves the summary of every listing in ascending ID order, selecting only the columns of
+     * {@link ListingSummary} from the listing, its property and its agent in one query.
+     * 
+     * @return the summaries of all listings
+     */
+    @Query("SELECT new com.realestate.app.models.ListingSummary(l.id, l.listingPrice, l.listingDate, l.isFeatured, "
+         + "p.id, p.title, p.city, p.bedrooms, p.bathrooms, p.thumbnailUrl, a.id, CONCAT(a.firstName, ' ', a.lastName)) "
+         + "FROM Listing l JOIN l.property p JOIN l.agent a ORDER BY l.id")
+    List<ListingSummary> findAllSummaries();
+
+    /**
+     * Retrieves the summaries of the listings with the given IDs in ascending ID order, selecting only
+     * the columns of {@link ListingSummary} from the listing, its property and its agent in one query.
+     * 
+     * @param ids the IDs of the listings
+     * @return the summaries of the listings that exist
+     */
+    @Query("SELECT new com.realestate.app.models.ListingSummary(l.id, l.listingPrice, l.listingDate, l.isFeatured, "
+         + "p.id, p.title, p.city, p.bedrooms, p.bathrooms, p.thumbnailUrl, a.id, CONCAT(a.firstName, ' ', a.lastName)) "
+         + "FROM Listing l JOIN l.property p JOIN l.agent a WHERE l.id IN :ids ORDER BY l.id")
+    List<ListingSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieves featured listings with pagination.
      * 
      * @param pageable the pageable object containing page and sort information
      * @return a page of featured listings
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     Page<Listing> findByIsFeaturedTrue(Pageable pageable);
 
     /**
@@ -36,6 +92,7 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      * @param agentId the ID of the agent
      * @return a list of listings for the specified agent
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     List<Listing> findByAgent_Id(Long agentId);
 
     // Check if a listing exists for the given agentId
@@ -48,8 +105,86 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      * @param pageable the pageable object containing page and sort information
      * @return a page of listings for the specified agent
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     Page<Listing> findByAgent_Id(Long agentId, Pageable pageable);
 
+    /**
+     * Selects an agent's listings with their properties and agents, each row also carrying the
+     * number of listings the agent has and their total price, so a page and its totals are read in
+     * one statement. Both totals are uncorrelated subqueries answered from the agent's index entries.
+     */
+    String AGENT_PAGE_SELECT = "SELECT l, "
+         + "(SELECT COUNT(c) FROM Listing c WHERE c.agent.id = :agentId), "
+         + "(SELECT COALESCE(SUM(c.listingPrice), 0) FROM Listing c WHERE c.agent.id = :agentId) "
+         + "FROM Listing l JOIN FETCH l.property JOIN FETCH l.agent WHERE l.agent.id = :agentId ";
+
+    /**
+     * Retrieves the keyset page of an agent's listings that follows the given listing, newest first.
+     * The page is a range scan of the {@code (agent_id, listing_date, id)} index, however deep it is.
+     * 
+     * @param agentId the ID of the agent
+     * @param date the listing date of the last listing seen
+     * @param id the ID of the last listing seen
+     * @param limit the maximum number of listings
+     * @return rows of [listing, agent's listing count, agent's total listing price]
+     */
+    @Query(AGENT_PAGE_SELECT
+         + "AND (l.listingDate < :date OR (l.listingDate = :date AND l.id < :id)) ORDER BY l.listingDate DESC, l.id DESC")
+    List<Object[]> findAgentPageByDateDesc(@Param("agentId") Long agentId, @Param("date") LocalDate date,
+            @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the keyset page of an agent's listings that follows the given listing, oldest first.
+     * 
+     * @param agentId the ID of the agent
+     * @param date the listing date of the last listing seen
+     * @param id the ID of the last listing seen
+     * @param limit the maximum number of listings
+     * @return rows of [listing, agent's listing count, agent's total listing price]
+     */
+    @Query(AGENT_PAGE_SELECT
+         + "AND (l.listingDate > :date OR (l.listingDate = :date AND l.id > :id)) ORDER BY l.listingDate ASC, l.id ASC")
+    List<Object[]> findAgentPageByDateAsc(@Param("agentId") Long agentId, @Param("date") LocalDate date,
+            @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the keyset page of an agent's listings that follows the given listing, most expensive first.
+     * The page is a range scan of the {@code (agent_id, listing_price, id)} index.
+     * 
+     * @param agentId the ID of the agent
+     * @param price the listing price of the last listing seen
+     * @param id the ID of the last listing seen
+     * @param limit the maximum number of listings
+     * @return rows of [listing, agent's listing count, agent's total listing price]
+     */
+    @Query(AGENT_PAGE_SELECT
+         + "AND (l.listingPrice < :price OR (l.listingPrice = :price AND l.id < :id)) ORDER BY l.listingPrice DESC, l.id DESC")
+    List<Object[]> findAgentPageByPriceDesc(@Param("agentId") Long agentId, @Param("price") BigDecimal price,
+            @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the keyset page of an agent's listings that follows the given listing, cheapest first.
+     * 
+     * @param agentId the ID of the agent
+     * @param price the listing price of the last listing seen
+     * @param id the ID of the last listing seen
+     * @param limit the maximum number of listings
+     * @return rows of [listing, agent's listing count, agent's total listing price]
+     */
+    @Query(AGENT_PAGE_SELECT
+         + "AND (l.listingPrice > :price OR (l.listingPrice = :price AND l.id > :id)) ORDER BY l.listingPrice ASC, l.id ASC")
+    List<Object[]> findAgentPageByPriceAsc(@Param("agentId") Long agentId, @Param("price") BigDecimal price,
+            @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the number of listings an agent has and their total price, for pages past the last listing.
+     * 
+     * @param agentId the ID of the agent
+     * @return a single row of [listing count, total listing price]
+     */
+    @Query("SELECT COUNT(l), COALESCE(SUM(l.listingPrice), 0) FROM Listing l WHERE l.agent.id = :agentId")
+    List<Object[]> findListingTotalsByAgentId(@Param("agentId") Long agentId);
+
     /**
      * Retrieves featured listings within a specific price range.
      * 
@@ -57,6 +192,7 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      * @param maxPrice the maximum price
      * @return a list of featured listings within the specified price range
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     @Query("SELECT l FROM Listing l WHERE l.isFeatured = true AND l.listingPrice BETWEEN :minPrice AND :maxPrice")
     List<Listing> findFeaturedListingsByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
 
@@ -66,5 +202,102 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      * @param propertyId the ID of the property
      * @return a list of listings for the specified property
      */
+    @EntityGraph(Listing.WITH_PROPERTY_AND_AGENT)
     List<Listing> findByProperty_Id(Long propertyId);
+
+    /**
+     * Retrieves the IDs of the listings for a specific property.
+     * 
+     * @param propertyId the ID of the property
+     * @return the IDs of the listings for the specified property
+     */
+    @Query("SELECT l.id FROM Listing l WHERE l.property.id = :propertyId")
+    List<Long> findIdsByPropertyId(@Param("propertyId") Long propertyId);
+
+    /**
+     * Retrieves the IDs of the listings for any of the given properties.
+     * 
+     * @param propertyIds the IDs of the properties
+     * @return the IDs of the listings for the specified properties
+     */
+    @Query("SELECT l.id FROM Listing l WHERE l.property.id IN :propertyIds")
+    List<Long> findIdsByPropertyIdIn(@Param("propertyIds") Collection<Long> propertyIds);
+
+    /**
+     * Retrieves the IDs of the listings associated with a specific agent.
+     * 
+     * @param agentId the ID of the agent
+     * @return the IDs of the listings for the specified agent
+     */
+    @Query("SELECT l.id FROM Listing l WHERE l.agent.id = :agentId")
+    List<Long> findIdsByAgentId(@Param("agentId") Long agentId);
+
+    /**
+     * Streams every listing with its property and agent in ascending ID order, for full exports.
+     * The associations are fetched in the same query, and rows are fetched in chunks of the JDBC
+     * fetch size. Must be consumed inside a transaction and closed.
+     * 
+     * @return a stream of all listings
+     */
+    @Query("SELECT l FROM Listing l JOIN FETCH l.property JOIN FETCH l.agent ORDER BY l.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Listing> streamAllWithPropertyAndAgent();
+
+    /**
+     * Retrieves only the versions and update times of a listing, its property and its agent.
+     * Used to answer conditional requests without loading the whole listing.
+     * 
+     * @param id the ID of the listing
+     * @return a single row of [listing version, property version, agent version, listing updated at,
+     *         property updated at, agent updated at], or no row if the listing does not exist
+     */
+    @Query("SELECT l.version, p.version, a.version, l.updatedAt, p.updatedAt, a.updatedAt "
+         + "FROM Listing l JOIN l.property p JOIN l.agent a WHERE l.id = :id")
+    List<Object[]> findVersionsById(@Param("id") Long id);
+
+    /**
+     * Retrieves only the price of a listing.
+     * 
+     * @param id the ID of the listing
+     * @return the listing price, if the listing exists
+     */
+    @Query("SELECT l.listingPrice FROM Listing l WHERE l.id = :id")
+    Optional<BigDecimal> findListingPriceById(@Param("id") Long id);
+
+    /**
+     * Retrieves the smallest and largest listing IDs, used to split the table into ranges
+     * that can be loaded in parallel.
+     * 
+     * @return a single row of [min id, max id]
+     */
+    @Query("SELECT MIN(l.id), MAX(l.id) FROM Listing l")
+    List<Object[]> findIdRange();
+
+    /**
+     * Streams the property and listing date of the listings whose ID lies within the given range,
+     * without loading the listings. Used to rebuild the in-memory market analytics; must be consumed
+     * inside a transaction and closed.
+     * 
+     * @param fromId the first ID of the range (inclusive)
+     * @param toId the last ID of the range (inclusive)
+     * @return a stream of rows of [listing id, property id, listing date]
+     */
+    @Query("SELECT l.id, l.property.id, l.listingDate FROM Listing l WHERE l.id BETWEEN :fromId AND :toId")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamListingDatesByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Retrieves the property and listing date of the given listings, without loading the listings.
+     * 
+     * @param ids the IDs of the listings
+     * @return rows of [listing id, property id, listing date]; listings that do not exist have no row
+     */
+    @Query("SELECT l.id, l.property.id, l.listingDate FROM Listing l WHERE l.id IN :ids")
+    List<Object[]> findListingDatesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,20 +1,34 @@
 package com.realestate.app.repositories;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
 import com.realestate.app.models.Property.PropertyType;
+import com.realestate.app.models.PropertySummary;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> {
 
     /**
      * Retrieves properties within a specified price range.
@@ -102,4 +116,160 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
         @Param("minBedrooms") Integer minBedrooms, 
         @Param("minBathrooms") Double minBathrooms
     );
+
+    /**
+     * Streams properties whose ID is greater than the given ID, in ascending ID order.
+     * Used for keyset pagination: rows are read from the primary key index and handed
+     * to the caller one at a time. Must be consumed inside a transaction and closed.
+     * 
+     * @param id the ID of the last property the client has already seen
+     * @param limit the maximum number of properties to stream
+     * @return a stream of properties following the given ID
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams the summary columns of the properties whose ID is greater than the given ID, in ascending
+     * ID order. The same keyset page as {@link #findByIdGreaterThanOrderByIdAsc(Long, Limit)}, but only
+     * the columns of {@link PropertySummary} are selected. Must be consumed inside a transaction and closed.
+     * 
+     * @param id the ID of the last property the client has already seen
+     * @param limit the maximum number of properties to stream
+     * @return a stream of property summaries following the given ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<PropertySummary> findSummariesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Retrieves the summary columns of the properties with the given IDs, in no particular order.
+     * 
+     * @param ids the IDs of the properties
+     * @return the summaries of the properties that exist
+     */
+    List<PropertySummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Streams every property in ascending ID order, for full exports.
+     * Rows are fetched from the server in chunks of the JDBC fetch size rather than buffered whole.
+     * Must be consumed inside a transaction and closed.
+     * 
+     * @return a stream of all properties
+     */
+    @Query("SELECT p FROM Property p ORDER BY p.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> streamAllByOrderById();
+
+    /**
+     * Counts properties per city. Used by the search planner to estimate filter selectivity.
+     * 
+     * @return rows of [city, count]
+     */
+    @Query("SELECT p.city, COUNT(p) FROM Property p GROUP BY p.city")
+    List<Object[]> countByCity();
+
+    /**
+     * Counts properties per state. Used by the search planner to estimate filter selectivity.
+     * 
+     * @return rows of [state, count]
+     */
+    @Query("SELECT p.state, COUNT(p) FROM Property p GROUP BY p.state")
+    List<Object[]> countByState();
+
+    /**
+     * Counts properties per type. Used by the search planner to estimate filter selectivity.
+     * 
+     * @return rows of [type, count]
+     */
+    @Query("SELECT p.propertyType, COUNT(p) FROM Property p GROUP BY p.propertyType")
+    List<Object[]> countByPropertyType();
+
+    /**
+     * Counts properties per status. Used by the search planner to estimate filter selectivity.
+     * 
+     * @return rows of [status, count]
+     */
+    @Query("SELECT p.status, COUNT(p) FROM Property p GROUP BY p.status")
+    List<Object[]> countByStatus();
+
+    /**
+     * Retrieves the row count, the number of distinct ZIP codes and the value ranges of the numeric
+     * search columns. Used by the search planner to estimate filter selectivity.
+     * 
+     * @return a single row of [count, distinct zip codes, min price, max price, min bedrooms, max bedrooms,
+     *         min bathrooms, max bathrooms, min square feet, max square feet]
+     */
+    @Query("SELECT COUNT(p), COUNT(DISTINCT p.zipCode), MIN(p.price), MAX(p.price), MIN(p.bedrooms), MAX(p.bedrooms), "
+         + "MIN(p.bathrooms), MAX(p.bathrooms), MIN(p.squareFeet), MAX(p.squareFeet) FROM Property p")
+    List<Object[]> findColumnStatistics();
+
+    /**
+     * Retrieves the smallest and largest property IDs, used to split the table into ranges
+     * that can be loaded in parallel.
+     * 
+     * @return a single row of [min id, max id]
+     */
+    @Query("SELECT MIN(p.id), MAX(p.id) FROM Property p")
+    List<Object[]> findIdRange();
+
+    /**
+     * Streams the properties whose ID lies within the given range. Used to rebuild the
+     * in-memory property indexes; must be consumed inside a transaction and closed.
+     * 
+     * @param fromId the first ID of the range (inclusive)
+     * @param toId the last ID of the range (inclusive)
+     * @return a stream over the properties in the range
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> findByIdBetween(Long fromId, Long toId);
+
+    /**
+     * Retrieves only the version and update time of a property, read from the row by primary key.
+     * Used to answer conditional requests without loading the whole property.
+     * 
+     * @param id the ID of the property
+     * @return a single row of [version, updated at], or no row if the property does not exist
+     */
+    @Query("SELECT p.version, p.updatedAt FROM Property p WHERE p.id = :id")
+    List<Object[]> findVersionById(@Param("id") Long id);
+
+    /**
+     * Locks the given properties that a status change would affect and returns their IDs:
+     * those not yet in the target status and, if a source status is given, currently in it.
+     * Must be called inside a transaction; the rows stay locked until it ends.
+     * 
+     * @param ids the IDs of the candidate properties
+     * @param status the target status
+     * @param fromStatus the status the properties must currently have, or {@code null} for any
+     * @return the IDs of the properties that will change
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Property p WHERE p.id IN :ids AND p.status <> :status "
+         + "AND (:fromStatus IS NULL OR p.status = :fromStatus)")
+    List<Long> lockIdsForStatusChange(@Param("ids") Collection<Long> ids, @Param("status") PropertyStatus status,
+        @Param("fromStatus") PropertyStatus fromStatus);
+
+    /**
+     * Sets the status of the given properties with one UPDATE statement, without loading them.
+     * The version is incremented and the update time set, as an entity update would.
+     * 
+     * @param ids the IDs of the properties
+     * @param status the new status
+     * @param updatedAt the update time to record
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Property p SET p.status = :status, p.version = p.version + 1, p.updatedAt = :updatedAt "
+         + "WHERE p.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") PropertyStatus status,
+        @Param("updatedAt") LocalDateTime updatedAt);
 }
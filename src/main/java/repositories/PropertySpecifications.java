@@ -0,0 +1,85 @@
+package com.realestate.app.repositories;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+
+/**
+ * Factory for the {@link Specification} predicates a dynamic property search is built from.
+ * Each method covers one filter of {@link com.realestate.app.models.PropertySearchCriteria}.
+ */
+public final class PropertySpecifications {
+
+    private PropertySpecifications() {
+    }
+
+    public static Specification<Property> hasType(PropertyType type) {
+        return (root, query, cb) -> cb.equal(root.get("propertyType"), type);
+    }
+
+    public static Specification<Property> hasStatus(PropertyStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Property> inCity(String city) {
+        return (root, query, cb) -> cb.equal(root.get("city"), city);
+    }
+
+    public static Specification<Property> inState(String state) {
+        return (root, query, cb) -> cb.equal(root.get("state"), state);
+    }
+
+    public static Specification<Property> hasZipCode(String zipCode) {
+        return (root, query, cb) -> cb.equal(root.get("zipCode"), zipCode);
+    }
+
+    /**
+     * Matches properties priced within the given bounds; either bound may be {@code null} for an open range.
+     */
+    public static Specification<Property> priceBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.<BigDecimal>get("price"), min, max);
+            }
+            return min != null
+                ? cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), min)
+                : cb.lessThanOrEqualTo(root.<BigDecimal>get("price"), max);
+        };
+    }
+
+    /**
+     * Matches properties whose bedroom count is within the given bounds; either bound may be {@code null}.
+     */
+    public static Specification<Property> bedroomsBetween(Integer min, Integer max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.<Integer>get("bedrooms"), min, max);
+            }
+            return min != null
+                ? cb.greaterThanOrEqualTo(root.<Integer>get("bedrooms"), min)
+                : cb.lessThanOrEqualTo(root.<Integer>get("bedrooms"), max);
+        };
+    }
+
+    public static Specification<Property> minBathrooms(Double min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Double>get("bathrooms"), min);
+    }
+
+    /**
+     * Matches properties whose square footage is within the given bounds; either bound may be {@code null}.
+     */
+    public static Specification<Property> squareFeetBetween(Integer min, Integer max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.<Integer>get("squareFeet"), min, max);
+            }
+            return min != null
+                ? cb.greaterThanOrEqualTo(root.<Integer>get("squareFeet"), min)
+                : cb.lessThanOrEqualTo(root.<Integer>get("squareFeet"), max);
+        };
+    }
+}
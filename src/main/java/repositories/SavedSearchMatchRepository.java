@@ -0,0 +1,44 @@
+package com.realestate.app.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.realestate.app.models.SavedSearchMatch;
+
+public interface SavedSearchMatchRepository extends JpaRepository<SavedSearchMatch, Long> {
+
+    /**
+     * Reads pending matches in the order they were found, resuming after a given match.
+     * 
+     * @param id the ID of the last match already read, or 0 to start with the oldest
+     * @param limit the maximum number of matches
+     * @return the pending matches
+     */
+    List<SavedSearchMatch> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Deletes sent matches in a single statement.
+     * 
+     * @param ids the IDs of the matches
+     * @return the number of deleted matches
+     */
+    @Modifying
+    @Query("DELETE FROM SavedSearchMatch m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the pending matches of a deleted saved search.
+     * 
+     * @param savedSearchId the ID of the saved search
+     * @return the number of deleted matches
+     */
+    @Modifying
+    @Query("DELETE FROM SavedSearchMatch m WHERE m.savedSearchId = :savedSearchId")
+    int deleteBySavedSearchId(@Param("savedSearchId") Long savedSearchId);
+}
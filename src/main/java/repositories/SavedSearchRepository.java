@@ -0,0 +1,18 @@
+package com.realestate.app.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.realestate.app.models.SavedSearch;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    /**
+     * Finds the saved searches of a user.
+     * 
+     * @param username the username of the user
+     * @return the user's saved searches, oldest first
+     */
+    List<SavedSearch> findByUsernameOrderByIdAsc(String username);
+}
@@ -1,13 +1,26 @@
 package com.realestate.app.services;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.realestate.app.config.CacheConfig;
 import com.realestate.app.exceptionHandlers.AgentNotFoundException;
+import com.realestate.app.exceptionHandlers.ResourceNotFoundException;
 import com.realestate.app.models.Agent;
+import com.realestate.app.models.AgentListingPage;
+import com.realestate.app.models.Listing;
 import com.realestate.app.repositories.AgentRepository;
 import com.realestate.app.repositories.ListingRepository;
 
@@ -18,18 +31,62 @@ import com.realestate.app.repositories.ListingRepository;
 @Service
 public class AgentService {
 
+    /**
+     * Keys an agent's listings can be sorted by.
+     */
+    public enum ListingSort {
+        DATE(Sort.Direction.DESC),
+        PRICE(Sort.Direction.ASC);
+
+        private final Sort.Direction defaultDirection;
+
+        ListingSort(Sort.Direction defaultDirection) {
+            this.defaultDirection = defaultDirection;
+        }
+
+        /**
+         * Parses a sort key name case-insensitively.
+         *
+         * @param value {@code date} or {@code price}
+         * @return the matching sort key
+         * @throws IllegalArgumentException if the value names no sort key
+         */
+        public static ListingSort parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort '" + value + "'; use date or price");
+            }
+        }
+    }
+
+    /*
+     * Bounds of the DATE and DECIMAL(12,2) columns, from which the first page of each order starts
+     */
+    private static final LocalDate FIRST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+    private static final BigDecimal LOWEST_PRICE = new BigDecimal("-9999999999.99");
+    private static final BigDecimal HIGHEST_PRICE = new BigDecimal("9999999999.99");
+
     private final AgentRepository agentRepository;
 	private ListingRepository listingRepository;
+    private final ListingService listingService;
+    private final CollectionVersions collectionVersions;
 
     /**
      * Constructor for dependency injection of the AgentRepository, 
-     * and the listingRepository
+     * the listingRepository and the listingService
      *
      * @param agentRepository the repository for agent data persistence
+     * @param listingService the service whose cached listings embed agents
+     * @param collectionVersions the versions of the listing collection, which embeds agents
      */
-    public AgentService(AgentRepository agentRepository, ListingRepository listingRepository) {
+    public AgentService(AgentRepository agentRepository, ListingRepository listingRepository, ListingService listingService,
+            CollectionVersions collectionVersions) {
         this.agentRepository = agentRepository;
         this.listingRepository = listingRepository;
+        this.listingService = listingService;
+        this.collectionVersions = collectionVersions;
     }
 
     /**
@@ -59,6 +116,7 @@ public class AgentService {
      * @param id the ID of the agent
      * @return an Optional containing the agent if found, or empty if not found
      */
+    @Cacheable(cacheNames = CacheConfig.AGENTS, key = "#id", unless = "#result == null")
     public Optional<Agent> findById(Long id) {
         return agentRepository.findById(id);
     }
@@ -78,6 +136,74 @@ public class AgentService {
         return listingRepository.existsByAgentId(agentId);
     }
 
+    /**
+     * Retrieves one keyset page of an agent's listings, with the number of listings the agent has and
+     * their total price read in the same statement. Each page resumes after the sort key and ID of the
+     * last listing of the previous one, so deep pages cost the same as the first.
+     *
+     * @param agentId the ID of the agent
+     * @param sort the sort key
+     * @param direction the sort direction, or {@code null} for newest first by date and cheapest first by price
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize the requested page size, clamped to {@link PropertyService#MAX_PAGE_SIZE}
+     * @return the requested page with the agent's totals
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort
+     * @throws ResourceNotFoundException if no agent has the given ID
+     */
+    @Transactional(readOnly = true)
+    public AgentListingPage findAgentListings(Long agentId, ListingSort sort, Sort.Direction direction, String cursor,
+            int pageSize) {
+        Sort.Direction order = direction != null ? direction : sort.defaultDirection;
+        boolean ascending = order.isAscending();
+        String[] after = cursor == null ? null : KeysetCursor.decode(cursor, 4);
+        if (after != null && (!after[0].equals(sort.name()) || !after[1].equals(order.name()))) {
+            throw new IllegalArgumentException("The cursor belongs to a listing page with another sort");
+        }
+        int size = PropertyService.clampPageSize(pageSize);
+        Limit limit = Limit.of(size + 1);
+
+        List<Object[]> rows;
+        try {
+            long afterId = after == null ? (ascending ? Long.MIN_VALUE : Long.MAX_VALUE) : Long.parseLong(after[3]);
+            if (sort == ListingSort.DATE) {
+                LocalDate date = after == null ? (ascending ? FIRST_DATE : LAST_DATE) : LocalDate.parse(after[2]);
+                rows = ascending
+                    ? listingRepository.findAgentPageByDateAsc(agentId, date, afterId, limit)
+                    : listingRepository.findAgentPageByDateDesc(agentId, date, afterId, limit);
+            } else {
+                BigDecimal price = after == null ? (ascending ? LOWEST_PRICE : HIGHEST_PRICE) : new BigDecimal(after[2]);
+                rows = ascending
+                    ? listingRepository.findAgentPageByPriceAsc(agentId, price, afterId, limit)
+                    : listingRepository.findAgentPageByPriceDesc(agentId, price, afterId, limit);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        if (rows.isEmpty()) {
+            // Past the last listing, or no listings at all: the totals take their own query
+            Object[] totals = listingRepository.findListingTotalsByAgentId(agentId).get(0);
+            long count = ((Number) totals[0]).longValue();
+            if (count == 0 && !agentRepository.existsById(agentId)) {
+                throw new ResourceNotFoundException("Agent not found with id: " + agentId);
+            }
+            return new AgentListingPage(List.of(), count, (BigDecimal) totals[1], null);
+        }
+
+        List<Listing> listings = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            listings.add((Listing) rows.get(i)[0]);
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            Listing last = listings.get(listings.size() - 1);
+            Object key = sort == ListingSort.DATE ? last.getListingDate() : last.getListingPrice().toPlainString();
+            nextCursor = KeysetCursor.encode(sort.name(), order.name(), key, last.getId());
+        }
+        Object[] first = rows.get(0);
+        return new AgentListingPage(listings, ((Number) first[1]).longValue(), (BigDecimal) first[2], nextCursor);
+    }
+
     /**
      * Updates the details of an existing agent.
      *
@@ -86,6 +212,7 @@ public class AgentService {
      * @throws AgentNotFoundException if no agent with the specified ID is found
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.AGENTS, key = "#agent.id")
     public Agent updateAgent(Agent agent) {
         Agent existingAgent = agentRepository.findById(agent.getId())
                 .orElseThrow(() -> new AgentNotFoundException("Agent with ID " + agent.getId() + " not found!"));
@@ -98,6 +225,8 @@ public class AgentService {
         existingAgent.setBio(agent.getBio());
         existingAgent.setLicenseNumber(agent.getLicenseNumber());
 
+        listingService.evictCachedListingsOfAgent(agent.getId());
+        collectionVersions.changed(CollectionVersions.Collection.LISTINGS);
         return agentRepository.save(existingAgent);
     }
 
@@ -108,6 +237,7 @@ public class AgentService {
      * @throws AgentNotFoundException if no agent with the specified ID is found
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.AGENTS, key = "#id")
     public void deleteAgent(Long id) {
         Agent existingAgent = agentRepository.findById(id)
                 .orElseThrow(() -> new AgentNotFoundException("Agent with ID " + id + " not found!"));
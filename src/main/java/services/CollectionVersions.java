@@ -0,0 +1,105 @@
+package com.realestate.app.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.VersionStamp;
+
+/**
+ * Tracks the version of the property and listing collections, so conditional GETs on list,
+ * search and facet endpoints can be answered without running their queries.
+ * Every committed write that can change a collection moves it to a new version. Property
+ * writes arrive like an index update through the {@link PropertyIndexManager}; listing and
+ * agent writes report themselves. A property write also changes the listing collection,
+ * because listings are rendered with their property.
+ * ETags include the time the application started, so they never repeat across restarts.
+ */
+@Component
+public class CollectionVersions implements PropertyIndex {
+
+    /**
+     * The versioned collections.
+     */
+    public enum Collection {
+        PROPERTIES,
+        LISTINGS
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Collection, Version> versions = new EnumMap<>(Collection.class);
+
+    public CollectionVersions() {
+        for (Collection collection : Collection.values()) {
+            versions.put(collection, new Version());
+        }
+    }
+
+    /**
+     * Moves a collection to a new version once the current transaction commits.
+     *
+     * @param collection the changed collection
+     */
+    public void changed(Collection collection) {
+        TransactionCallbacks.afterCommit(() -> versions.get(collection).bump());
+    }
+
+    /**
+     * Returns the current stamp of a collection. Read it before querying the collection, so a
+     * response is never tagged with a version newer than its content.
+     *
+     * @param collection the collection
+     * @return the current stamp of the collection
+     */
+    public VersionStamp stamp(Collection collection) {
+        Version version = versions.get(collection);
+        return new VersionStamp(collection.name().toLowerCase() + "-" + epoch + "-" + version.generation.get(),
+            version.lastModified);
+    }
+
+    /**
+     * Called by the {@link PropertyIndexManager} after a property write commits.
+     */
+    @Override
+    public void index(Property property) {
+        propertiesChanged();
+    }
+
+    /**
+     * Called by the {@link PropertyIndexManager} after a property delete commits.
+     */
+    @Override
+    public void remove(Long id) {
+        propertiesChanged();
+    }
+
+    /**
+     * Called by the {@link PropertyIndexManager} after a bulk status change commits.
+     */
+    @Override
+    public void statusChanged(java.util.Collection<Long> ids, PropertyStatus status) {
+        propertiesChanged();
+    }
+
+    private void propertiesChanged() {
+        versions.get(Collection.PROPERTIES).bump();
+        versions.get(Collection.LISTINGS).bump();
+    }
+
+    private static class Version {
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private volatile long lastModified = System.currentTimeMillis();
+
+        void bump() {
+            lastModified = System.currentTimeMillis();
+            generation.incrementAndGet();
+        }
+    }
+}
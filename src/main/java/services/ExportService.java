@@ -0,0 +1,217 @@
+package com.realestate.app.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.app.models.Listing;
+import com.realestate.app.models.Property;
+import com.realestate.app.repositories.ListingRepository;
+import com.realestate.app.repositories.PropertyRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Service class that writes full catalog exports of properties and listings.
+ * Rows are streamed from the database with a JDBC fetch size, written to the output as they
+ * arrive and detached right after, so memory use stays flat whatever the table size.
+ */
+@Service
+public class ExportService {
+
+    /**
+     * The output is flushed every this many rows, so clients receive a long export progressively.
+     */
+    static final int FLUSH_INTERVAL = 1000;
+
+    private static final String[] PROPERTY_COLUMNS = { "id", "title", "description", "price", "property_type",
+        "status", "square_feet", "bedrooms", "bathrooms", "address", "city", "state", "zip_code", "latitude",
+        "longitude", "thumbnail_url", "created_at", "updated_at" };
+
+    private static final String[] LISTING_COLUMNS = { "id", "property_id", "agent_id", "listing_date",
+        "listing_price", "is_featured" };
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = MediaType.parseMediaType(mediaType);
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Parses a format name case-insensitively.
+         *
+         * @param value the format name
+         * @return the matching format
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format '" + value + "'; use ndjson or csv");
+        }
+    }
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every property to the output stream, in ID order.
+     *
+     * @param format the output format
+     * @param out the stream to write to; it is flushed but not closed
+     * @return the number of properties written
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportProperties(Format format, OutputStream out) throws IOException {
+        try (Stream<Property> properties = propertyRepository.streamAllByOrderById()) {
+            return export(format, out, properties, PROPERTY_COLUMNS, property -> new Object[] {
+                property.getId(), property.getTitle(), property.getDescription(), property.getPrice(),
+                property.getPropertyType(), property.getStatus(), property.getSquareFeet(), property.getBedrooms(),
+                property.getBathrooms(), property.getAddress(), property.getCity(), property.getState(),
+                property.getZipCode(), property.getLatitude(), property.getLongitude(), property.getThumbnailUrl(),
+                property.getCreatedAt(), property.getUpdatedAt() });
+        }
+    }
+
+    /**
+     * Writes every listing to the output stream, in ID order. NDJSON rows embed the listing's
+     * property and agent; CSV rows reference them by ID.
+     *
+     * @param format the output format
+     * @param out the stream to write to; it is flushed but not closed
+     * @return the number of listings written
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportListings(Format format, OutputStream out) throws IOException {
+        try (Stream<Listing> listings = listingRepository.streamAllWithPropertyAndAgent()) {
+            return export(format, out, listings, LISTING_COLUMNS, listing -> new Object[] {
+                listing.getId(), listing.getProperty().getId(), listing.getAgent().getId(),
+                listing.getListingDate(), listing.getListingPrice(), listing.getIsFeatured() });
+        }
+    }
+
+    private <T> long export(Format format, OutputStream out, Stream<T> rows, String[] columns,
+            Function<T, Object[]> csvRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = null;
+        if (format == Format.NDJSON) {
+            generator = objectMapper.createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Each object ends its own line; no separator is wanted between root values
+            generator.setRootValueSeparator(null);
+        } else {
+            writeCsvRow(writer, columns);
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (generator != null) {
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+            } else {
+                writeCsvRow(writer, csvRow.apply(row));
+            }
+            detach(row);
+            if (++count % FLUSH_INTERVAL == 0) {
+                if (generator != null) {
+                    generator.flush();
+                }
+                writer.flush();
+            }
+        }
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Removes an exported row, and the associations fetched with it, from the persistence context.
+     */
+    private void detach(Object row) {
+        entityManager.detach(row);
+        if (row instanceof Listing listing) {
+            entityManager.detach(listing.getProperty());
+            entityManager.detach(listing.getAgent());
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvValue(writer, values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes one CSV field, quoting it when it contains a delimiter, quote or line break (RFC 4180).
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,322 @@
+package com.realestate.app.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.app.models.Listing;
+import com.realestate.app.models.ListingSummary;
+import com.realestate.app.models.VersionStamp;
+import com.realestate.app.repositories.ListingRepository;
+
+/**
+ * Holds the featured listings as an immutable, pre-serialized snapshot, so the homepage is served
+ * without reaching the database or running the JSON serializer.
+ * <p>
+ * Every featured listing is serialized once per snapshot, in its full and summary forms, and the
+ * complete responses of both views are kept along with their gzip encoding. Paged or price-filtered
+ * responses are assembled from the serialized listings. A snapshot is rebuilt from the database when
+ * a write touching a featured listing commits and replaces the previous one atomically, so readers
+ * always see one consistent set. Rebuilds requested while one is running are served by a single
+ * rebuild that starts after it.
+ */
+@Component
+public class FeaturedListingSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(FeaturedListingSnapshot.class);
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Incremented each time a rebuild is requested.
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * The value of {@link #requested} the current snapshot was built after; guarded by {@code this}.
+     */
+    private long built = -1;
+
+    /**
+     * A response body.
+     *
+     * @param json the JSON body
+     * @param gzip the gzip encoding of the body, or {@code null} if it is not kept
+     * @param count the number of listings in the body
+     * @param stamp the version of the listing collection the body was built from, to validate
+     *     conditional requests against instead of the live version, which moves before a rebuild completes
+     */
+    public record Body(byte[] json, byte[] gzip, int count, VersionStamp stamp) {
+    }
+
+    /**
+     * The serialized listings of one view, and the response listing all of them.
+     */
+    private record View(byte[][] items, Body all) {
+    }
+
+    /**
+     * The featured listings in ascending ID order, with their prices for the price band filter,
+     * and the version of the listing collection read before loading them.
+     */
+    private record Snapshot(long[] ids, BigDecimal[] prices, View full, View summary, VersionStamp stamp) {
+    }
+
+    /**
+     * Builds the first snapshot once the application is ready. Reads before then build it on demand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild(requested.incrementAndGet());
+        } catch (RuntimeException e) {
+            log.warn("Could not build the featured listings snapshot; it will be built on first use", e);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot after the current transaction commits if the written listing is featured
+     * now or was featured in the current snapshot.
+     *
+     * @param id the ID of the created, updated or deleted listing
+     * @param featured whether the listing is featured after the write
+     */
+    public void listingChanged(Long id, boolean featured) {
+        if (featured || contains(id)) {
+            TransactionCallbacks.afterCommit(this::refresh);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot after the current transaction commits if any of the listings is featured,
+     * for writes to the properties and agents that featured listings embed.
+     *
+     * @param ids the IDs of the affected listings
+     */
+    public void listingsChanged(List<Long> ids) {
+        if (ids.stream().anyMatch(this::contains)) {
+            TransactionCallbacks.afterCommit(this::refresh);
+        }
+    }
+
+    /**
+     * Retrieves featured listings, whole with their properties and agents.
+     *
+     * @param minPrice the lowest listing price to include, or {@code null}
+     * @param maxPrice the highest listing price to include, or {@code null}
+     * @param page the zero-based page number, or {@code null}
+     * @param size the page size, or {@code null}
+     * @return a JSON array of the listings in ascending ID order, or a {@code PagedResult} if a page or size is given
+     * @throws IllegalArgumentException if the price band is empty or the page is negative
+     */
+    public Body findListings(BigDecimal minPrice, BigDecimal maxPrice, Integer page, Integer size) {
+        Snapshot current = current();
+        return select(current, current.full(), minPrice, maxPrice, page, size);
+    }
+
+    /**
+     * Retrieves the summaries of featured listings.
+     *
+     * @param minPrice the lowest listing price to include, or {@code null}
+     * @param maxPrice the highest listing price to include, or {@code null}
+     * @param page the zero-based page number, or {@code null}
+     * @param size the page size, or {@code null}
+     * @return a JSON array of the summaries in ascending ID order, or a {@code PagedResult} if a page or size is given
+     * @throws IllegalArgumentException if the price band is empty or the page is negative
+     */
+    public Body findSummaries(BigDecimal minPrice, BigDecimal maxPrice, Integer page, Integer size) {
+        Snapshot current = current();
+        return select(current, current.summary(), minPrice, maxPrice, page, size);
+    }
+
+    private boolean contains(Long id) {
+        Snapshot current = snapshot.get();
+        return current != null && id != null && Arrays.binarySearch(current.ids(), id) >= 0;
+    }
+
+    private void refresh() {
+        long generation = requested.incrementAndGet();
+        try {
+            rebuild(generation);
+        } catch (RuntimeException e) {
+            // Drop the outdated snapshot so the next read rebuilds it
+            log.warn("Could not rebuild the featured listings snapshot", e);
+            synchronized (this) {
+                if (built < generation) {
+                    snapshot.set(null);
+                }
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : rebuild(requested.incrementAndGet());
+    }
+
+    /**
+     * Builds a snapshot that reflects every change committed before the given rebuild was requested,
+     * unless the current one already does.
+     */
+    private synchronized Snapshot rebuild(long generation) {
+        Snapshot current = snapshot.get();
+        if (current != null && built >= generation) {
+            return current;
+        }
+        long target = requested.get();
+        Snapshot next = build();
+        built = target;
+        snapshot.set(next);
+        return next;
+    }
+
+    private Snapshot build() {
+        // Read before the query, so the snapshot is never tagged with a version newer than its content
+        VersionStamp stamp = collectionVersions.stamp(CollectionVersions.Collection.LISTINGS);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Rebuilds run after a writer's commit, while its transaction is still bound; never read through it
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            List<Listing> listings = listingRepository.findByIsFeaturedTrue().stream()
+                .sorted(Comparator.comparing(Listing::getId))
+                .toList();
+            List<Long> ids = listings.stream().map(Listing::getId).toList();
+            Map<Long, ListingSummary> summaries = ids.isEmpty() ? Map.of()
+                : listingRepository.findSummariesByIdIn(ids).stream()
+                    .collect(Collectors.toMap(ListingSummary::id, Function.identity()));
+
+            byte[][] full = new byte[listings.size()][];
+            byte[][] summary = new byte[listings.size()][];
+            BigDecimal[] prices = new BigDecimal[listings.size()];
+            for (int i = 0; i < listings.size(); i++) {
+                Listing listing = listings.get(i);
+                full[i] = serialize(listing);
+                summary[i] = serialize(summaries.get(listing.getId()));
+                prices[i] = listing.getListingPrice();
+            }
+            int[] all = IntStream.range(0, listings.size()).toArray();
+            log.debug("Built the featured listings snapshot of {} listings", listings.size());
+            return new Snapshot(ids.stream().mapToLong(Long::longValue).toArray(), prices,
+                new View(full, withGzip(array(full, all, 0, all.length), all.length, stamp)),
+                new View(summary, withGzip(array(summary, all, 0, all.length), all.length, stamp)), stamp);
+        });
+    }
+
+    private static Body select(Snapshot snapshot, View view, BigDecimal minPrice, BigDecimal maxPrice,
+            Integer page, Integer size) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        boolean paged = page != null || size != null;
+        if (minPrice == null && maxPrice == null && !paged) {
+            return view.all();
+        }
+        int[] matching = IntStream.range(0, snapshot.ids().length)
+            .filter(i -> inBand(snapshot.prices()[i], minPrice, maxPrice))
+            .toArray();
+        if (!paged) {
+            return new Body(array(view.items(), matching, 0, matching.length), null, matching.length, snapshot.stamp());
+        }
+
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = PropertyService.clampPageSize(size == null ? PropertyService.DEFAULT_PAGE_SIZE : size);
+        int from = (int) Math.min((long) pageNumber * pageSize, matching.length);
+        int to = Math.min(from + pageSize, matching.length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("{\"content\":".getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(array(view.items(), matching, from, to));
+        out.writeBytes((",\"page\":" + pageNumber + ",\"size\":" + pageSize + ",\"totalElements\":" + matching.length
+            + ",\"hasNext\":" + (to < matching.length) + "}").getBytes(StandardCharsets.UTF_8));
+        return new Body(out.toByteArray(), null, to - from, snapshot.stamp());
+    }
+
+    /**
+     * Matches {@code listingPrice BETWEEN minPrice AND maxPrice}, with a missing bound left open.
+     */
+    private static boolean inBand(BigDecimal price, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        return price != null
+            && (minPrice == null || price.compareTo(minPrice) >= 0)
+            && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+
+    /**
+     * Joins the selected serialized items, from index {@code from} to {@code to} of {@code selected}, into a JSON array.
+     */
+    private static byte[] array(byte[][] items, int[] selected, int from, int to) {
+        int length = 2 + Math.max(0, to - from - 1);
+        for (int i = from; i < to; i++) {
+            length += items[selected[i]].length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        out.write('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.write(',');
+            }
+            out.writeBytes(items[selected[i]]);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static Body withGzip(byte[] json, int count, VersionStamp stamp) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Body(json, out.toByteArray(), count, stamp);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize a featured listing", e);
+        }
+    }
+}
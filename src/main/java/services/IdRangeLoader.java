@@ -0,0 +1,84 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a table into memory in parallel: its ID range is split into partitions that are
+ * loaded concurrently, typically each streamed in its own read-only transaction.
+ */
+final class IdRangeLoader {
+
+    /**
+     * Number of partitions loaded concurrently; kept well below the connection pool size.
+     */
+    private static final int THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Tables smaller than this many IDs per partition are loaded with fewer threads.
+     */
+    private static final long MIN_PARTITION_SIZE = 10_000L;
+
+    /**
+     * Loads the rows of one partition.
+     */
+    @FunctionalInterface
+    interface RangeLoad {
+
+        /**
+         * @param fromId the first ID of the partition (inclusive)
+         * @param toId the last ID of the partition (inclusive)
+         * @return the number of rows loaded
+         */
+        long load(long fromId, long toId);
+    }
+
+    private IdRangeLoader() {
+    }
+
+    /**
+     * Loads every partition of an ID range and waits for all of them.
+     *
+     * @param range the result of a {@code SELECT MIN(id), MAX(id)} query
+     * @param what what is being loaded, for error messages
+     * @param load loads one partition
+     * @return the total number of rows loaded
+     * @throws IllegalStateException if a partition fails to load or the load is interrupted
+     */
+    static long load(List<Object[]> range, String what, RangeLoad load) {
+        Object[] bounds = range.isEmpty() ? new Object[2] : range.get(0);
+        if (bounds[0] == null) {
+            return 0;
+        }
+        long minId = ((Number) bounds[0]).longValue();
+        long maxId = ((Number) bounds[1]).longValue();
+        int partitions = (int) Math.max(1, Math.min(THREADS, (maxId - minId + 1) / MIN_PARTITION_SIZE));
+        long partitionSize = (maxId - minId) / partitions + 1;
+        AtomicLong loaded = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<?>> loads = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                long fromId = minId + i * partitionSize;
+                long toId = Math.min(maxId, fromId + partitionSize - 1);
+                loads.add(executor.submit(() -> loaded.addAndGet(load.load(fromId, toId))));
+            }
+            for (Future<?> partition : loads) {
+                partition.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building " + what, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build " + what, e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return loaded.get();
+    }
+}
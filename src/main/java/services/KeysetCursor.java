@@ -0,0 +1,57 @@
+package com.realestate.app.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursor tokens used by keyset (seek) paginated endpoints.
+ * A cursor carries the sort key values of the last row a client has seen, so the next page
+ * can be fetched with an index range scan instead of an OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Encodes the given key values into an opaque, URL-safe cursor token.
+     *
+     * @param keys the sort key values of the last returned row, in sort order
+     * @return the cursor token
+     */
+    public static String encode(Object... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token back into its key values.
+     *
+     * @param token the cursor token supplied by the client
+     * @param expectedKeys the number of key values the cursor must contain
+     * @return the decoded key values
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] decode(String token, int expectedKeys) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        String[] keys = raw.split("\\" + SEPARATOR, -1);
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,251 @@
+package com.realestate.app.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.realestate.app.repositories.ListingCounterRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts listing views and contacts in memory and adds them to the {@code listing_counters} table
+ * in periodic batches, so a burst of page views costs no database writes on the request path.
+ * <p>
+ * Hits go to per-listing {@link LongAdder}s, which spread concurrent increments over striped cells,
+ * looked up in a {@link ConcurrentHashMap} without locking. At each flush the map is swapped for an
+ * empty one and the counts it gathered are upserted in one JDBC batch and transaction per chunk, so
+ * a chunk is added whole or not at all. The swapped out map is flushed once more at the following
+ * flush, picking up increments by requests that were already holding it when it was swapped. Counts
+ * whose flush fails are moved to the current map and retried. Memory therefore holds only the
+ * listings hit within the last two flush intervals.
+ * <p>
+ * Reads add the pending counts to the persisted ones, which are cached briefly; a read that races
+ * a flush may be off by that flush's counts until it completes.
+ */
+@Component
+public class ListingCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingCounters.class);
+
+    /**
+     * Rows per upsert batch.
+     */
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * Listings whose persisted counts are cached; the cache also expires entries, to pick up other nodes' flushes.
+     */
+    static final int MAX_CACHED_COUNTS = 100_000;
+
+    private static final Duration PERSISTED_COUNTS_TTL = Duration.ofMinutes(1);
+
+    private static final String UPSERT = "INSERT INTO listing_counters (listing_id, views, contacts) VALUES (?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE views = views + VALUES(views), contacts = contacts + VALUES(contacts)";
+
+    private static final Counts ZERO = new Counts(0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingCounterRepository listingCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * The map hits are added to.
+     */
+    private volatile Generation current = new Generation();
+
+    /**
+     * The map replaced at the last flush, drained of late increments at the next one.
+     */
+    private volatile Generation previous = new Generation();
+
+    private final Cache<Long, Counts> persisted = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_COUNTS)
+        .expireAfterWrite(PERSISTED_COUNTS_TTL)
+        .build();
+
+    /**
+     * The view and contact counts of a listing.
+     *
+     * @param views the number of views
+     * @param contacts the number of contacts
+     */
+    public record Counts(long views, long contacts) {
+    }
+
+    /**
+     * Counts a view of a listing.
+     *
+     * @param listingId the ID of the listing
+     */
+    public void viewed(Long listingId) {
+        current.counter(listingId).views.increment();
+    }
+
+    /**
+     * Counts a contact of a listing's agent about the listing.
+     *
+     * @param listingId the ID of the listing
+     */
+    public void contacted(Long listingId) {
+        current.counter(listingId).contacts.increment();
+    }
+
+    /**
+     * Reads the counts of a listing: those in the database plus those not flushed yet.
+     *
+     * @param listingId the ID of the listing
+     * @return the counts of the listing
+     */
+    public Counts counts(Long listingId) {
+        Counts stored = persisted.get(listingId, this::load);
+        long views = stored.views();
+        long contacts = stored.contacts();
+        for (Generation generation : new Generation[] { previous, current }) {
+            Counter counter = generation.counters.get(listingId);
+            if (counter != null) {
+                views += counter.views.sum() - counter.flushedViews;
+                contacts += counter.contacts.sum() - counter.flushedContacts;
+            }
+        }
+        return new Counts(views, contacts);
+    }
+
+    /**
+     * Drops the in-memory counts of a deleted listing once the current transaction commits.
+     *
+     * @param listingId the ID of the deleted listing
+     */
+    public void listingDeleted(Long listingId) {
+        TransactionCallbacks.afterCommit(() -> {
+            current.counters.remove(listingId);
+            previous.counters.remove(listingId);
+            persisted.invalidate(listingId);
+        });
+    }
+
+    /**
+     * Adds the counts gathered since the last flush to the database.
+     */
+    @Scheduled(fixedDelayString = "${realestate.listing-counters.flush-interval:PT5S}")
+    public synchronized void flush() {
+        Generation draining = previous;
+        previous = current;
+        current = new Generation();
+
+        List<Delta> deltas = new ArrayList<>();
+        draining.collect(deltas);
+        previous.collect(deltas);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // The same row order on every node keeps concurrent batches from deadlocking
+        deltas.sort(Comparator.comparing(Delta::listingId));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int flushed = 0;
+        for (int from = 0; from < deltas.size(); from += FLUSH_BATCH_SIZE) {
+            List<Delta> batch = deltas.subList(from, Math.min(from + FLUSH_BATCH_SIZE, deltas.size()));
+            try {
+                // Under autocommit a failed batch would leave its earlier rows applied, and retrying them would count them twice
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, batch, batch.size(),
+                    (statement, delta) -> {
+                        statement.setLong(1, delta.listingId());
+                        statement.setLong(2, delta.views());
+                        statement.setLong(3, delta.contacts());
+                    }));
+                for (Delta delta : batch) {
+                    persisted.asMap().computeIfPresent(delta.listingId(),
+                        (id, stored) -> new Counts(stored.views() + delta.views(), stored.contacts() + delta.contacts()));
+                    delta.markFlushed();
+                }
+                flushed += batch.size();
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Could not flush the counters of {} listings; retrying at the next flush", batch.size(), e);
+                for (Delta delta : batch) {
+                    Counter retry = current.counter(delta.listingId());
+                    retry.views.add(delta.views());
+                    retry.contacts.add(delta.contacts());
+                    delta.markFlushed();
+                }
+            }
+        }
+        log.debug("Flushed the counters of {} listings", flushed);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        // Take in the increments of requests that were still holding the map swapped out above
+        flush();
+    }
+
+    private Counts load(Long listingId) {
+        return listingCounterRepository.findById(listingId)
+            .map(counter -> new Counts(counter.getViews(), counter.getContacts()))
+            .orElse(ZERO);
+    }
+
+    /**
+     * The counts of one listing within one generation.
+     */
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder contacts = new LongAdder();
+        // Parts of the sums already flushed; only written by the flushing thread
+        private volatile long flushedViews;
+        private volatile long flushedContacts;
+    }
+
+    private static final class Generation {
+        private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+        private Counter counter(Long listingId) {
+            Counter counter = counters.get(listingId);
+            return counter != null ? counter : counters.computeIfAbsent(listingId, id -> new Counter());
+        }
+
+        private void collect(List<Delta> deltas) {
+            for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                long views = counter.views.sum() - counter.flushedViews;
+                long contacts = counter.contacts.sum() - counter.flushedContacts;
+                if (views != 0 || contacts != 0) {
+                    deltas.add(new Delta(entry.getKey(), counter, views, contacts));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts of a listing not flushed yet, with the counter they were read from.
+     */
+    private record Delta(Long listingId, Counter counter, long views, long contacts) {
+
+        private void markFlushed() {
+            counter.flushedViews += views;
+            counter.flushedContacts += contacts;
+        }
+    }
+}
@@ -1,14 +1,42 @@
 package com.realestate.app.services;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.app.config.CacheConfig;
+import com.realestate.app.exceptionHandlers.ResourceNotFoundException;
+import com.realestate.app.exceptionHandlers.VersionConflictException;
 import com.realestate.app.models.Listing;
+import com.realestate.app.models.ListingPriceChange;
+import com.realestate.app.models.ListingSummary;
+import com.realestate.app.models.TrendingListing;
+import com.realestate.app.models.VersionStamp;
+import com.realestate.app.repositories.ListingCounterRepository;
+import com.realestate.app.repositories.ListingPriceChangeRepository;
 import com.realestate.app.repositories.ListingRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 
 /**
@@ -17,9 +45,62 @@ import jakarta.transaction.Transactional;
  */
 @Service
 public class ListingService {
+
+    /**
+     * Fields a merge patch may change. Moving a listing to another property or agent takes a full update.
+     */
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("listingDate", "listingPrice", "isFeatured");
+
+    /**
+     * Prices returned per price history request; narrow the time range to read further.
+     */
+    static final int MAX_PRICE_HISTORY = 1000;
+
+    /*
+     * Bounds of the DATETIME column, for open-ended history ranges
+     */
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private ListingRepository listingRepository;
 
+    @Autowired
+    private ListingPriceChangeRepository listingPriceChangeRepository;
+
+    @Autowired
+    private ListingCounterRepository listingCounterRepository;
+
+    @Autowired
+    private ListingCounters listingCounters;
+
+    @Autowired
+    private TrendingListings trendingListings;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private MarketAnalytics marketAnalytics;
+
+    @Autowired
+    private SavedSearchPercolator savedSearchPercolator;
+
+    @Autowired
+    private FeaturedListingSnapshot featuredListingSnapshot;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Creates and saves a new listing.
      *
@@ -28,25 +109,31 @@ public class ListingService {
      */
     @Transactional
     public Listing createListing(Listing listing) {
-        return listingRepository.save(listing);
+        Listing savedListing = listingRepository.save(listing);
+        recordPrice(savedListing.getId(), null, savedListing.getListingPrice());
+        collectionVersions.changed(CollectionVersions.Collection.LISTINGS);
+        featuredListingSnapshot.listingChanged(savedListing.getId(), Boolean.TRUE.equals(savedListing.getIsFeatured()));
+        marketAnalytics.listingSaved(savedListing);
+        savedSearchPercolator.listingCreated(savedListing);
+        return savedListing;
     }
 
     /**
-     * Retrieves a list of featured listings.
+     * Retrieves all listings.
      *
-     * @return a list of featured listings
+     * @return a list of all listings
      */
-    public List<Listing> findFeaturedListings() {
-        return listingRepository.findByIsFeaturedTrue();
+    public List<Listing> getAllListings() {
+        return listingRepository.findAll();
     }
 
     /**
-     * Retrieves all listings.
+     * Retrieves the summaries of all listings, without loading their properties and agents.
      *
-     * @return a list of all listings
+     * @return the summaries of all listings
      */
-    public List<Listing> getAllListings() {
-        return listingRepository.findAll();
+    public List<ListingSummary> getAllListingSummaries() {
+        return listingRepository.findAllSummaries();
     }
 
     /**
@@ -56,11 +143,31 @@ public class ListingService {
      * @return the found listing
      * @throws RuntimeException if no listing is found with the given ID
      */
+    @Cacheable(cacheNames = CacheConfig.LISTINGS, key = "#id")
     public Listing findListingById(Long id) {
         Optional<Listing> listing = listingRepository.findById(id);
         return listing.orElseThrow(() -> new RuntimeException("Listing not found with id: " + id));
     }
 
+    /**
+     * Retrieves the version stamp of a listing without loading it. Stamps are cached until the
+     * listing, its property or its agent changes, so repeated conditional requests do not reach the database.
+     *
+     * @param id the ID of the listing
+     * @return the stamp of the listing, or {@code null} if no listing has the given ID
+     */
+    @Cacheable(cacheNames = CacheConfig.LISTING_STAMPS, key = "#id", unless = "#result == null")
+    public VersionStamp findListingStamp(Long id) {
+        List<Object[]> rows = listingRepository.findVersionsById(id);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return VersionStamp.ofListing(id, ((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+            ((Number) row[2]).longValue(),
+            VersionStamp.latest((LocalDateTime) row[3], (LocalDateTime) row[4], (LocalDateTime) row[5]));
+    }
+
     /**
      * Updates an existing listing with new details.
      *
@@ -69,14 +176,87 @@ public class ListingService {
      * @return the updated listing entity
      */
     @Transactional
+    @CacheEvict(cacheNames = { CacheConfig.LISTINGS, CacheConfig.LISTING_STAMPS }, key = "#id")
     public Listing updateListing(Long id, Listing updatedListing) {
         Listing existingListing = findListingById(id);
+        Long previousPropertyId = existingListing.getProperty().getId();
+        BigDecimal previousPrice = existingListing.getListingPrice();
         existingListing.setProperty(updatedListing.getProperty());
         existingListing.setAgent(updatedListing.getAgent());
         existingListing.setListingDate(updatedListing.getListingDate());
         existingListing.setListingPrice(updatedListing.getListingPrice());
         existingListing.setIsFeatured(updatedListing.getIsFeatured());
-        return listingRepository.save(existingListing);
+        Listing savedListing = listingRepository.save(existingListing);
+        recordPrice(id, previousPrice, savedListing.getListingPrice());
+        collectionVersions.changed(CollectionVersions.Collection.LISTINGS);
+        featuredListingSnapshot.listingChanged(id, Boolean.TRUE.equals(savedListing.getIsFeatured()));
+        marketAnalytics.listingSaved(savedListing);
+        if (!previousPropertyId.equals(savedListing.getProperty().getId())) {
+            // Moving a listing to another property lists that property anew
+            savedSearchPercolator.listingCreated(savedListing);
+        }
+        return savedListing;
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a listing, writing only the columns it changes.
+     * When the client names the version it last read, the change is a single UPDATE guarded by
+     * that version, without reading the row first; otherwise the listing is loaded and patched.
+     *
+     * @param id the ID of the listing
+     * @param patch the merge patch; a {@code version} member is used if {@code expectedVersion} is null
+     * @param expectedVersion the version the client last read (from {@code If-Match}), or {@code null}
+     * @return the patched listing
+     * @throws IllegalArgumentException if the patch is malformed or leaves the listing invalid
+     * @throws ResourceNotFoundException if no listing has the given ID
+     * @throws VersionConflictException if the listing has changed since the expected version
+     */
+    @CacheEvict(cacheNames = { CacheConfig.LISTINGS, CacheConfig.LISTING_STAMPS }, key = "#id")
+    public Listing patchListing(Long id, ObjectNode patch, Long expectedVersion) {
+        Map<String, Object> changes = MergePatch.changes(objectMapper, patch, Listing.class, PATCHABLE_FIELDS);
+        if (changes.containsKey("listingDate") && changes.get("listingDate") == null) {
+            throw new IllegalArgumentException("listingDate is required");
+        }
+        if (changes.containsKey("listingPrice")
+                && (changes.get("listingPrice") == null || ((BigDecimal) changes.get("listingPrice")).signum() < 0)) {
+            throw new IllegalArgumentException("listingPrice is required and must not be negative");
+        }
+        Long version = expectedVersion != null ? expectedVersion : MergePatch.version(patch);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (version == null) {
+                    Listing listing = listingRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Listing not found with id: " + id));
+                    BigDecimal previousPrice = listing.getListingPrice();
+                    MergePatch.apply(listing, changes);
+                    recordPrice(id, previousPrice, listing.getListingPrice());
+                } else {
+                    // The history needs the price being replaced; only price changes read it
+                    BigDecimal previousPrice = changes.containsKey("listingPrice")
+                        ? listingRepository.findListingPriceById(id).orElse(null)
+                        : null;
+                    if (MergePatch.update(entityManager, Listing.class, id, version, changes) == 0) {
+                        throw listingRepository.existsById(id)
+                            ? new VersionConflictException("Listing " + id + " is no longer at version " + version)
+                            : new ResourceNotFoundException("Listing not found with id: " + id);
+                    }
+                    if (previousPrice != null) {
+                        recordPrice(id, previousPrice, (BigDecimal) changes.get("listingPrice"));
+                    }
+                }
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("Listing " + id + " was changed by another request");
+        }
+
+        collectionVersions.changed(CollectionVersions.Collection.LISTINGS);
+        Listing patchedListing = listingRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Listing not found with id: " + id));
+        featuredListingSnapshot.listingChanged(id, Boolean.TRUE.equals(patchedListing.getIsFeatured()));
+        marketAnalytics.listingSaved(patchedListing);
+        return patchedListing;
     }
 
     /**
@@ -86,8 +266,133 @@ public class ListingService {
      * @throws RuntimeException if no listing is found with the given ID
      */
     @Transactional
+    @CacheEvict(cacheNames = { CacheConfig.LISTINGS, CacheConfig.LISTING_STAMPS }, key = "#id")
     public void deleteListing(Long id) {
         Listing listing = findListingById(id);
+        listingPriceChangeRepository.deleteByListingId(id);
+        listingCounterRepository.deleteByListingId(id);
         listingRepository.delete(listing);
+        listingCounters.listingDeleted(id);
+        collectionVersions.changed(CollectionVersions.Collection.LISTINGS);
+        featuredListingSnapshot.listingChanged(id, false);
+        marketAnalytics.listingDeleted(id);
+    }
+
+    /**
+     * Retrieves the prices a listing has had within a time range, oldest first. The first entry of a
+     * listing's history is its initial price, with no previous price.
+     *
+     * @param id the ID of the listing
+     * @param from the start of the range (inclusive), or {@code null} for the listing's whole history
+     * @param to the end of the range (exclusive), or {@code null} for up to now
+     * @return the first {@value #MAX_PRICE_HISTORY} prices within the range
+     * @throws IllegalArgumentException if the range ends before it starts
+     * @throws ResourceNotFoundException if no listing has the given ID
+     */
+    public List<ListingPriceChange> findPriceHistory(Long id, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : HISTORY_START;
+        LocalDateTime end = to != null ? to : HISTORY_END;
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("The end of the range must not be before its start");
+        }
+        List<ListingPriceChange> history = listingPriceChangeRepository.findHistory(id, start, end,
+            Limit.of(MAX_PRICE_HISTORY));
+        if (history.isEmpty() && !listingRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Listing not found with id: " + id);
+        }
+        return history;
+    }
+
+    /**
+     * Retrieves the listing price reductions made in the last days, most recent first.
+     *
+     * @param days the number of days to look back, at least 1
+     * @param limit the maximum number of reductions, capped at {@link PropertyService#MAX_PAGE_SIZE}
+     * @return the reductions, each with the price before and after it
+     * @throws IllegalArgumentException if {@code days} is less than 1
+     */
+    public List<ListingPriceChange> findPriceDrops(int days, int limit) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least 1");
+        }
+        return listingPriceChangeRepository.findPriceDropsSince(LocalDateTime.now().minusDays(days),
+            Limit.of(PropertyService.clampPageSize(limit)));
+    }
+
+    /**
+     * Retrieves the most viewed listings of the last hour or day, from the in-memory {@link TrendingListings}.
+     *
+     * @param window the window
+     * @param city the city to rank, or {@code null} for all cities
+     * @param limit the maximum number of listings, capped at {@link TrendingListings#MAX_RESULTS}
+     * @return the summaries of the most viewed listings with their estimated views, most viewed first
+     */
+    public List<TrendingListing> findTrendingListings(TrendingListings.Window window, String city, int limit) {
+        TrendingListings.Ranking ranking = trendingListings.trending(window, city, limit);
+        if (ranking.entries().isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ListingSummary> summaries = listingRepository
+            .findSummariesByIdIn(ranking.entries().stream().map(TrendingListings.Entry::listingId).toList()).stream()
+            .collect(Collectors.toMap(ListingSummary::id, Function.identity()));
+        // Listings deleted since they were viewed drop out, and so do other cities' in a mixed ranking
+        return ranking.entries().stream()
+            .filter(entry -> summaries.containsKey(entry.listingId()))
+            .filter(entry -> !ranking.mixedCities() || inCity(summaries.get(entry.listingId()), city))
+            .limit(Math.max(0, Math.min(limit, TrendingListings.MAX_RESULTS)))
+            .map(entry -> new TrendingListing(summaries.get(entry.listingId()), entry.views()))
+            .toList();
+    }
+
+    private static boolean inCity(ListingSummary summary, String city) {
+        return summary.city() != null && summary.city().trim().equalsIgnoreCase(city.trim());
+    }
+
+    /**
+     * Appends a price to a listing's history if it differs from the previous one. Runs inside the
+     * transaction of the write, so the history and the listing never disagree.
+     */
+    private void recordPrice(Long id, BigDecimal previousPrice, BigDecimal price) {
+        if (price != null && (previousPrice == null || previousPrice.compareTo(price) != 0)) {
+            // persist rather than save: the key is assigned, and save would first look the row up
+            entityManager.persist(new ListingPriceChange(id, previousPrice, price));
+        }
+    }
+
+    /**
+     * Evicts the cached listings and listing stamps of a property, which embed a copy of it.
+     *
+     * @param propertyId the ID of the changed property
+     */
+    public void evictCachedListingsOfProperty(Long propertyId) {
+        evictCachedListings(listingRepository.findIdsByPropertyId(propertyId));
+    }
+
+    /**
+     * Evicts the cached listings and listing stamps of several properties at once.
+     *
+     * @param propertyIds the IDs of the changed properties
+     */
+    public void evictCachedListingsOfProperties(Collection<Long> propertyIds) {
+        evictCachedListings(listingRepository.findIdsByPropertyIdIn(propertyIds));
+    }
+
+    /**
+     * Evicts the cached listings and listing stamps of an agent, which embed a copy of the agent.
+     *
+     * @param agentId the ID of the changed agent
+     */
+    public void evictCachedListingsOfAgent(Long agentId) {
+        evictCachedListings(listingRepository.findIdsByAgentId(agentId));
+    }
+
+    private void evictCachedListings(List<Long> listingIds) {
+        Cache listings = cacheManager.getCache(CacheConfig.LISTINGS);
+        Cache stamps = cacheManager.getCache(CacheConfig.LISTING_STAMPS);
+        for (Long listingId : listingIds) {
+            listings.evict(listingId);
+            stamps.evict(listingId);
+        }
+        featuredListingSnapshot.listingsChanged(listingIds);
     }
 }
@@ -0,0 +1,532 @@
+package com.realestate.app.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.realestate.app.exceptionHandlers.IndexNotReadyException;
+import com.realestate.app.models.Listing;
+import com.realestate.app.models.MarketStats;
+import com.realestate.app.models.Property;
+import com.realestate.app.repositories.ListingRepository;
+
+/**
+ * Keeps market statistics per city, state, ZIP code and property type in memory, so dashboards
+ * never run GROUP BY queries over the properties and listings tables.
+ * Each group holds running sums, quantile sketches of prices and prices per square foot, and a
+ * histogram of listing dates. Every property and listing write retracts the previous contribution
+ * of the property from its groups and adds the new one. The whole-market figures are the merge of
+ * the property type groups, which partition the market.
+ * Properties arrive like any {@link PropertyIndex} through the {@link PropertyIndexManager};
+ * listings are loaded here in parallel on startup and reported by the {@link ListingService}.
+ */
+@Component
+public class MarketAnalytics implements PropertyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketAnalytics.class);
+
+    /**
+     * Most groups returned per request.
+     */
+    public static final int MAX_GROUPS = 500;
+
+    /**
+     * The dimensions properties can be grouped by.
+     */
+    public enum Dimension {
+        MARKET("market"),
+        CITY("city"),
+        STATE("state"),
+        ZIP_CODE("zipCode"),
+        PROPERTY_TYPE("propertyType");
+
+        private final String name;
+
+        Dimension(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Parses a dimension name as used in the API, case-insensitively.
+         *
+         * @param value the dimension name
+         * @return the matching dimension
+         * @throws IllegalArgumentException if no dimension has that name
+         */
+        public static Dimension parse(String value) {
+            for (Dimension dimension : values()) {
+                if (dimension.name.equalsIgnoreCase(value.trim())) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension '" + value
+                + "'; use market, city, state, zipCode or propertyType");
+        }
+    }
+
+    /**
+     * The dimensions with groups of their own; {@link Dimension#MARKET} is derived from them.
+     */
+    private static final Dimension[] GROUPED = { Dimension.CITY, Dimension.STATE, Dimension.ZIP_CODE,
+        Dimension.PROPERTY_TYPE };
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Dimension, TreeMap<String, Aggregate>> groups = new EnumMap<>(Dimension.class);
+
+    /**
+     * What each property, with its listings, currently contributes to its groups.
+     */
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+
+    /**
+     * The property of each listing, so a listing can be retracted or moved to another property.
+     */
+    private final Map<Long, Long> listingProperties = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    private volatile boolean loading;
+
+    /**
+     * IDs of listings written while the startup load is streaming the table; they are re-read once it finishes.
+     */
+    private final Set<Long> writtenDuringLoad = ConcurrentHashMap.newKeySet();
+
+    public MarketAnalytics() {
+        for (Dimension dimension : GROUPED) {
+            groups.put(dimension, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        }
+    }
+
+    @Override
+    public void index(Property property) {
+        String[] keys = { property.getCity(), property.getState(), property.getZipCode(),
+            property.getPropertyType() == null ? null : property.getPropertyType().name() };
+        lock.writeLock().lock();
+        try {
+            Contribution contribution = contributions.computeIfAbsent(property.getId(), id -> new Contribution());
+            if (contribution.keys != null) {
+                apply(contribution, -1);
+            }
+            contribution.keys = keys;
+            contribution.price = property.getPrice() == null ? -1 : property.getPrice().doubleValue();
+            contribution.pricePerSquareFoot = contribution.price >= 0 && property.getSquareFeet() != null
+                && property.getSquareFeet() > 0 ? contribution.price / property.getSquareFeet() : -1;
+            apply(contribution, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Contribution contribution = contributions.remove(id);
+            if (contribution != null) {
+                if (contribution.keys != null) {
+                    apply(contribution, -1);
+                }
+                contribution.listingDays.keySet().forEach(listingProperties::remove);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a created or updated listing once the current transaction commits.
+     *
+     * @param listing the saved listing
+     */
+    public void listingSaved(Listing listing) {
+        Long id = listing.getId();
+        Long propertyId = listing.getProperty().getId();
+        LocalDate listingDate = listing.getListingDate();
+        TransactionCallbacks.afterCommit(() -> {
+            putListing(id, propertyId, listingDate);
+            if (loading) {
+                writtenDuringLoad.add(id);
+            }
+        });
+    }
+
+    /**
+     * Retracts a deleted listing once the current transaction commits.
+     *
+     * @param id the ID of the deleted listing
+     */
+    public void listingDeleted(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                retractListing(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (loading) {
+                writtenDuringLoad.add(id);
+            }
+        });
+    }
+
+    /**
+     * @return true once the listings have been loaded; the properties are tracked by the {@link PropertyIndexManager}
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Fails fast when a request needs the analytics before the startup load has finished.
+     *
+     * @throws IndexNotReadyException if the listings are still being loaded
+     */
+    public void requireReady() {
+        if (!ready) {
+            throw new IndexNotReadyException("Market analytics are still loading, please retry shortly.");
+        }
+    }
+
+    /**
+     * Returns the statistics of groups of a dimension.
+     *
+     * @param dimension the dimension to group by
+     * @param keys the groups to return, e.g. city names; all groups if empty
+     * @param limit the maximum number of groups, capped at {@link #MAX_GROUPS}
+     * @return the statistics of each group, most properties first
+     */
+    public List<MarketStats> stats(Dimension dimension, Collection<String> keys, int limit) {
+        int maxGroups = Math.max(1, Math.min(limit, MAX_GROUPS));
+        LocalDate today = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            if (dimension == Dimension.MARKET) {
+                Aggregate market = new Aggregate();
+                groups.get(Dimension.PROPERTY_TYPE).values().forEach(market::merge);
+                return List.of(market.toStats(dimension, "all", today));
+            }
+            TreeMap<String, Aggregate> byKey = groups.get(dimension);
+            List<Map.Entry<String, Aggregate>> selected = new ArrayList<>();
+            if (keys.isEmpty()) {
+                selected.addAll(byKey.entrySet());
+                selected.sort(Comparator.comparingLong((Map.Entry<String, Aggregate> entry) -> entry.getValue().properties)
+                    .reversed().thenComparing(Map.Entry::getKey));
+            } else {
+                for (String key : keys) {
+                    // Keys match case-insensitively; report the group under its own spelling
+                    Map.Entry<String, Aggregate> entry = byKey.ceilingEntry(key.trim());
+                    if (entry != null && byKey.comparator().compare(entry.getKey(), key.trim()) == 0) {
+                        selected.add(entry);
+                    }
+                }
+            }
+            List<MarketStats> stats = new ArrayList<>();
+            for (Map.Entry<String, Aggregate> entry : selected.subList(0, Math.min(maxGroups, selected.size()))) {
+                stats.add(entry.getValue().toStats(dimension, entry.getKey(), today));
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every listing date from the listings table. The ID range is split into partitions
+     * that are streamed concurrently, each in its own read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadListings() {
+        long started = System.currentTimeMillis();
+        loading = true;
+        long loaded = IdRangeLoader.load(listingRepository.findIdRange(), "market analytics", this::loadRange);
+        loading = false;
+        resync(writtenDuringLoad);
+        ready = true;
+        log.info("Loaded {} listings into market analytics in {} ms", loaded, System.currentTimeMillis() - started);
+    }
+
+    private long loadRange(long fromId, long toId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            long count = 0;
+            try (Stream<Object[]> rows = listingRepository.streamListingDatesByIdBetween(fromId, toId)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    putListing((Long) row[0], (Long) row[1], (LocalDate) row[2]);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private void resync(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> written = new ArrayList<>(ids);
+        ids.clear();
+        Set<Long> found = new HashSet<>();
+        for (Object[] row : listingRepository.findListingDatesByIdIn(written)) {
+            putListing((Long) row[0], (Long) row[1], (LocalDate) row[2]);
+            found.add((Long) row[0]);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : written) {
+                if (!found.contains(id)) {
+                    retractListing(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putListing(Long id, Long propertyId, LocalDate listingDate) {
+        lock.writeLock().lock();
+        try {
+            retractListing(id);
+            if (listingDate == null) {
+                return;
+            }
+            int day = (int) listingDate.toEpochDay();
+            Contribution contribution = contributions.computeIfAbsent(propertyId, key -> new Contribution());
+            contribution.listingDays.put(id, day);
+            listingProperties.put(id, propertyId);
+            if (contribution.keys != null) {
+                forEachGroup(contribution, aggregate -> aggregate.addListing(day, 1));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a listing from its property and groups. Must hold the write lock.
+     */
+    private void retractListing(Long id) {
+        Long propertyId = listingProperties.remove(id);
+        if (propertyId == null) {
+            return;
+        }
+        Contribution contribution = contributions.get(propertyId);
+        Integer day = contribution == null ? null : contribution.listingDays.remove(id);
+        if (day == null) {
+            return;
+        }
+        if (contribution.keys != null) {
+            forEachGroup(contribution, aggregate -> aggregate.addListing(day, -1));
+        } else if (contribution.listingDays.isEmpty()) {
+            // Listings loaded before their property was indexed leave a placeholder behind
+            contributions.remove(propertyId);
+        }
+    }
+
+    /**
+     * Adds or retracts the whole contribution of a property, listings included. Must hold the write lock.
+     */
+    private void apply(Contribution contribution, int sign) {
+        forEachGroup(contribution, aggregate -> {
+            aggregate.addProperty(contribution, sign);
+            for (int day : contribution.listingDays.values()) {
+                aggregate.addListing(day, sign);
+            }
+        });
+    }
+
+    private void forEachGroup(Contribution contribution, Consumer<Aggregate> action) {
+        for (int i = 0; i < GROUPED.length; i++) {
+            String key = contribution.keys[i];
+            if (key == null || key.isBlank()) {
+                continue;
+            }
+            Map<String, Aggregate> byKey = groups.get(GROUPED[i]);
+            Aggregate aggregate = byKey.computeIfAbsent(key.trim(), k -> new Aggregate());
+            action.accept(aggregate);
+            if (aggregate.isEmpty()) {
+                byKey.remove(key.trim());
+            }
+        }
+    }
+
+    /**
+     * The price figures and listing dates of one property.
+     */
+    private static final class Contribution {
+
+        /**
+         * The group keys of the property by {@link #GROUPED} dimension, or null while only its listings are known.
+         */
+        private String[] keys;
+
+        /**
+         * The price, or -1 if unknown.
+         */
+        private double price = -1;
+
+        /**
+         * The price per square foot, or -1 if the price or square footage is unknown.
+         */
+        private double pricePerSquareFoot = -1;
+
+        /**
+         * The listing date of each listing of the property, as epoch days.
+         */
+        private final Map<Long, Integer> listingDays = new HashMap<>(4);
+    }
+
+    /**
+     * The running statistics of one group. Every figure can be retracted as well as added, and
+     * aggregates merge by adding their figures.
+     */
+    private static final class Aggregate {
+
+        private long properties;
+
+        private long pricedProperties;
+
+        private double priceSum;
+
+        private final QuantileSketch prices = new QuantileSketch();
+
+        private long sizedProperties;
+
+        private double pricePerSquareFootSum;
+
+        private final QuantileSketch pricesPerSquareFoot = new QuantileSketch();
+
+        private long listings;
+
+        private long listingDaySum;
+
+        /**
+         * Number of listings per listing date, as epoch days.
+         */
+        private final TreeMap<Integer, Integer> listingDays = new TreeMap<>();
+
+        void addProperty(Contribution contribution, int sign) {
+            properties += sign;
+            if (contribution.price >= 0) {
+                pricedProperties += sign;
+                priceSum += sign * contribution.price;
+                prices.add(contribution.price, sign);
+            }
+            if (contribution.pricePerSquareFoot >= 0) {
+                sizedProperties += sign;
+                pricePerSquareFootSum += sign * contribution.pricePerSquareFoot;
+                pricesPerSquareFoot.add(contribution.pricePerSquareFoot, sign);
+            }
+        }
+
+        void addListing(int day, int sign) {
+            listings += sign;
+            listingDaySum += (long) sign * day;
+            listingDays.merge(day, sign, (count, delta) -> count + delta == 0 ? null : count + delta);
+        }
+
+        void merge(Aggregate other) {
+            properties += other.properties;
+            pricedProperties += other.pricedProperties;
+            priceSum += other.priceSum;
+            prices.merge(other.prices);
+            sizedProperties += other.sizedProperties;
+            pricePerSquareFootSum += other.pricePerSquareFootSum;
+            pricesPerSquareFoot.merge(other.pricesPerSquareFoot);
+            listings += other.listings;
+            listingDaySum += other.listingDaySum;
+            other.listingDays.forEach((day, count) -> listingDays.merge(day, count, Integer::sum));
+        }
+
+        boolean isEmpty() {
+            return properties == 0 && listings == 0;
+        }
+
+        MarketStats toStats(Dimension dimension, String key, LocalDate today) {
+            MarketStats stats = new MarketStats();
+            stats.setGroupBy(dimension.getName());
+            stats.setKey(key);
+            stats.setPropertyCount(properties);
+            if (pricedProperties > 0) {
+                stats.setAveragePrice(money(priceSum / pricedProperties, 2));
+                stats.setP10Price(money(prices.quantile(0.1), 0));
+                stats.setMedianPrice(money(prices.quantile(0.5), 0));
+                stats.setP90Price(money(prices.quantile(0.9), 0));
+            }
+            if (sizedProperties > 0) {
+                stats.setAveragePricePerSquareFoot(money(pricePerSquareFootSum / sizedProperties, 2));
+                stats.setP10PricePerSquareFoot(money(pricesPerSquareFoot.quantile(0.1), 2));
+                stats.setMedianPricePerSquareFoot(money(pricesPerSquareFoot.quantile(0.5), 2));
+                stats.setP90PricePerSquareFoot(money(pricesPerSquareFoot.quantile(0.9), 2));
+            }
+            stats.setListingCount(listings);
+            if (listings > 0) {
+                long todayDay = today.toEpochDay();
+                double averageDays = todayDay - (double) listingDaySum / listings;
+                stats.setAverageDaysOnMarket(Math.max(0, Math.round(averageDays * 10) / 10.0));
+                // The longer a listing has been on the market, the earlier its date
+                stats.setMedianDaysOnMarket((int) Math.max(0, todayDay - listingDayAt(0.5)));
+                stats.setP90DaysOnMarket((int) Math.max(0, todayDay - listingDayAt(0.1)));
+            }
+            return stats;
+        }
+
+        /**
+         * @return the listing date at the given quantile, as an epoch day
+         */
+        private int listingDayAt(double q) {
+            double rank = q * (listings - 1);
+            long seen = 0;
+            for (Map.Entry<Integer, Integer> entry : listingDays.entrySet()) {
+                seen += entry.getValue();
+                if (seen > rank) {
+                    return entry.getKey();
+                }
+            }
+            return listingDays.lastKey();
+        }
+
+        private static BigDecimal money(double value, int scale) {
+            return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+        }
+    }
+}
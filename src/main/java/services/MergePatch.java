@@ -0,0 +1,127 @@
+package com.realestate.app.services;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) to flat entities.
+ * A patch lists only the fields to change; a {@code null} value clears a field. The
+ * optional {@code version} member is not a change but the version the client last read.
+ */
+final class MergePatch {
+
+    /**
+     * The patch member carrying the version the client expects to overwrite.
+     */
+    static final String VERSION_FIELD = "version";
+
+    private MergePatch() {
+    }
+
+    /**
+     * Converts a patch into typed field values, using the entity's JSON mapping for each field.
+     *
+     * @param objectMapper the mapper used to read the entity from JSON
+     * @param patch the patch document
+     * @param type the patched entity type
+     * @param patchable the fields a patch may change
+     * @return the changed fields and their new values, in patch order
+     * @throws IllegalArgumentException if the patch is empty, names a field that cannot be patched, or has a malformed value
+     */
+    static <T> Map<String, Object> changes(ObjectMapper objectMapper, ObjectNode patch, Class<T> type,
+            Set<String> patchable) {
+        ObjectNode fields = patch.deepCopy();
+        fields.remove(VERSION_FIELD);
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("The patch does not change any field");
+        }
+        Iterator<Map.Entry<String, JsonNode>> entries = fields.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if (!patchable.contains(entry.getKey())) {
+                throw new IllegalArgumentException("Field '" + entry.getKey() + "' cannot be patched");
+            }
+            if (entry.getValue().isContainerNode()) {
+                throw new IllegalArgumentException("Field '" + entry.getKey() + "' must be a single value");
+            }
+        }
+        T typed;
+        try {
+            typed = objectMapper.treeToValue(fields, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed patch: " + e.getOriginalMessage());
+        }
+        BeanWrapper values = new BeanWrapperImpl(typed);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        fields.fieldNames().forEachRemaining(name -> changes.put(name, values.getPropertyValue(name)));
+        return changes;
+    }
+
+    /**
+     * Reads the version member of a patch.
+     *
+     * @param patch the patch document
+     * @return the version the client expects, or {@code null} if the patch does not name one
+     * @throws IllegalArgumentException if the version is not a number
+     */
+    static Long version(ObjectNode patch) {
+        JsonNode version = patch.get(VERSION_FIELD);
+        if (version == null || version.isNull()) {
+            return null;
+        }
+        if (!version.isIntegralNumber() || !version.canConvertToLong()) {
+            throw new IllegalArgumentException("version must be a whole number");
+        }
+        return version.asLong();
+    }
+
+    /**
+     * Sets the changed fields on a loaded entity; Hibernate then writes only the columns that differ.
+     *
+     * @param entity the managed entity
+     * @param changes the changed fields and their new values
+     */
+    static void apply(Object entity, Map<String, Object> changes) {
+        BeanWrapper target = new BeanWrapperImpl(entity);
+        changes.forEach(target::setPropertyValue);
+    }
+
+    /**
+     * Writes the changed fields with a single UPDATE guarded by the expected version, without reading the row first.
+     * The version is incremented and {@code updatedAt} set, as an entity update would.
+     *
+     * @param entityManager the entity manager of the current transaction
+     * @param type the patched entity type
+     * @param id the ID of the entity
+     * @param expectedVersion the version the client last read
+     * @param changes the changed fields and their new values
+     * @return the number of rows updated: 0 if the entity does not exist or its version has moved on
+     */
+    static <T> int update(EntityManager entityManager, Class<T> type, Long id, long expectedVersion,
+            Map<String, Object> changes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = builder.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+        changes.forEach((field, value) -> update.set(root.<Object>get(field), value));
+        update.set(root.<Long>get(VERSION_FIELD), builder.sum(root.<Long>get(VERSION_FIELD), 1L));
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.where(builder.equal(root.get("id"), id), builder.equal(root.get(VERSION_FIELD), expectedVersion));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,522 @@
+package com.realestate.app.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+import com.realestate.app.models.PropertyFacets;
+import com.realestate.app.models.PropertySearchCriteria;
+
+/**
+ * Columnar in-memory copy of the filterable and sortable property fields, used to compute facet
+ * counts and to filter and order free-text matches without touching the database. Each field is a
+ * primitive array indexed by row: enums as byte ordinals, price as long cents, creation time as
+ * epoch nanoseconds, and city, state and ZIP code as dictionary codes.
+ * Deleted rows are recycled, so the arrays stay as long as the largest catalog seen.
+ */
+@Component
+public class PropertyCatalog implements PropertyIndex {
+
+    /**
+     * Upper bounds (exclusive, in whole currency units) of the price facet buckets; the last bucket is open.
+     */
+    static final long[] PRICE_BUCKETS = { 100_000, 250_000, 500_000, 750_000, 1_000_000, 2_000_000 };
+
+    /**
+     * Bedroom counts at or above this value share the last bedroom facet bucket.
+     */
+    static final int MAX_BEDROOM_BUCKET = 5;
+
+    /**
+     * Maximum number of values returned for the city and state facets.
+     */
+    static final int MAX_FACET_VALUES = 50;
+
+    private static final byte NO_ORDINAL = -1;
+    private static final int NO_CODE = -1;
+    private static final int UNKNOWN_CODE = -2;
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    private static final int TYPE = 0;
+    private static final int STATUS = 1;
+    private static final int CITY = 2;
+    private static final int STATE = 3;
+    private static final int BEDROOMS = 4;
+    private static final int PRICE = 5;
+
+    private long[] ids = new long[1024];
+    private byte[] types = new byte[1024];
+    private byte[] statuses = new byte[1024];
+    private long[] priceCents = new long[1024];
+    private int[] cities = new int[1024];
+    private int[] states = new int[1024];
+    private int[] zipCodes = new int[1024];
+    private int[] bedrooms = new int[1024];
+    private double[] bathrooms = new double[1024];
+    private int[] squareFeet = new int[1024];
+    private long[] createdAt = new long[1024];
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final List<Integer> freeRows = new ArrayList<>();
+    private int nextRow;
+
+    private final Dictionary cityDictionary = new Dictionary();
+    private final Dictionary stateDictionary = new Dictionary();
+    private final Dictionary zipCodeDictionary = new Dictionary();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.get(property.getId());
+            int row = existing != null ? existing : allocateRow();
+            ids[row] = property.getId();
+            types[row] = property.getPropertyType() == null ? NO_ORDINAL : (byte) property.getPropertyType().ordinal();
+            statuses[row] = property.getStatus() == null ? NO_ORDINAL : (byte) property.getStatus().ordinal();
+            priceCents[row] = property.getPrice() == null ? NO_PRICE : toCents(property.getPrice());
+            cities[row] = cityDictionary.encode(property.getCity());
+            states[row] = stateDictionary.encode(property.getState());
+            zipCodes[row] = zipCodeDictionary.encode(property.getZipCode());
+            bedrooms[row] = property.getBedrooms() == null ? NO_NUMBER : property.getBedrooms();
+            bathrooms[row] = property.getBathrooms() == null ? Double.NaN : property.getBathrooms();
+            squareFeet[row] = property.getSquareFeet() == null ? NO_NUMBER : property.getSquareFeet();
+            createdAt[row] = property.getCreatedAt() == null ? NO_TIME
+                : property.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + property.getCreatedAt().getNano();
+            rowById.put(property.getId(), row);
+            live.set(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                live.clear(row);
+                freeRows.add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void statusChanged(Collection<Long> changedIds, PropertyStatus status) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : changedIds) {
+                Integer row = rowById.get(id);
+                if (row != null) {
+                    statuses[row] = (byte) status.ordinal();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int allocateRow() {
+        if (!freeRows.isEmpty()) {
+            return freeRows.remove(freeRows.size() - 1);
+        }
+        if (nextRow == ids.length) {
+            int capacity = nextRow * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            cities = Arrays.copyOf(cities, capacity);
+            states = Arrays.copyOf(states, capacity);
+            zipCodes = Arrays.copyOf(zipCodes, capacity);
+            bedrooms = Arrays.copyOf(bedrooms, capacity);
+            bathrooms = Arrays.copyOf(bathrooms, capacity);
+            squareFeet = Arrays.copyOf(squareFeet, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+        }
+        return nextRow++;
+    }
+
+    /**
+     * Computes every facet in a single pass over the catalog. Rows must match all filters to be
+     * counted in {@link PropertyFacets#getTotal()}; a row failing only the filter of one facet is
+     * still counted in that facet, so each facet shows what selecting another value would yield.
+     * City, state and ZIP code are matched case-insensitively.
+     *
+     * @param criteria the search filters; the free-text query is ignored here
+     * @param restrictTo if not {@code null}, only properties with these IDs are considered
+     * @return the facet counts
+     */
+    public PropertyFacets facets(PropertySearchCriteria criteria, Collection<Long> restrictTo) {
+        lock.readLock().lock();
+        try {
+            BitSet rows = live;
+            if (restrictTo != null) {
+                rows = new BitSet();
+                for (Long id : restrictTo) {
+                    Integer row = rowById.get(id);
+                    if (row != null) {
+                        rows.set(row);
+                    }
+                }
+            }
+
+            Filter filter = new Filter(criteria);
+
+            long total = 0;
+            long[] typeCounts = new long[PropertyType.values().length];
+            long[] statusCounts = new long[PropertyStatus.values().length];
+            long[] cityCounts = new long[cityDictionary.size()];
+            long[] stateCounts = new long[stateDictionary.size()];
+            long[] bedroomCounts = new long[MAX_BEDROOM_BUCKET + 1];
+            long[] priceCounts = new long[PRICE_BUCKETS.length + 1];
+
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                // Filters without a facet of their own exclude the row outright
+                if (!filter.matchesUnfaceted(row)) {
+                    continue;
+                }
+
+                int failures = 0;
+                int failedFacet = -1;
+                if (!filter.matchesType(row)) {
+                    failures++;
+                    failedFacet = TYPE;
+                }
+                if (!filter.matchesStatus(row)) {
+                    failures++;
+                    failedFacet = STATUS;
+                }
+                if (!filter.matchesCity(row)) {
+                    failures++;
+                    failedFacet = CITY;
+                }
+                if (!filter.matchesState(row)) {
+                    failures++;
+                    failedFacet = STATE;
+                }
+                if (!filter.matchesBedrooms(row)) {
+                    failures++;
+                    failedFacet = BEDROOMS;
+                }
+                if (!filter.matchesPrice(row)) {
+                    failures++;
+                    failedFacet = PRICE;
+                }
+                if (failures > 1) {
+                    continue;
+                }
+                if (failures == 0) {
+                    total++;
+                }
+                if (failures == 0 || failedFacet == TYPE) {
+                    if (types[row] != NO_ORDINAL) {
+                        typeCounts[types[row]]++;
+                    }
+                }
+                if (failures == 0 || failedFacet == STATUS) {
+                    if (statuses[row] != NO_ORDINAL) {
+                        statusCounts[statuses[row]]++;
+                    }
+                }
+                if (failures == 0 || failedFacet == CITY) {
+                    if (cities[row] != NO_CODE) {
+                        cityCounts[cities[row]]++;
+                    }
+                }
+                if (failures == 0 || failedFacet == STATE) {
+                    if (states[row] != NO_CODE) {
+                        stateCounts[states[row]]++;
+                    }
+                }
+                if (failures == 0 || failedFacet == BEDROOMS) {
+                    if (bedrooms[row] != NO_NUMBER) {
+                        bedroomCounts[Math.max(0, Math.min(bedrooms[row], MAX_BEDROOM_BUCKET))]++;
+                    }
+                }
+                if (failures == 0 || failedFacet == PRICE) {
+                    if (priceCents[row] != NO_PRICE) {
+                        priceCounts[priceBucket(priceCents[row])]++;
+                    }
+                }
+            }
+
+            return new PropertyFacets(total,
+                enumFacet(PropertyType.values(), typeCounts),
+                enumFacet(PropertyStatus.values(), statusCounts),
+                cityDictionary.topValues(cityCounts, MAX_FACET_VALUES),
+                stateDictionary.topValues(stateCounts, MAX_FACET_VALUES),
+                bedroomFacet(bedroomCounts),
+                priceFacet(priceCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the given properties that match every filter of the criteria, in place of a database
+     * query over their IDs; used to narrow the matches of a free-text search. Filters match like
+     * in {@link #facets}, and an ID not in the catalog is dropped. Without a sort the IDs keep their
+     * given order; with one they are ordered by it, missing values first as in MySQL. The sort may
+     * use any of the {@link PropertyQueryPlanner#SORTABLE_PROPERTIES}.
+     *
+     * @param criteria the search filters; the free-text query is ignored here
+     * @param ids the candidate IDs
+     * @param sort the order of the result, or {@link Sort#unsorted()} to keep the order of {@code ids}
+     * @return the matching IDs
+     * @throws IllegalArgumentException if the sort names a field the catalog does not hold
+     */
+    public List<Long> filter(PropertySearchCriteria criteria, List<Long> ids, Sort sort) {
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(criteria);
+            List<Integer> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Integer row = rowById.get(id);
+                if (row != null && filter.matches(row)) {
+                    rows.add(row);
+                }
+            }
+            if (sort.isSorted()) {
+                rows.sort(comparator(sort));
+            }
+            List<Long> matching = new ArrayList<>(rows.size());
+            for (int row : rows) {
+                matching.add(this.ids[row]);
+            }
+            return matching;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders rows by the sort. Missing values are stored as the smallest value of their column,
+     * so they come first in ascending and last in descending order, as in MySQL.
+     */
+    private Comparator<Integer> comparator(Sort sort) {
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Integer> byColumn = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingLong(row -> ids[row]);
+                case "price" -> Comparator.comparingLong(row -> priceCents[row]);
+                case "createdAt" -> Comparator.comparingLong(row -> createdAt[row]);
+                case "bedrooms" -> Comparator.comparingInt(row -> bedrooms[row]);
+                case "squareFeet" -> Comparator.comparingInt(row -> squareFeet[row]);
+                default -> throw new IllegalArgumentException("Cannot sort by '" + order.getProperty() + "'");
+            };
+            if (order.isDescending()) {
+                byColumn = byColumn.reversed();
+            }
+            comparator = comparator == null ? byColumn : comparator.thenComparing(byColumn);
+        }
+        return comparator;
+    }
+
+    /**
+     * @return the number of properties in the catalog
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static int priceBucket(long cents) {
+        for (int i = 0; i < PRICE_BUCKETS.length; i++) {
+            if (cents < PRICE_BUCKETS[i] * 100) {
+                return i;
+            }
+        }
+        return PRICE_BUCKETS.length;
+    }
+
+    private static Map<String, Long> enumFacet(Enum<?>[] values, long[] counts) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        for (Enum<?> value : values) {
+            facet.put(value.name(), counts[value.ordinal()]);
+        }
+        return facet;
+    }
+
+    private static Map<String, Long> bedroomFacet(long[] counts) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        for (int i = 0; i < MAX_BEDROOM_BUCKET; i++) {
+            facet.put(String.valueOf(i), counts[i]);
+        }
+        facet.put(MAX_BEDROOM_BUCKET + "+", counts[MAX_BEDROOM_BUCKET]);
+        return facet;
+    }
+
+    private static Map<String, Long> priceFacet(long[] counts) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        long lower = 0;
+        for (int i = 0; i < PRICE_BUCKETS.length; i++) {
+            facet.put(lower + "-" + PRICE_BUCKETS[i], counts[i]);
+            lower = PRICE_BUCKETS[i];
+        }
+        facet.put(lower + "+", counts[PRICE_BUCKETS.length]);
+        return facet;
+    }
+
+    /**
+     * The filters of a search resolved against the catalog's encodings. Must be used with the read lock held.
+     */
+    private final class Filter {
+        private final int type;
+        private final int status;
+        private final int city;
+        private final int state;
+        private final int zipCode;
+        private final long minPrice;
+        private final long maxPrice;
+        private final boolean priceFiltered;
+        private final int minBedrooms;
+        private final int maxBedrooms;
+        private final boolean bedroomsFiltered;
+        private final double minBathrooms;
+        private final boolean bathroomsFiltered;
+        private final int minSquareFeet;
+        private final int maxSquareFeet;
+        private final boolean squareFeetFiltered;
+
+        Filter(PropertySearchCriteria criteria) {
+            type = criteria.getType() == null ? NO_CODE : criteria.getType().ordinal();
+            status = criteria.getStatus() == null ? NO_CODE : criteria.getStatus().ordinal();
+            city = criteria.getCity() == null ? NO_CODE : cityDictionary.lookup(criteria.getCity());
+            state = criteria.getState() == null ? NO_CODE : stateDictionary.lookup(criteria.getState());
+            zipCode = criteria.getZipCode() == null ? NO_CODE : zipCodeDictionary.lookup(criteria.getZipCode());
+            minPrice = PropertyPriceIndex.lowerBoundCents(criteria.getMinPrice());
+            maxPrice = PropertyPriceIndex.upperBoundCents(criteria.getMaxPrice());
+            priceFiltered = criteria.getMinPrice() != null || criteria.getMaxPrice() != null;
+            minBedrooms = criteria.getMinBedrooms() == null ? NO_NUMBER : criteria.getMinBedrooms();
+            maxBedrooms = criteria.getMaxBedrooms() == null ? Integer.MAX_VALUE : criteria.getMaxBedrooms();
+            bedroomsFiltered = criteria.getMinBedrooms() != null || criteria.getMaxBedrooms() != null;
+            bathroomsFiltered = criteria.getMinBathrooms() != null;
+            minBathrooms = bathroomsFiltered ? criteria.getMinBathrooms() : 0;
+            minSquareFeet = criteria.getMinSquareFeet() == null ? NO_NUMBER : criteria.getMinSquareFeet();
+            maxSquareFeet = criteria.getMaxSquareFeet() == null ? Integer.MAX_VALUE : criteria.getMaxSquareFeet();
+            squareFeetFiltered = criteria.getMinSquareFeet() != null || criteria.getMaxSquareFeet() != null;
+        }
+
+        boolean matches(int row) {
+            return matchesUnfaceted(row) && matchesType(row) && matchesStatus(row) && matchesCity(row)
+                && matchesState(row) && matchesBedrooms(row) && matchesPrice(row);
+        }
+
+        /**
+         * @return whether the row passes the filters that have no facet: ZIP code, bathrooms and square footage
+         */
+        boolean matchesUnfaceted(int row) {
+            if (zipCode != NO_CODE && zipCodes[row] != zipCode) {
+                return false;
+            }
+            if (bathroomsFiltered && !(bathrooms[row] >= minBathrooms)) {
+                return false;
+            }
+            return !squareFeetFiltered
+                || squareFeet[row] != NO_NUMBER && squareFeet[row] >= minSquareFeet && squareFeet[row] <= maxSquareFeet;
+        }
+
+        boolean matchesType(int row) {
+            return type == NO_CODE || types[row] == type;
+        }
+
+        boolean matchesStatus(int row) {
+            return status == NO_CODE || statuses[row] == status;
+        }
+
+        boolean matchesCity(int row) {
+            return city == NO_CODE || cities[row] == city;
+        }
+
+        boolean matchesState(int row) {
+            return state == NO_CODE || states[row] == state;
+        }
+
+        boolean matchesBedrooms(int row) {
+            return !bedroomsFiltered
+                || bedrooms[row] != NO_NUMBER && bedrooms[row] >= minBedrooms && bedrooms[row] <= maxBedrooms;
+        }
+
+        boolean matchesPrice(int row) {
+            return !priceFiltered
+                || priceCents[row] != NO_PRICE && priceCents[row] >= minPrice && priceCents[row] <= maxPrice;
+        }
+    }
+
+    /**
+     * Maps distinct strings to dense integer codes. Values are matched case-insensitively and
+     * reported as first seen. Codes are never reused, so the dictionary only grows.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            return codes.computeIfAbsent(value.trim().toLowerCase(Locale.ROOT), key -> {
+                values.add(value.trim());
+                return values.size() - 1;
+            });
+        }
+
+        /**
+         * @return the code of the value, or a code no row carries if the value has never been seen
+         */
+        int lookup(String value) {
+            return codes.getOrDefault(value.trim().toLowerCase(Locale.ROOT), UNKNOWN_CODE);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        Map<String, Long> topValues(long[] counts, int limit) {
+            Integer[] order = new Integer[counts.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+            Map<String, Long> facet = new LinkedHashMap<>();
+            for (int i = 0; i < order.length && facet.size() < limit && counts[order[i]] > 0; i++) {
+                facet.put(values.get(order[i]), counts[order[i]]);
+            }
+            return facet;
+        }
+    }
+}
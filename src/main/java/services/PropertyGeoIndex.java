@@ -0,0 +1,419 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.GeoPoint;
+import com.realestate.app.models.Property;
+
+/**
+ * In-memory spatial index over property coordinates.
+ * Points are bucketed into a fixed grid of 0.01 degree cells (roughly 1 km), each cell
+ * storing its points in primitive arrays. A coarse grid of 1 degree cells lists the
+ * non-empty fine cells below it, so wide map views scan only occupied cells instead
+ * of every cell in the box.
+ */
+@Component
+public class PropertyGeoIndex implements PropertyIndex {
+
+    /**
+     * Upper bound on the number of points a single geographic search may return.
+     */
+    public static final int MAX_RESULTS = 1000;
+
+    /**
+     * Upper bound on the radius of a radius search, in kilometres.
+     */
+    public static final double MAX_RADIUS_KM = 500;
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = 111.32;
+
+    private static final int CELLS_PER_DEGREE = 100;
+    private static final int LON_CELLS = 360 * CELLS_PER_DEGREE;
+
+    /**
+     * Beyond this many fine cells, a box is scanned through the coarse grid.
+     */
+    private static final int MAX_FINE_CELL_LOOKUPS = 4096;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, List<Long>> coarseCells = new HashMap<>();
+    private final Map<Long, Long> cellByPropertyId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            Double latitude = property.getLatitude();
+            Double longitude = property.getLongitude();
+            if (latitude == null || longitude == null || !isValid(latitude, longitude)) {
+                return;
+            }
+            long key = cellKey(latitudeCell(latitude), longitudeCell(longitude));
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                cell = new Cell(key);
+                cells.put(key, cell);
+                coarseCells.computeIfAbsent(coarseKeyOf(key), k -> new ArrayList<>()).add(key);
+            }
+            cell.add(property.getId(), latitude, longitude);
+            cellByPropertyId.put(property.getId(), key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Long key = cellByPropertyId.remove(id);
+        if (key == null) {
+            return;
+        }
+        Cell cell = cells.get(key);
+        cell.remove(id);
+        if (cell.size == 0) {
+            cells.remove(key);
+            List<Long> siblings = coarseCells.get(coarseKeyOf(key));
+            siblings.remove(key);
+            if (siblings.isEmpty()) {
+                coarseCells.remove(coarseKeyOf(key));
+            }
+        }
+    }
+
+    /**
+     * @return the number of indexed points
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cellByPropertyId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the properties within the given distance of a point, nearest first.
+     *
+     * @param latitude the latitude of the centre
+     * @param longitude the longitude of the centre
+     * @param radiusKm the search radius in kilometres
+     * @param limit the maximum number of points to return
+     * @return the matching points ordered by distance, each carrying its distance
+     */
+    public List<GeoPoint> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lonDelta = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+
+        // Keep the nearest `limit` points in a max-heap on distance
+        PriorityQueue<GeoPoint> nearest = new PriorityQueue<>(
+            Comparator.comparingDouble(GeoPoint::getDistanceKm).reversed());
+        PointVisitor visitor = (id, lat, lon) -> {
+            double distance = haversineKm(latitude, longitude, lat, lon);
+            if (distance <= radiusKm) {
+                if (nearest.size() < limit) {
+                    nearest.add(new GeoPoint(id, lat, lon, distance));
+                } else if (distance < nearest.peek().getDistanceKm()) {
+                    nearest.poll();
+                    nearest.add(new GeoPoint(id, lat, lon, distance));
+                }
+            }
+            return true;
+        };
+
+        lock.readLock().lock();
+        try {
+            if (lonDelta >= 180) {
+                scan(minLat, -180, maxLat, 180, visitor);
+            } else {
+                scanWrapping(minLat, longitude - lonDelta, maxLat, longitude + lonDelta, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<GeoPoint> results = new ArrayList<>(nearest);
+        results.sort(Comparator.comparingDouble(GeoPoint::getDistanceKm));
+        return results;
+    }
+
+    /**
+     * Finds the properties inside a bounding box. A box whose minimum longitude is greater
+     * than its maximum longitude is treated as crossing the antimeridian.
+     *
+     * @param minLat the southern edge
+     * @param minLon the western edge
+     * @param maxLat the northern edge
+     * @param maxLon the eastern edge
+     * @param limit the maximum number of points to return
+     * @return up to {@code limit} points inside the box
+     */
+    public List<GeoPoint> withinBox(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        List<GeoPoint> results = new ArrayList<>();
+        PointVisitor visitor = (id, lat, lon) -> {
+            results.add(new GeoPoint(id, lat, lon, null));
+            return results.size() < limit;
+        };
+        lock.readLock().lock();
+        try {
+            if (minLon <= maxLon) {
+                scan(minLat, minLon, maxLat, maxLon, visitor);
+            } else if (scan(minLat, minLon, maxLat, 180, visitor)) {
+                scan(minLat, -180, maxLat, maxLon, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Finds the properties inside a simple polygon, using its bounding box to select candidate cells
+     * and an even-odd ray casting test on each candidate. A polygon with an edge spanning more than
+     * 180 degrees of longitude is taken to cross the antimeridian: its western longitudes are shifted
+     * by 360 degrees, so it is tested as one shape east of 180 and its box wraps like a radius search.
+     *
+     * @param latitudes the latitudes of the polygon vertices
+     * @param longitudes the longitudes of the polygon vertices
+     * @param limit the maximum number of points to return
+     * @return up to {@code limit} points inside the polygon
+     */
+    public List<GeoPoint> withinPolygon(double[] latitudes, double[] longitudes, int limit) {
+        boolean crossesAntimeridian = false;
+        for (int i = 0, j = longitudes.length - 1; i < longitudes.length; j = i++) {
+            crossesAntimeridian |= Math.abs(longitudes[i] - longitudes[j]) > 180;
+        }
+        double[] unwrapped = longitudes;
+        if (crossesAntimeridian) {
+            unwrapped = longitudes.clone();
+            for (int i = 0; i < unwrapped.length; i++) {
+                if (unwrapped[i] < 0) {
+                    unwrapped[i] += 360;
+                }
+            }
+        }
+        double minLat = 90, maxLat = -90, minLon = 360, maxLon = -180;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, unwrapped[i]);
+            maxLon = Math.max(maxLon, unwrapped[i]);
+        }
+        boolean shift = crossesAntimeridian;
+        double[] polygonLongitudes = unwrapped;
+        List<GeoPoint> results = new ArrayList<>();
+        PointVisitor visitor = (id, lat, lon) -> {
+            if (containsPoint(latitudes, polygonLongitudes, lat, shift && lon < 0 ? lon + 360 : lon)) {
+                results.add(new GeoPoint(id, lat, lon, null));
+            }
+            return results.size() < limit;
+        };
+        lock.readLock().lock();
+        try {
+            scanWrapping(minLat, minLon, maxLat, maxLon, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    private boolean scanWrapping(double minLat, double minLon, double maxLat, double maxLon, PointVisitor visitor) {
+        if (minLon < -180) {
+            return scan(minLat, minLon + 360, maxLat, 180, visitor) && scan(minLat, -180, maxLat, maxLon, visitor);
+        }
+        if (maxLon > 180) {
+            return scan(minLat, minLon, maxLat, 180, visitor) && scan(minLat, -180, maxLat, maxLon - 360, visitor);
+        }
+        return scan(minLat, minLon, maxLat, maxLon, visitor);
+    }
+
+    /**
+     * Visits every point inside the box (minLon &lt;= maxLon). Must be called with the read lock held.
+     *
+     * @return false if the visitor asked to stop
+     */
+    private boolean scan(double minLat, double minLon, double maxLat, double maxLon, PointVisitor visitor) {
+        int fromLatCell = latitudeCell(minLat);
+        int toLatCell = latitudeCell(maxLat);
+        int fromLonCell = longitudeCell(minLon);
+        int toLonCell = longitudeCell(maxLon);
+        long fineCellCount = (long) (toLatCell - fromLatCell + 1) * (toLonCell - fromLonCell + 1);
+
+        if (fineCellCount <= MAX_FINE_CELL_LOOKUPS) {
+            for (int latCell = fromLatCell; latCell <= toLatCell; latCell++) {
+                for (int lonCell = fromLonCell; lonCell <= toLonCell; lonCell++) {
+                    Cell cell = cells.get(cellKey(latCell, lonCell));
+                    if (cell != null && !cell.visit(minLat, minLon, maxLat, maxLon, visitor)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Wide box: walk the occupied fine cells of each overlapping coarse cell
+        for (int coarseLat = fromLatCell / CELLS_PER_DEGREE; coarseLat <= toLatCell / CELLS_PER_DEGREE; coarseLat++) {
+            for (int coarseLon = fromLonCell / CELLS_PER_DEGREE; coarseLon <= toLonCell / CELLS_PER_DEGREE; coarseLon++) {
+                List<Long> fineKeys = coarseCells.get(coarseKey(coarseLat, coarseLon));
+                if (fineKeys == null) {
+                    continue;
+                }
+                for (Long key : fineKeys) {
+                    int latCell = (int) (key / LON_CELLS);
+                    int lonCell = (int) (key % LON_CELLS);
+                    if (latCell < fromLatCell || latCell > toLatCell || lonCell < fromLonCell || lonCell > toLonCell) {
+                        continue;
+                    }
+                    if (!cells.get(key).visit(minLat, minLon, maxLat, maxLon, visitor)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Even-odd ray casting point-in-polygon test.
+     */
+    static boolean containsPoint(double[] latitudes, double[] longitudes, double lat, double lon) {
+        boolean inside = false;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            if ((latitudes[i] > lat) != (latitudes[j] > lat)
+                    && lon < (longitudes[j] - longitudes[i]) * (lat - latitudes[i]) / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Great-circle distance between two points in kilometres.
+     */
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    private static int latitudeCell(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90) * CELLS_PER_DEGREE), 180 * CELLS_PER_DEGREE - 1);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return Math.min((int) Math.floor((longitude + 180) * CELLS_PER_DEGREE), LON_CELLS - 1);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return (long) latCell * LON_CELLS + lonCell;
+    }
+
+    private static long coarseKey(int coarseLat, int coarseLon) {
+        return (long) coarseLat * 360 + coarseLon;
+    }
+
+    private static long coarseKeyOf(long cellKey) {
+        int latCell = (int) (cellKey / LON_CELLS);
+        int lonCell = (int) (cellKey % LON_CELLS);
+        return coarseKey(latCell / CELLS_PER_DEGREE, lonCell / CELLS_PER_DEGREE);
+    }
+
+    /**
+     * Receives the points found by a scan.
+     */
+    @FunctionalInterface
+    private interface PointVisitor {
+        /**
+         * @return false to stop the scan
+         */
+        boolean visit(long id, double latitude, double longitude);
+    }
+
+    /**
+     * One grid cell; its points are kept in parallel primitive arrays.
+     */
+    private static final class Cell {
+        private final long key;
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        Cell(long key) {
+            this.key = key;
+        }
+
+        void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    latitudes[i] = latitudes[size];
+                    longitudes[i] = longitudes[size];
+                    return;
+                }
+            }
+        }
+
+        boolean visit(double minLat, double minLon, double maxLat, double maxLon, PointVisitor visitor) {
+            for (int i = 0; i < size; i++) {
+                double lat = latitudes[i];
+                double lon = longitudes[i];
+                if (lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon
+                        && !visitor.visit(ids[i], lat, lon)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Cell [key=" + key + ", size=" + size + "]";
+        }
+    }
+}
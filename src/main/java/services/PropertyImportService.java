@@ -0,0 +1,543 @@
+package com.realestate.app.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.app.models.ImportJob;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Service class that runs bulk property imports from CSV or NDJSON.
+ * <p>
+ * An upload is spooled to a temporary file and processed in the background, one job at a time.
+ * The job thread splits the file into chunks of records, which are parsed and validated in
+ * parallel on a pool sized to the CPU count. Valid rows are persisted with JDBC batching and
+ * committed every {@code commit-interval} rows. If a commit fails, that interval is retried
+ * row by row, so one bad row is reported without losing its neighbours. Rows that fail to
+ * parse, validate or insert are recorded on the job with their line number.
+ */
+@Service
+public class PropertyImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyImportService.class);
+
+    /**
+     * Finished jobs are forgotten after this long.
+     */
+    static final Duration JOB_RETENTION = Duration.ofHours(24);
+
+    /**
+     * CSV columns that must be present in the header; names are matched ignoring case and underscores.
+     */
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "price", "propertytype", "status",
+        "address", "city", "state", "zipcode");
+
+    @Value("${realestate.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${realestate.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${realestate.import.commit-interval:5000}")
+    private int commitInterval;
+
+    @Value("${realestate.import.parse-threads:0}")
+    private int parseThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(daemonThreads("property-import"));
+
+    private volatile ExecutorService parseExecutor;
+
+    /**
+     * Accepts an import. The input is copied to a temporary file before this method returns,
+     * and the rows are imported in the background.
+     *
+     * @param format the format of the input
+     * @param input the rows to import
+     * @return the queued job, whose progress can be polled with {@link #findJob(String)}
+     * @throws IOException if the input cannot be spooled
+     */
+    public ImportJob submit(ExportService.Format format, InputStream input) throws IOException {
+        evictFinishedJobs();
+        Path file = Files.createTempFile("property-import-", "." + format.getExtension());
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format.name());
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> run(job, format, file));
+        return job;
+    }
+
+    /**
+     * Looks up an import job.
+     *
+     * @param id the ID of the job
+     * @return the job, if it is known
+     */
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ImportJob job, ExportService.Format format, Path file) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RecordReader records = new RecordReader(reader, format == ExportService.Format.CSV);
+            Map<String, Integer> columns = null;
+            if (format == ExportService.Format.CSV) {
+                String header = records.next();
+                if (header == null) {
+                    throw new IllegalArgumentException("CSV input has no header row");
+                }
+                columns = csvColumns(header);
+                records.takeLineNumbers();
+            }
+            importRecords(job, records, columns);
+            job.complete();
+            log.info("Property import {} finished: {} imported, {} rejected, {} rows/s", job.getId(),
+                job.getRowsImported(), job.getRowsFailed(), job.getRowsPerSecond());
+        } catch (Exception e) {
+            log.error("Property import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Reads chunks of records and hands them to the parse pool, keeping a bounded number of
+     * chunks in flight, and writes each parsed chunk as soon as it is ready.
+     */
+    private void importRecords(ImportJob job, RecordReader records, Map<String, Integer> columns)
+            throws IOException, InterruptedException, ExecutionException {
+        ExecutorService parsers = parseExecutor();
+        CompletionService<ParsedChunk> parsed = new ExecutorCompletionService<>(parsers);
+        int maxInFlight = Math.max(2, parseThreadCount() * 2);
+        int inFlight = 0;
+        List<ParsedRow> pending = new ArrayList<>(commitInterval);
+
+        while (true) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String record;
+            while (chunk.size() < chunkSize && (record = records.next()) != null) {
+                chunk.add(record);
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            job.addRowsRead(chunk.size());
+            long[] lines = records.takeLineNumbers();
+            parsed.submit(() -> parseChunk(chunk, lines, columns));
+            inFlight++;
+            if (inFlight == maxInFlight) {
+                write(job, parsed.take().get(), pending);
+                inFlight--;
+            }
+        }
+        while (inFlight > 0) {
+            write(job, parsed.take().get(), pending);
+            inFlight--;
+        }
+        if (!pending.isEmpty()) {
+            commit(job, pending);
+        }
+    }
+
+    private void write(ImportJob job, ParsedChunk chunk, List<ParsedRow> pending) {
+        for (ImportJob.RowError error : chunk.errors) {
+            job.addRowError(error.getLine(), error.getMessage());
+        }
+        for (ParsedRow row : chunk.rows) {
+            pending.add(row);
+            if (pending.size() >= commitInterval) {
+                commit(job, pending);
+            }
+        }
+    }
+
+    /**
+     * Persists the pending rows in one transaction, flushing every {@code batch-size} rows so Hibernate
+     * sends them as JDBC batches. If the transaction fails, the rows are retried one per transaction.
+     */
+    private void commit(ImportJob job, List<ParsedRow> pending) {
+        try {
+            persist(pending);
+            job.addRowsImported(pending.size());
+        } catch (RuntimeException e) {
+            log.debug("Import batch failed, retrying {} rows individually", pending.size(), e);
+            for (ParsedRow row : pending) {
+                try {
+                    row.property.setId(null);
+                    persist(List.of(row));
+                    job.addRowsImported(1);
+                } catch (RuntimeException rowFailure) {
+                    job.addRowError(row.line, "Could not be saved: " + rootMessage(rowFailure));
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private void persist(List<ParsedRow> rows) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int i = 0; i < rows.size(); i++) {
+                // The service's save path joins this transaction, so the rows still go out in JDBC batches
+                propertyService.createProperty(rows.get(i).property);
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private ParsedChunk parseChunk(List<String> records, long[] lines, Map<String, Integer> columns) {
+        ParsedChunk chunk = new ParsedChunk();
+        for (int i = 0; i < records.size(); i++) {
+            String record = records.get(i);
+            try {
+                Property property = columns == null ? parseJson(record) : parseCsv(record, columns);
+                String problem = validate(property);
+                if (problem == null) {
+                    chunk.rows.add(new ParsedRow(lines[i], property));
+                } else {
+                    chunk.errors.add(new ImportJob.RowError(lines[i], problem));
+                }
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                chunk.errors.add(new ImportJob.RowError(lines[i], e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    private Property parseJson(String record) throws JsonProcessingException {
+        Property property = objectMapper.readValue(record, Property.class);
+        property.setId(null);
+        return property;
+    }
+
+    private static Property parseCsv(String record, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(record);
+        Property property = new Property();
+        for (Map.Entry<String, Integer> column : columns.entrySet()) {
+            String value = column.getValue() < fields.size() ? fields.get(column.getValue()) : null;
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            switch (column.getKey()) {
+                case "title" -> property.setTitle(value);
+                case "description" -> property.setDescription(value);
+                case "price" -> property.setPrice(parseNumber(column.getKey(), value, BigDecimal::new));
+                case "propertytype" -> property.setPropertyType(parseEnum(PropertyType.class, value));
+                case "status" -> property.setStatus(parseEnum(PropertyStatus.class, value));
+                case "squarefeet" -> property.setSquareFeet(parseNumber(column.getKey(), value, Integer::valueOf));
+                case "bedrooms" -> property.setBedrooms(parseNumber(column.getKey(), value, Integer::valueOf));
+                case "bathrooms" -> property.setBathrooms(parseNumber(column.getKey(), value, Double::valueOf));
+                case "address" -> property.setAddress(value);
+                case "city" -> property.setCity(value);
+                case "state" -> property.setState(value);
+                case "zipcode" -> property.setZipCode(value);
+                case "latitude" -> property.setLatitude(parseNumber(column.getKey(), value, Double::valueOf));
+                case "longitude" -> property.setLongitude(parseNumber(column.getKey(), value, Double::valueOf));
+                case "thumbnailurl" -> property.setThumbnailUrl(value);
+                default -> {
+                    // Unknown and generated columns (id, timestamps) are ignored
+                }
+            }
+        }
+        return property;
+    }
+
+    private static <T> T parseNumber(String column, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + " '" + value + "'");
+        }
+    }
+
+    /**
+     * Checks the constraints of the properties table, so invalid rows are rejected before they reach the database.
+     *
+     * @return a description of the first problem found, or {@code null} if the property is valid
+     */
+    static String validate(Property property) {
+        if (isBlank(property.getTitle())) {
+            return "title is required";
+        }
+        if (property.getPrice() == null || property.getPrice().signum() < 0) {
+            return "price is required and must not be negative";
+        }
+        if (property.getPropertyType() == null) {
+            return "propertyType is required";
+        }
+        if (property.getStatus() == null) {
+            return "status is required";
+        }
+        if (isBlank(property.getAddress()) || isBlank(property.getCity()) || isBlank(property.getState())
+                || isBlank(property.getZipCode())) {
+            return "address, city, state and zipCode are required";
+        }
+        if (isNegative(property.getSquareFeet()) || isNegative(property.getBedrooms()) || isNegative(property.getBathrooms())) {
+            return "squareFeet, bedrooms and bathrooms must not be negative";
+        }
+        if (property.getLatitude() != null && (property.getLatitude() < -90 || property.getLatitude() > 90)) {
+            return "latitude must be between -90 and 90";
+        }
+        if (property.getLongitude() != null && (property.getLongitude() < -180 || property.getLongitude() > 180)) {
+            return "longitude must be between -180 and 180";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isNegative(Number value) {
+        return value != null && value.doubleValue() < 0;
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Splits one CSV record into fields, handling quoted fields with embedded delimiters,
+     * doubled quotes and line breaks (RFC 4180).
+     */
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private int parseThreadCount() {
+        return parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private ExecutorService parseExecutor() {
+        if (parseExecutor == null) {
+            synchronized (this) {
+                if (parseExecutor == null) {
+                    parseExecutor = Executors.newFixedThreadPool(parseThreadCount(), daemonThreads("property-import-parser"));
+                }
+            }
+        }
+        return parseExecutor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        if (parseExecutor != null) {
+            parseExecutor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Reads whole records from the input, tracking the line each one starts on. NDJSON records are
+     * single lines; a CSV record continues onto the next line while a quoted field is open.
+     */
+    private static final class RecordReader {
+        private final BufferedReader reader;
+        private final boolean csv;
+        private long line;
+        private final List<Long> lineNumbers = new ArrayList<>();
+
+        RecordReader(BufferedReader reader, boolean csv) {
+            this.reader = reader;
+            this.csv = csv;
+        }
+
+        /**
+         * Skips blank lines, which are neither records nor counted as rows read.
+         *
+         * @return the next record, or {@code null} at the end of the input
+         */
+        String next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            lineNumbers.add(line);
+            if (!csv || !hasOpenQuote(text)) {
+                return text;
+            }
+            StringBuilder record = new StringBuilder(text);
+            boolean open = true;
+            while (open && (text = reader.readLine()) != null) {
+                line++;
+                record.append('\n').append(text);
+                open = hasOpenQuote(record);
+            }
+            return record.toString();
+        }
+
+        /**
+         * @return the starting line numbers of the records read since the previous call
+         */
+        long[] takeLineNumbers() {
+            long[] numbers = lineNumbers.stream().mapToLong(Long::longValue).toArray();
+            lineNumbers.clear();
+            return numbers;
+        }
+
+        private static boolean hasOpenQuote(CharSequence text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes % 2 == 1;
+        }
+    }
+
+    private static final class ParsedRow {
+        final long line;
+        final Property property;
+
+        ParsedRow(long line, Property property) {
+            this.line = line;
+            this.property = property;
+        }
+    }
+
+    private static final class ParsedChunk {
+        final List<ParsedRow> rows = new ArrayList<>();
+        final List<ImportJob.RowError> errors = new ArrayList<>();
+    }
+}
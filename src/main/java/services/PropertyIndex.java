@@ -0,0 +1,54 @@
+package com.realestate.app.services;
+
+import java.util.Collection;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+
+/**
+ * An in-memory index over properties that is kept in sync with property writes.
+ * Implementations are rebuilt from the database on startup and updated after each
+ * property write commits, both through the {@link PropertyIndexManager}.
+ * Implementations must be safe for concurrent use.
+ */
+public interface PropertyIndex {
+
+    /**
+     * Adds the given property to the index, replacing any previous entry with the same ID.
+     *
+     * @param property the property to index
+     */
+    void index(Property property);
+
+    /**
+     * Removes the property with the given ID from the index, if present.
+     *
+     * @param id the ID of the property to remove
+     */
+    void remove(Long id);
+
+    /**
+     * Applies a status change made by a set-based UPDATE, which does not load the properties.
+     * Indexes that hold the status must override this; the default ignores the change.
+     *
+     * @param ids the IDs of the properties whose status changed
+     * @param status the new status
+     */
+    default void statusChanged(Collection<Long> ids, PropertyStatus status) {
+    }
+
+    /**
+     * Called before the startup rebuild loads the whole table, which may call {@link #index(Property)}
+     * from several threads. Indexes that maintain derived data on every write may defer it until
+     * {@link #endBulkLoad()}.
+     */
+    default void beginBulkLoad() {
+    }
+
+    /**
+     * Called once the startup rebuild has loaded the whole table, before writes made during the
+     * rebuild are replayed.
+     */
+    default void endBulkLoad() {
+    }
+}
@@ -0,0 +1,181 @@
+package com.realestate.app.services;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.realestate.app.exceptionHandlers.IndexNotReadyException;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.repositories.PropertyRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Keeps every {@link PropertyIndex} in sync with the properties table.
+ * Indexes are rebuilt from the database once the application is ready, and each
+ * property write is applied to them after its transaction commits, so a rolled back
+ * write never becomes visible in memory.
+ */
+@Component
+public class PropertyIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyIndexManager.class);
+
+    @Autowired
+    private List<PropertyIndex> indexes;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean ready;
+
+    private volatile boolean rebuilding;
+
+    /**
+     * IDs written while a rebuild is streaming the table; they are re-read once it finishes,
+     * because the rebuild may have indexed a row as it was before the write. A writer records
+     * its ID before applying the write, so a write that sees the rebuild still running is
+     * re-read even if the rebuild finishes while the write is being applied.
+     */
+    private final Set<Long> writtenDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Applies a created or updated property to every index once the current transaction commits.
+     *
+     * @param property the saved property
+     */
+    public void propertySaved(Property property) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (rebuilding) {
+                writtenDuringRebuild.add(property.getId());
+            }
+            for (PropertyIndex index : indexes) {
+                index.index(property);
+            }
+        });
+    }
+
+    /**
+     * Removes a deleted property from every index once the current transaction commits.
+     *
+     * @param id the ID of the deleted property
+     */
+    public void propertyDeleted(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (rebuilding) {
+                writtenDuringRebuild.add(id);
+            }
+            for (PropertyIndex index : indexes) {
+                index.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Applies a set-based status change to every index once the current transaction commits.
+     *
+     * @param ids the IDs of the properties whose status changed
+     * @param status the new status
+     */
+    public void propertyStatusesChanged(List<Long> ids, PropertyStatus status) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (rebuilding) {
+                writtenDuringRebuild.addAll(ids);
+            }
+            for (PropertyIndex index : indexes) {
+                index.statusChanged(ids, status);
+            }
+        });
+    }
+
+    /**
+     * @return true once the indexes have been fully built from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Fails fast when a request needs the indexes before the startup rebuild has finished.
+     *
+     * @throws IndexNotReadyException if the indexes are still being built
+     */
+    public void requireReady() {
+        if (!ready) {
+            throw new IndexNotReadyException("Property indexes are still loading, please retry shortly.");
+        }
+    }
+
+    /**
+     * Rebuilds every index from the properties table. The ID range is split into partitions
+     * that are streamed concurrently, each in its own read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        indexes.forEach(PropertyIndex::beginBulkLoad);
+        long loaded = IdRangeLoader.load(propertyRepository.findIdRange(), "property indexes", this::loadRange);
+        indexes.forEach(PropertyIndex::endBulkLoad);
+        rebuilding = false;
+        resync();
+        ready = true;
+        log.info("Built {} property indexes over {} properties in {} ms", indexes.size(), loaded,
+            System.currentTimeMillis() - started);
+    }
+
+    private long loadRange(long fromId, long toId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            long count = 0;
+            try (Stream<Property> rows = propertyRepository.findByIdBetween(fromId, toId)) {
+                Iterator<Property> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Property property = iterator.next();
+                    for (PropertyIndex index : indexes) {
+                        index.index(property);
+                    }
+                    entityManager.detach(property);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Re-reads every ID written during the rebuild, removing each one before it is read so an ID
+     * added by a writer meanwhile is picked up by a later pass instead of being cleared unread.
+     */
+    private void resync() {
+        while (!writtenDuringRebuild.isEmpty()) {
+            for (Iterator<Long> ids = writtenDuringRebuild.iterator(); ids.hasNext(); ) {
+                Long id = ids.next();
+                ids.remove();
+                propertyRepository.findById(id).ifPresentOrElse(
+                    property -> indexes.forEach(index -> index.index(property)),
+                    () -> indexes.forEach(index -> index.remove(id)));
+            }
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.realestate.app.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+
+/**
+ * Sorted in-memory index of property prices, answering price-range queries without the database.
+ * Entries are {@code (price in cents, property ID)} pairs kept in two parallel {@code long[]} arrays
+ * sorted by price and then ID, so a range is located with two binary searches. Writes go to small
+ * sorted delta sets of added and removed entries, which are merged into the arrays once they grow
+ * past a fraction of the index; queries merge the arrays with the deltas on the fly. A page deep
+ * into a range is also found by binary search, so its cost does not grow with its offset.
+ */
+@Component
+public class PropertyPriceIndex implements PropertyIndex {
+
+    /**
+     * The deltas are merged into the base arrays once they hold more than this many entries
+     * or more than an eighth of the base, whichever is larger.
+     */
+    private static final int MIN_MERGE_THRESHOLD = 4096;
+
+    private long[] baseCents = new long[0];
+    private long[] baseIds = new long[0];
+
+    /**
+     * Entries added since the last merge.
+     */
+    private final NavigableSet<Entry> added = new TreeSet<>();
+
+    /**
+     * Base entries deleted or repriced since the last merge.
+     */
+    private final NavigableSet<Entry> removed = new TreeSet<>();
+
+    private final Map<Long, Long> centsById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        lock.writeLock().lock();
+        try {
+            Long previous = property.getPrice() == null
+                ? centsById.remove(property.getId())
+                : centsById.put(property.getId(), PropertyCatalog.toCents(property.getPrice()));
+            if (previous != null) {
+                removeEntry(new Entry(previous, property.getId()));
+            }
+            if (property.getPrice() != null) {
+                Entry entry = new Entry(PropertyCatalog.toCents(property.getPrice()), property.getId());
+                if (!removed.remove(entry)) {
+                    added.add(entry);
+                }
+            }
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Long previous = centsById.remove(id);
+            if (previous != null) {
+                removeEntry(new Entry(previous, id));
+                mergeIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        if (!added.remove(entry)) {
+            removed.add(entry);
+        }
+    }
+
+    private void mergeIfNeeded() {
+        if (added.size() + removed.size() <= Math.max(MIN_MERGE_THRESHOLD, baseCents.length / 8)) {
+            return;
+        }
+        int size = baseCents.length - removed.size() + added.size();
+        long[] cents = new long[size];
+        long[] ids = new long[size];
+        int n = 0;
+        Cursor cursor = new Cursor(0, baseCents.length, added, false);
+        while (cursor.hasNext()) {
+            cursor.next();
+            cents[n] = cursor.cents;
+            ids[n] = cursor.id;
+            n++;
+        }
+        baseCents = cents;
+        baseIds = ids;
+        added.clear();
+        removed.clear();
+    }
+
+    /**
+     * Counts the properties priced within the given bounds.
+     *
+     * @param minCents the lower bound in cents (inclusive), or {@link Long#MIN_VALUE} for none
+     * @param maxCents the upper bound in cents (inclusive), or {@link Long#MAX_VALUE} for none
+     * @return the number of properties in the range
+     */
+    public long count(long minCents, long maxCents) {
+        if (minCents > maxCents) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            Entry from = new Entry(minCents, Long.MIN_VALUE);
+            Entry to = new Entry(maxCents, Long.MAX_VALUE);
+            return (long) upperBound(maxCents) - lowerBound(minCents)
+                - removed.subSet(from, true, to, true).size()
+                + added.subSet(from, true, to, true).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the IDs of the properties priced within the given bounds,
+     * ordered by price and then ID.
+     *
+     * @param minCents the lower bound in cents (inclusive), or {@link Long#MIN_VALUE} for none
+     * @param maxCents the upper bound in cents (inclusive), or {@link Long#MAX_VALUE} for none
+     * @param offset the number of matching entries to skip
+     * @param limit the maximum number of IDs to return
+     * @param descending whether to walk the range from the highest price down
+     * @return the IDs of the page, in order
+     */
+    public long[] range(long minCents, long maxCents, long offset, int limit, boolean descending) {
+        if (minCents > maxCents) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            Entry min = new Entry(minCents, Long.MIN_VALUE);
+            Entry max = new Entry(maxCents, Long.MAX_VALUE);
+            NavigableSet<Entry> addedInRange = added.subSet(min, true, max, true);
+            int from = lowerBound(minCents);
+            int to = upperBound(maxCents);
+            Cursor cursor;
+            if (offset == 0) {
+                cursor = new Cursor(from, to, addedInRange, descending);
+            } else {
+                Entry[] addedArray = addedInRange.toArray(new Entry[0]);
+                Entry[] removedArray = removed.subSet(min, true, max, true).toArray(new Entry[0]);
+                long total = (long) to - from - removedArray.length + addedArray.length;
+                if (offset >= total) {
+                    return new long[0];
+                }
+                // Seek the first entry of the page, then walk the page from it
+                Entry first = seek(from, to, addedInRange, addedArray, removedArray,
+                    descending ? total - 1 - offset : offset);
+                cursor = descending
+                    ? new Cursor(from, search(first, false), addedInRange.headSet(first, true), true)
+                    : new Cursor(search(first, true), to, addedInRange.tailSet(first, true), false);
+            }
+            long[] page = new long[limit];
+            int n = 0;
+            while (n < limit && cursor.hasNext()) {
+                cursor.next();
+                page[n++] = cursor.id;
+            }
+            return n == limit ? page : Arrays.copyOf(page, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the entry at a position of a range in ascending order, without walking the entries before it.
+     * The position of a base entry in the range is its distance from the start of the range, less the
+     * removed entries before it, plus the added entries before it, both counted by binary search over the
+     * deltas of the range. Binary search over the base finds the last base entry at or before the position;
+     * at most that entry and the added entries up to the next base entry are walked from there.
+     *
+     * @param from the first base index of the range
+     * @param to the base index past the range
+     * @param addedInRange the added entries of the range
+     * @param addedArray the same entries, in order
+     * @param removedArray the removed entries of the range, in order
+     * @param position the position, below the size of the range
+     * @return the entry at the position
+     */
+    private Entry seek(int from, int to, NavigableSet<Entry> addedInRange, Entry[] addedArray, Entry[] removedArray,
+            long position) {
+        Cursor cursor;
+        long before;
+        if (from == to || positionOf(from, from, addedArray, removedArray) > position) {
+            cursor = new Cursor(from, to, addedInRange, false);
+            before = 0;
+        } else {
+            int low = from;
+            int high = to - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (positionOf(from, mid, addedArray, removedArray) <= position) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            before = positionOf(from, low, addedArray, removedArray);
+            cursor = new Cursor(low, to, addedInRange.tailSet(new Entry(baseCents[low], baseIds[low]), true), false);
+        }
+        for (; before < position; before++) {
+            cursor.next();
+        }
+        cursor.next();
+        return new Entry(cursor.cents, cursor.id);
+    }
+
+    /**
+     * @return the number of entries of the range before the base entry at the given index
+     */
+    private long positionOf(int from, int index, Entry[] addedArray, Entry[] removedArray) {
+        Entry entry = new Entry(baseCents[index], baseIds[index]);
+        return (long) index - from - countBelow(removedArray, entry) + countBelow(addedArray, entry);
+    }
+
+    /**
+     * @return the number of entries of the sorted array below the given one
+     */
+    private static int countBelow(Entry[] entries, Entry entry) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].compareTo(entry) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Converts an inclusive lower price bound to cents, rounding up.
+     *
+     * @param min the lower bound, or {@code null} for none
+     * @return the bound in cents, or {@link Long#MIN_VALUE} for none
+     */
+    public static long lowerBoundCents(BigDecimal min) {
+        return min == null ? Long.MIN_VALUE : min.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    /**
+     * Converts an inclusive upper price bound to cents, rounding down.
+     *
+     * @param max the upper bound, or {@code null} for none
+     * @return the bound in cents, or {@link Long#MAX_VALUE} for none
+     */
+    public static long upperBoundCents(BigDecimal max) {
+        return max == null ? Long.MAX_VALUE : max.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    /**
+     * @return the number of indexed properties
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return centsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the index of the first base entry priced at or above the given cents
+     */
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = baseCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (baseCents[mid] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first base entry priced above the given cents
+     */
+    private int upperBound(long cents) {
+        int low = 0;
+        int high = baseCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (baseCents[mid] <= cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first base entry at or above the given one if inclusive, otherwise above it
+     */
+    private int search(Entry entry, boolean inclusive) {
+        int low = 0;
+        int high = baseCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = Entry.compare(baseCents[mid], baseIds[mid], entry.cents, entry.id);
+            if (comparison < 0 || (!inclusive && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Walks a slice of the base arrays merged with the added entries, skipping removed base entries.
+     */
+    private final class Cursor {
+        private int next;
+        private final int end;
+        private final int step;
+        private final Iterator<Entry> deltas;
+        private Entry delta;
+        long cents;
+        long id;
+
+        Cursor(int from, int to, NavigableSet<Entry> added, boolean descending) {
+            this.next = descending ? to - 1 : from;
+            this.end = descending ? from - 1 : to;
+            this.step = descending ? -1 : 1;
+            this.deltas = descending ? added.descendingIterator() : added.iterator();
+            this.delta = deltas.hasNext() ? deltas.next() : null;
+            skipRemoved();
+        }
+
+        boolean hasNext() {
+            return next != end || delta != null;
+        }
+
+        void next() {
+            boolean takeBase = next != end && (delta == null
+                || step * Entry.compare(baseCents[next], baseIds[next], delta.cents, delta.id) < 0);
+            if (takeBase) {
+                cents = baseCents[next];
+                id = baseIds[next];
+                next += step;
+                skipRemoved();
+            } else {
+                cents = delta.cents;
+                id = delta.id;
+                delta = deltas.hasNext() ? deltas.next() : null;
+            }
+        }
+
+        private void skipRemoved() {
+            while (next != end && !removed.isEmpty() && removed.contains(new Entry(baseCents[next], baseIds[next]))) {
+                next += step;
+            }
+        }
+    }
+
+    /**
+     * A price and property ID pair, ordered by price and then ID.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final long cents;
+        final long id;
+
+        Entry(long cents, long id) {
+            this.cents = cents;
+            this.id = id;
+        }
+
+        static int compare(long cents, long id, long otherCents, long otherId) {
+            int byCents = Long.compare(cents, otherCents);
+            return byCents != 0 ? byCents : Long.compare(id, otherId);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return compare(cents, id, other.cents, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry entry && entry.cents == cents && entry.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(cents) * 31 + Long.hashCode(id);
+        }
+    }
+}
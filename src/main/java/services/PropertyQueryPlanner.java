@@ -0,0 +1,379 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.PropertySearchCriteria;
+import com.realestate.app.repositories.PropertyRepository;
+import com.realestate.app.repositories.PropertySpecifications;
+
+/**
+ * Turns a {@link PropertySearchCriteria} into an executable search plan.
+ * The planner estimates the selectivity of every filter from cached column statistics,
+ * combines the filters most selective first, restricts sorting to indexed columns
+ * and decides whether an exact total count is affordable.
+ */
+@Component
+public class PropertyQueryPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyQueryPlanner.class);
+
+    /**
+     * How long column statistics are reused before being reloaded.
+     */
+    static final long STATISTICS_TTL_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * Above this estimated result size the exact COUNT query is skipped.
+     */
+    static final long COUNT_THRESHOLD = 50_000L;
+
+    /**
+     * Columns a search may be sorted by; each is the leading or trailing column of an index on properties.
+     */
+    static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "price", "createdAt", "bedrooms", "squareFeet");
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private volatile ColumnStatistics statistics;
+
+    /**
+     * Builds a plan for the given criteria and requested sort.
+     *
+     * @param criteria the search filters
+     * @param requestedSort the sort requested by the client, may be unsorted
+     * @return the search plan
+     * @throws IllegalArgumentException if the sort references a column that is not indexed
+     */
+    public Plan plan(PropertySearchCriteria criteria, Sort requestedSort) {
+        ColumnStatistics stats = statistics();
+        List<PlannedFilter> filters = new ArrayList<>();
+
+        if (criteria.getZipCode() != null) {
+            filters.add(new PlannedFilter("zipCode", stats.distinctSelectivity(stats.zipCodes),
+                PropertySpecifications.hasZipCode(criteria.getZipCode())));
+        }
+        if (criteria.getCity() != null) {
+            filters.add(new PlannedFilter("city", stats.valueSelectivity(stats.cityCounts, normalize(criteria.getCity())),
+                PropertySpecifications.inCity(criteria.getCity())));
+        }
+        if (criteria.getState() != null) {
+            filters.add(new PlannedFilter("state", stats.valueSelectivity(stats.stateCounts, normalize(criteria.getState())),
+                PropertySpecifications.inState(criteria.getState())));
+        }
+        if (criteria.getType() != null) {
+            filters.add(new PlannedFilter("propertyType", stats.valueSelectivity(stats.typeCounts, normalize(criteria.getType().name())),
+                PropertySpecifications.hasType(criteria.getType())));
+        }
+        if (criteria.getStatus() != null) {
+            filters.add(new PlannedFilter("status", stats.valueSelectivity(stats.statusCounts, normalize(criteria.getStatus().name())),
+                PropertySpecifications.hasStatus(criteria.getStatus())));
+        }
+        if (criteria.getMinPrice() != null || criteria.getMaxPrice() != null) {
+            filters.add(new PlannedFilter("price",
+                stats.rangeSelectivity(toDouble(criteria.getMinPrice()), toDouble(criteria.getMaxPrice()), stats.minPrice, stats.maxPrice),
+                PropertySpecifications.priceBetween(criteria.getMinPrice(), criteria.getMaxPrice())));
+        }
+        if (criteria.getMinBedrooms() != null || criteria.getMaxBedrooms() != null) {
+            filters.add(new PlannedFilter("bedrooms",
+                stats.rangeSelectivity(toDouble(criteria.getMinBedrooms()), toDouble(criteria.getMaxBedrooms()), stats.minBedrooms, stats.maxBedrooms),
+                PropertySpecifications.bedroomsBetween(criteria.getMinBedrooms(), criteria.getMaxBedrooms())));
+        }
+        if (criteria.getMinBathrooms() != null) {
+            filters.add(new PlannedFilter("bathrooms",
+                stats.rangeSelectivity(criteria.getMinBathrooms(), null, stats.minBathrooms, stats.maxBathrooms),
+                PropertySpecifications.minBathrooms(criteria.getMinBathrooms())));
+        }
+        if (criteria.getMinSquareFeet() != null || criteria.getMaxSquareFeet() != null) {
+            filters.add(new PlannedFilter("squareFeet",
+                stats.rangeSelectivity(toDouble(criteria.getMinSquareFeet()), toDouble(criteria.getMaxSquareFeet()), stats.minSquareFeet, stats.maxSquareFeet),
+                PropertySpecifications.squareFeetBetween(criteria.getMinSquareFeet(), criteria.getMaxSquareFeet())));
+        }
+
+        // Most selective filter first, so the leading predicate is the one that narrows the scan most
+        filters.sort(Comparator.comparingDouble(PlannedFilter::getSelectivity));
+
+        Specification<Property> specification = null;
+        double estimatedRows = stats.rowCount;
+        for (PlannedFilter filter : filters) {
+            specification = specification == null ? filter.getSpecification() : specification.and(filter.getSpecification());
+            estimatedRows *= filter.getSelectivity();
+        }
+
+        boolean priceOnly = filters.size() == 1 && "price".equals(filters.get(0).getField()) && criteria.getQ() == null;
+        if (priceOnly && requestedSort.isUnsorted()) {
+            // A bare price range reads naturally in price order, which the price index serves directly
+            requestedSort = Sort.by(Sort.Direction.ASC, "price");
+        }
+        Sort sort = indexedSort(requestedSort);
+        boolean priceIndexScan = priceOnly && isPriceOrder(sort);
+
+        Plan plan = new Plan(specification, sort, estimatedRows <= COUNT_THRESHOLD, estimatedRows, filters,
+            priceIndexScan);
+        log.debug("Planned property search {} -> {}", criteria, plan);
+        return plan;
+    }
+
+    /**
+     * Restricts the requested sort to indexed columns and appends the primary key as a tie breaker,
+     * so paging is stable and the database can walk an index instead of sorting. The tie breaker
+     * follows the direction of the leading order, so a descending sort walks the index backwards.
+     */
+    private Sort indexedSort(Sort requestedSort) {
+        for (Sort.Order order : requestedSort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort by '" + order.getProperty()
+                    + "'; sortable fields are " + SORTABLE_PROPERTIES);
+            }
+        }
+        if (requestedSort.getOrderFor("id") != null) {
+            return requestedSort;
+        }
+        Sort.Direction direction = requestedSort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        return requestedSort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * @return true if the sort is by price then ID in the same direction, the order of {@link PropertyPriceIndex}
+     */
+    private static boolean isPriceOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 2
+            && orders.get(0).getProperty().equals("price")
+            && orders.get(1).getProperty().equals("id")
+            && orders.get(0).getDirection() == orders.get(1).getDirection();
+    }
+
+    /**
+     * Returns the cached column statistics, reloading them once they are older than {@link #STATISTICS_TTL_MILLIS}.
+     */
+    private ColumnStatistics statistics() {
+        ColumnStatistics current = statistics;
+        if (current == null || System.currentTimeMillis() - current.loadedAt > STATISTICS_TTL_MILLIS) {
+            synchronized (this) {
+                current = statistics;
+                if (current == null || System.currentTimeMillis() - current.loadedAt > STATISTICS_TTL_MILLIS) {
+                    current = loadStatistics();
+                    statistics = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private ColumnStatistics loadStatistics() {
+        List<Object[]> rows = propertyRepository.findColumnStatistics();
+        Object[] row = rows.isEmpty() ? new Object[10] : rows.get(0);
+        ColumnStatistics stats = new ColumnStatistics(
+            toLong(row[0]), toLong(row[1]),
+            toDouble(row[2]), toDouble(row[3]),
+            toDouble(row[4]), toDouble(row[5]),
+            toDouble(row[6]), toDouble(row[7]),
+            toDouble(row[8]), toDouble(row[9]),
+            toCountMap(propertyRepository.countByCity()),
+            toCountMap(propertyRepository.countByState()),
+            toCountMap(propertyRepository.countByPropertyType()),
+            toCountMap(propertyRepository.countByStatus()));
+        log.debug("Loaded property column statistics for {} rows", stats.rowCount);
+        return stats;
+    }
+
+    private static Map<String, Long> toCountMap(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.merge(normalize(row[0].toString()), toLong(row[1]), Long::sum);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static Double toDouble(Object value) {
+        return value == null ? null : ((Number) value).doubleValue();
+    }
+
+    /**
+     * Snapshot of the column statistics used for selectivity estimates.
+     */
+    static final class ColumnStatistics {
+        final long rowCount;
+        final long zipCodes;
+        final Double minPrice;
+        final Double maxPrice;
+        final Double minBedrooms;
+        final Double maxBedrooms;
+        final Double minBathrooms;
+        final Double maxBathrooms;
+        final Double minSquareFeet;
+        final Double maxSquareFeet;
+        final Map<String, Long> cityCounts;
+        final Map<String, Long> stateCounts;
+        final Map<String, Long> typeCounts;
+        final Map<String, Long> statusCounts;
+        final long loadedAt = System.currentTimeMillis();
+
+        ColumnStatistics(long rowCount, long zipCodes, Double minPrice, Double maxPrice, Double minBedrooms,
+                Double maxBedrooms, Double minBathrooms, Double maxBathrooms, Double minSquareFeet,
+                Double maxSquareFeet, Map<String, Long> cityCounts, Map<String, Long> stateCounts,
+                Map<String, Long> typeCounts, Map<String, Long> statusCounts) {
+            this.rowCount = rowCount;
+            this.zipCodes = zipCodes;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.minBedrooms = minBedrooms;
+            this.maxBedrooms = maxBedrooms;
+            this.minBathrooms = minBathrooms;
+            this.maxBathrooms = maxBathrooms;
+            this.minSquareFeet = minSquareFeet;
+            this.maxSquareFeet = maxSquareFeet;
+            this.cityCounts = cityCounts;
+            this.stateCounts = stateCounts;
+            this.typeCounts = typeCounts;
+            this.statusCounts = statusCounts;
+        }
+
+        /**
+         * Fraction of rows holding the given value, from the exact per-value counts.
+         */
+        double valueSelectivity(Map<String, Long> counts, String value) {
+            if (rowCount == 0) {
+                return 1.0;
+            }
+            return Math.max(counts.getOrDefault(value, 0L), 1L) / (double) rowCount;
+        }
+
+        /**
+         * Fraction of rows matching an equality filter on a column with the given number of distinct values.
+         */
+        double distinctSelectivity(long distinctValues) {
+            return distinctValues <= 0 ? 1.0 : 1.0 / distinctValues;
+        }
+
+        /**
+         * Fraction of rows within [low, high], assuming values are spread uniformly between the column's min and max.
+         */
+        double rangeSelectivity(Double low, Double high, Double columnMin, Double columnMax) {
+            if (rowCount == 0 || columnMin == null || columnMax == null || columnMax <= columnMin) {
+                return 1.0;
+            }
+            double from = low == null ? columnMin : Math.max(low, columnMin);
+            double to = high == null ? columnMax : Math.min(high, columnMax);
+            double fraction = (to - from) / (columnMax - columnMin);
+            return Math.min(1.0, Math.max(fraction, 1.0 / rowCount));
+        }
+    }
+
+    /**
+     * One filter of a plan together with its estimated selectivity.
+     */
+    public static final class PlannedFilter {
+        private final String field;
+        private final double selectivity;
+        private final Specification<Property> specification;
+
+        PlannedFilter(String field, double selectivity, Specification<Property> specification) {
+            this.field = field;
+            this.selectivity = selectivity;
+            this.specification = specification;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        public Specification<Property> getSpecification() {
+            return specification;
+        }
+
+        @Override
+        public String toString() {
+            return field + "(" + String.format(Locale.ROOT, "%.4f", selectivity) + ")";
+        }
+    }
+
+    /**
+     * An executable property search: the combined predicate, the index-backed sort
+     * and whether an exact total count should be computed.
+     */
+    public static final class Plan {
+        private final Specification<Property> specification;
+        private final Sort sort;
+        private final boolean countTotal;
+        private final double estimatedRows;
+        private final List<PlannedFilter> filters;
+        private final boolean priceIndexScan;
+
+        Plan(Specification<Property> specification, Sort sort, boolean countTotal, double estimatedRows,
+                List<PlannedFilter> filters, boolean priceIndexScan) {
+            this.specification = specification;
+            this.sort = sort;
+            this.countTotal = countTotal;
+            this.estimatedRows = estimatedRows;
+            this.filters = filters;
+            this.priceIndexScan = priceIndexScan;
+        }
+
+        /**
+         * @return the combined predicate, or {@code null} when the search has no filters
+         */
+        public Specification<Property> getSpecification() {
+            return specification;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
+
+        public boolean isCountTotal() {
+            return countTotal;
+        }
+
+        public double getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        public List<PlannedFilter> getFilters() {
+            return filters;
+        }
+
+        /**
+         * @return true if the search is a bare price range in price order, answerable from {@link PropertyPriceIndex}
+         */
+        public boolean isPriceIndexScan() {
+            return priceIndexScan;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan [filters=" + filters + ", sort=" + sort + ", estimatedRows=" + Math.round(estimatedRows)
+                    + ", countTotal=" + countTotal + ", priceIndexScan=" + priceIndexScan + "]";
+        }
+    }
+}
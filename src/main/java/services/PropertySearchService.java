@@ -0,0 +1,297 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.realestate.app.models.PagedResult;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.PropertyFacets;
+import com.realestate.app.models.PropertySearchCriteria;
+import com.realestate.app.models.PropertySummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Service class that executes multi-criteria property searches.
+ * Each search is planned by the {@link PropertyQueryPlanner} and run as a single dynamically built query.
+ */
+@Service
+public class PropertySearchService {
+
+    /**
+     * Selects whole properties.
+     */
+    private static final View<Property> ENTITY = new View<>(Property.class, (root, cb) -> root, Property::getId);
+
+    /**
+     * Selects only the columns of a {@link PropertySummary}.
+     */
+    private static final View<PropertySummary> SUMMARY = new View<>(PropertySummary.class,
+        (root, cb) -> cb.construct(PropertySummary.class, root.get("id"), root.get("title"), root.get("price"),
+            root.get("city"), root.get("bedrooms"), root.get("bathrooms"), root.get("thumbnailUrl")),
+        PropertySummary::id);
+
+    @Autowired
+    private PropertyQueryPlanner queryPlanner;
+
+    @Autowired
+    private PropertyTextIndex propertyTextIndex;
+
+    @Autowired
+    private PropertyCatalog propertyCatalog;
+
+    @Autowired
+    private PropertyPriceIndex propertyPriceIndex;
+
+    @Autowired
+    private PropertyIndexManager propertyIndexManager;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Searches for properties matching every filter set on the criteria.
+     * When a free-text query is given, matches come from the in-memory text index and are
+     * ordered by relevance unless an explicit sort is requested.
+     *
+     * @param criteria the search filters
+     * @param pageable the requested page, page size and sort
+     * @return the requested page of matching properties
+     */
+    @Transactional(readOnly = true)
+    public PagedResult<Property> search(PropertySearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable, ENTITY);
+    }
+
+    /**
+     * Searches like {@link #search(PropertySearchCriteria, Pageable)}, but selects only the summary
+     * columns of the matching properties.
+     *
+     * @param criteria the search filters
+     * @param pageable the requested page, page size and sort
+     * @return the requested page of matching property summaries
+     */
+    @Transactional(readOnly = true)
+    public PagedResult<PropertySummary> searchSummaries(PropertySearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable, SUMMARY);
+    }
+
+    /**
+     * Answers a search from the {@link SearchResultCache} when it holds the IDs of the page;
+     * otherwise runs it and caches the IDs it returned. Either way the rows are read from the database.
+     */
+    private <T> PagedResult<T> search(PropertySearchCriteria criteria, Pageable pageable, View<T> view) {
+        int size = PropertyService.clampPageSize(pageable.getPageSize());
+        String key = SearchResultCache.searchKey(criteria, pageable.getPageNumber(), size, pageable.getSort());
+        SearchResultCache.CachedPage cached = searchResultCache.get(key);
+        if (cached != null) {
+            return new PagedResult<>(hydrate(cached.ids(), view), pageable.getPageNumber(), size, cached.total(),
+                cached.hasNext());
+        }
+        String tag = SearchResultCache.searchTag(criteria);
+        long generation = searchResultCache.generation(tag);
+        PagedResult<T> result = search(criteria, pageable, size, view);
+        searchResultCache.put(key, tag, generation, result.getContent().stream().map(view.id()).toList(),
+            result.getTotalElements(), result.isHasNext());
+        return result;
+    }
+
+    private <T> PagedResult<T> search(PropertySearchCriteria criteria, Pageable pageable, int size, View<T> view) {
+        PropertyQueryPlanner.Plan plan = queryPlanner.plan(criteria, pageable.getSort());
+        if (criteria.getQ() != null && !criteria.getQ().isBlank()) {
+            return searchText(criteria, plan, pageable, size, view);
+        }
+        if (plan.isPriceIndexScan() && propertyIndexManager.isReady()) {
+            return searchPriceRange(criteria, plan, pageable, size, view);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(view.type());
+        Root<Property> root = query.from(Property.class);
+        query.select(view.select().apply(root, cb));
+        applyFilters(plan.getSpecification(), root, query, cb);
+        query.orderBy(QueryUtils.toOrders(plan.getSort(), root, cb));
+
+        // Read one row past the page to learn whether another page follows; an offset past the
+        // largest int is past every row, so it is clamped rather than left to overflow
+        List<T> rows = entityManager.createQuery(query)
+            .setFirstResult((int) Math.min((long) pageable.getPageNumber() * size, Integer.MAX_VALUE))
+            .setMaxResults(size + 1)
+            .getResultList();
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+
+        Long total = null;
+        if (!hasNext && (!content.isEmpty() || pageable.getPageNumber() == 0)) {
+            // The last page tells us the total without a COUNT query
+            total = (long) pageable.getPageNumber() * size + content.size();
+        } else if (plan.isCountTotal()) {
+            total = count(plan.getSpecification());
+        }
+        return new PagedResult<>(content, pageable.getPageNumber(), size, total, hasNext);
+    }
+
+    /**
+     * Computes the facet counts for a search from the in-memory catalog, without querying the database.
+     * A free-text query restricts the counts to the properties matching it.
+     *
+     * @param criteria the search filters
+     * @return the facet counts
+     */
+    public PropertyFacets facets(PropertySearchCriteria criteria) {
+        propertyIndexManager.requireReady();
+        List<Long> matching = null;
+        if (criteria.getQ() != null && !criteria.getQ().isBlank()) {
+            matching = propertyTextIndex.search(criteria.getQ(), Integer.MAX_VALUE);
+        }
+        return propertyCatalog.facets(criteria, matching);
+    }
+
+    /**
+     * Finds the IDs of every property matching the criteria, without loading the properties.
+     * At least one filter or a free-text query must be set.
+     *
+     * @param criteria the search filters
+     * @return the IDs of the matching properties
+     * @throws IllegalArgumentException if no filter is set
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findIds(PropertySearchCriteria criteria) {
+        PropertyQueryPlanner.Plan plan = queryPlanner.plan(criteria, Sort.unsorted());
+        boolean text = criteria.getQ() != null && !criteria.getQ().isBlank();
+        if (!text && plan.getFilters().isEmpty()) {
+            throw new IllegalArgumentException("The filter must set at least one criterion");
+        }
+        if (text) {
+            propertyIndexManager.requireReady();
+            List<Long> matching = propertyTextIndex.search(criteria.getQ(), Integer.MAX_VALUE);
+            return plan.getSpecification() == null ? matching : propertyCatalog.filter(criteria, matching, Sort.unsorted());
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Property> root = query.from(Property.class);
+        query.select(root.<Long>get("id"));
+        applyFilters(plan.getSpecification(), root, query, cb);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Serves a free-text search: every text match is considered, the other filters are applied to
+     * them from the {@link PropertyCatalog}, and the total is exact. Without an explicit sort the page
+     * is cut from the matches in relevance order; with one, the catalog orders them. Only the page is
+     * read from the database.
+     */
+    private <T> PagedResult<T> searchText(PropertySearchCriteria criteria, PropertyQueryPlanner.Plan plan,
+            Pageable pageable, int size, View<T> view) {
+        propertyIndexManager.requireReady();
+        List<Long> matching = propertyTextIndex.search(criteria.getQ(), Integer.MAX_VALUE);
+        if (!matching.isEmpty() && (pageable.getSort().isSorted() || plan.getSpecification() != null)) {
+            // An explicit sort wins over relevance
+            matching = propertyCatalog.filter(criteria, matching,
+                pageable.getSort().isSorted() ? plan.getSort() : Sort.unsorted());
+        }
+
+        int from = (int) Math.min((long) pageable.getPageNumber() * size, matching.size());
+        long total = matching.size();
+        if (from == matching.size()) {
+            return new PagedResult<>(List.of(), pageable.getPageNumber(), size, total, false);
+        }
+        boolean hasNext = matching.size() - from > size;
+        List<T> content = hydrate(matching.subList(from, hasNext ? from + size : matching.size()), view);
+        return new PagedResult<>(content, pageable.getPageNumber(), size, total, hasNext);
+    }
+
+    /**
+     * Serves a bare price range from the {@link PropertyPriceIndex}: the index selects and counts
+     * the matching IDs, and only the requested page is loaded from the database.
+     */
+    private <T> PagedResult<T> searchPriceRange(PropertySearchCriteria criteria, PropertyQueryPlanner.Plan plan,
+            Pageable pageable, int size, View<T> view) {
+        long minCents = PropertyPriceIndex.lowerBoundCents(criteria.getMinPrice());
+        long maxCents = PropertyPriceIndex.upperBoundCents(criteria.getMaxPrice());
+        boolean descending = plan.getSort().getOrderFor("price").isDescending();
+        long[] ids = propertyPriceIndex.range(minCents, maxCents, (long) pageable.getPageNumber() * size, size + 1, descending);
+        boolean hasNext = ids.length > size;
+        List<Long> pageIds = new ArrayList<>(size);
+        for (int i = 0; i < Math.min(ids.length, size); i++) {
+            pageIds.add(ids[i]);
+        }
+        return new PagedResult<>(hydrate(pageIds, view), pageable.getPageNumber(), size,
+            propertyPriceIndex.count(minCents, maxCents), hasNext);
+    }
+
+    /**
+     * Loads the properties with the given IDs in one query, keeping the order of the IDs.
+     */
+    private <T> List<T> hydrate(List<Long> ids, View<T> view) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(view.type());
+        Root<Property> root = query.from(Property.class);
+        query.select(view.select().apply(root, cb));
+        query.where(root.get("id").in(ids));
+        Map<Long, T> byId = entityManager.createQuery(query).getResultList().stream()
+            .collect(Collectors.toMap(view.id(), Function.identity()));
+        List<T> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                content.add(row);
+            }
+        }
+        return content;
+    }
+
+    private long count(Specification<Property> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Property> root = query.from(Property.class);
+        query.select(cb.count(root));
+        applyFilters(specification, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applyFilters(Specification<Property> specification, Root<Property> root,
+            CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+
+    /**
+     * What a search selects for each matching property.
+     *
+     * @param type the type of the selected rows
+     * @param select builds the selection from the property root
+     * @param id reads the property ID of a selected row
+     */
+    private record View<T>(Class<T> type, BiFunction<Root<Property>, CriteriaBuilder, Selection<T>> select,
+            Function<T, Long> id) {
+    }
+}
@@ -1,16 +1,45 @@
 package com.realestate.app.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.app.config.CacheConfig;
+import com.realestate.app.exceptionHandlers.ResourceNotFoundException;
+import com.realestate.app.exceptionHandlers.VersionConflictException;
+import com.realestate.app.models.BulkStatusResult;
+import com.realestate.app.models.BulkStatusUpdate;
 import com.realestate.app.models.Property;
 import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.PropertySummary;
+import com.realestate.app.models.VersionStamp;
 import com.realestate.app.repositories.PropertyRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 
 /**
@@ -19,9 +48,56 @@ import jakarta.transaction.Transactional;
  */
 @Service
 public class PropertyService {
+
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Upper bound on the page size a client may request.
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Properties updated per statement and transaction by a bulk status change, bounding how long row locks are held.
+     */
+    static final int STATUS_CHUNK_SIZE = 1000;
+
+    /**
+     * Fields a merge patch may change; the ID, timestamps and version are maintained by the application.
+     */
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "price", "propertyType",
+        "status", "squareFeet", "bedrooms", "bathrooms", "address", "city", "state", "zipCode", "latitude", "longitude",
+        "thumbnailUrl");
+
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private PropertyIndexManager propertyIndexManager;
+
+    @Autowired
+    private PropertySearchService propertySearchService;
+
+    @Autowired
+    private PropertySimilarityIndex propertySimilarityIndex;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Creates and saves a new property.
      *
@@ -30,20 +106,41 @@ public class PropertyService {
      */
     @Transactional
     public Property createProperty(Property property) {
-        return propertyRepository.save(property);
+        Property savedProperty = propertyRepository.save(property);
+        propertyIndexManager.propertySaved(savedProperty);
+        return savedProperty;
     }
 
     /**
-     * Retrieves properties within a specified price range.
+     * Finds the available properties most similar to a property by price, square footage, bedrooms,
+     * bathrooms, type and location, using the in-memory {@link PropertySimilarityIndex}.
      *
-     * @param min the minimum price
-     * @param max the maximum price
-     * @return a list of properties within the given price range
+     * @param id the ID of the property
+     * @param limit the maximum number of properties, capped at {@link PropertySimilarityIndex#MAX_RESULTS}
+     * @return the summaries of the most similar properties, nearest first
+     * @throws ResourceNotFoundException if no property has the given ID
      */
-    public List<Property> findPropertiesByPriceRange(BigDecimal min, BigDecimal max) {
-        return propertyRepository.findByPriceBetween(min, max);
+    public List<PropertySummary> findSimilarProperties(Long id, int limit) {
+        propertyIndexManager.requireReady();
+        List<Long> ids = propertySimilarityIndex.similarTo(id, limit);
+        if (ids == null) {
+            throw new ResourceNotFoundException("Property not found with id: " + id);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PropertySummary> byId = propertyRepository.findSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(PropertySummary::id, Function.identity()));
+        List<PropertySummary> similar = new ArrayList<>(ids.size());
+        for (Long similarId : ids) {
+            PropertySummary summary = byId.get(similarId);
+            if (summary != null) {
+                similar.add(summary);
+            }
+        }
+        return similar;
     }
-    
+
     /**
      * Retrieves all properties.
      *
@@ -54,15 +151,105 @@ public class PropertyService {
     }
 
     /**
-     * Retrieves a property by its ID.
+     * Streams one keyset page of properties, ordered by ID, to the given consumer.
+     * Each property is detached once consumed, so the persistence context does not
+     * grow with the page and memory per request stays flat.
+     *
+     * @param afterId the ID of the last property the client has already seen (0 for the first page)
+     * @param pageSize the requested page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @param consumer receives each property of the page in order
+     * @return the ID to resume after for the next page, or {@code null} if this was the last page
+     */
+    @Transactional
+    public Long streamPropertiesAfter(long afterId, int pageSize, Consumer<Property> consumer) {
+        int size = clampPageSize(pageSize);
+        // Ask for one extra row so we know whether another page follows without a COUNT query
+        try (Stream<Property> rows = propertyRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1))) {
+            Iterator<Property> iterator = rows.iterator();
+            Long lastId = null;
+            int written = 0;
+            while (iterator.hasNext()) {
+                Property property = iterator.next();
+                if (written == size) {
+                    return lastId;
+                }
+                consumer.accept(property);
+                entityManager.detach(property);
+                lastId = property.getId();
+                written++;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Streams one keyset page of property summaries, ordered by ID, to the given consumer.
+     * Only the summary columns are read, and no entities enter the persistence context.
+     *
+     * @param afterId the ID of the last property the client has already seen (0 for the first page)
+     * @param pageSize the requested page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @param consumer receives each property summary of the page in order
+     * @return the ID to resume after for the next page, or {@code null} if this was the last page
+     */
+    @Transactional
+    public Long streamPropertySummariesAfter(long afterId, int pageSize, Consumer<PropertySummary> consumer) {
+        int size = clampPageSize(pageSize);
+        try (Stream<PropertySummary> rows = propertyRepository.findSummariesByIdGreaterThanOrderByIdAsc(afterId,
+                Limit.of(size + 1))) {
+            Iterator<PropertySummary> iterator = rows.iterator();
+            Long lastId = null;
+            int written = 0;
+            while (iterator.hasNext()) {
+                PropertySummary summary = iterator.next();
+                if (written == size) {
+                    return lastId;
+                }
+                consumer.accept(summary);
+                lastId = summary.id();
+                written++;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Clamps a client supplied page size into the range [1, {@link #MAX_PAGE_SIZE}].
+     *
+     * @param size the requested page size
+     * @return the page size that will actually be used
+     */
+    public static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Retrieves a property by its ID. Found properties are cached until they are updated or deleted.
      *
      * @param id the ID of the property
      * @return an {@link Optional} containing the property if found, empty if not
      */
+    @Cacheable(cacheNames = CacheConfig.PROPERTIES, key = "#id", unless = "#result == null")
     public Optional<Property> findPropertyById(Long id) {
         return propertyRepository.findById(id);
     }
 
+    /**
+     * Retrieves the version stamp of a property without loading it. Stamps are cached until
+     * the property is updated or deleted, so repeated conditional requests do not reach the database.
+     *
+     * @param id the ID of the property
+     * @return the stamp of the property, or {@code null} if no property has the given ID
+     */
+    @Cacheable(cacheNames = CacheConfig.PROPERTY_STAMPS, key = "#id", unless = "#result == null")
+    public VersionStamp findPropertyStamp(Long id) {
+        List<Object[]> rows = propertyRepository.findVersionById(id);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return VersionStamp.ofProperty(id, ((Number) row[0]).longValue(), (LocalDateTime) row[1]);
+    }
+
     /**
      * Updates the status of a property.
      *
@@ -72,11 +259,65 @@ public class PropertyService {
      * @throws RuntimeException if no property is found with the given ID
      */
     @Transactional
+    @CacheEvict(cacheNames = { CacheConfig.PROPERTIES, CacheConfig.PROPERTY_STAMPS }, key = "#id")
     public Property updatePropertyStatus(Long id, PropertyStatus status) {
         Property property = propertyRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Property not found"));
         property.setStatus(status);
-        return propertyRepository.save(property);
+        Property savedProperty = propertyRepository.save(property);
+        propertyIndexManager.propertySaved(savedProperty);
+        listingService.evictCachedListingsOfProperty(id);
+        return savedProperty;
+    }
+
+    /**
+     * Moves many properties to a new status with set-based UPDATEs, without loading them.
+     * The properties are selected by ID or by search filter and processed in chunks of
+     * {@link #STATUS_CHUNK_SIZE}, each in its own transaction: the rows that will change are
+     * locked and read back as IDs, then updated by one statement. After each chunk commits, the
+     * in-memory indexes and the caches of the changed properties and their listings are refreshed.
+     *
+     * @param request the target status, an optional source status, and the IDs or filter
+     * @return the number of properties matched and updated
+     * @throws IllegalArgumentException if the status is missing, or not exactly one of IDs and filter is given
+     */
+    public BulkStatusResult updatePropertyStatuses(BulkStatusUpdate request) {
+        if (request.getStatus() == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        if ((request.getIds() == null) == (request.getFilter() == null)) {
+            throw new IllegalArgumentException("Provide either ids or filter");
+        }
+        List<Long> ids = request.getIds() != null
+            ? new ArrayList<>(new LinkedHashSet<>(request.getIds()))
+            : propertySearchService.findIds(request.getFilter());
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Cache properties = cacheManager.getCache(CacheConfig.PROPERTIES);
+        Cache stamps = cacheManager.getCache(CacheConfig.PROPERTY_STAMPS);
+        long updated = 0;
+        for (int from = 0; from < ids.size(); from += STATUS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + STATUS_CHUNK_SIZE, ids.size()));
+            List<Long> changed = transaction.execute(status -> {
+                List<Long> locked = propertyRepository.lockIdsForStatusChange(chunk, request.getStatus(),
+                    request.getFromStatus());
+                if (!locked.isEmpty()) {
+                    propertyRepository.updateStatus(locked, request.getStatus(), LocalDateTime.now());
+                }
+                return locked;
+            });
+            if (changed.isEmpty()) {
+                continue;
+            }
+            propertyIndexManager.propertyStatusesChanged(changed, request.getStatus());
+            for (Long id : changed) {
+                properties.evict(id);
+                stamps.evict(id);
+            }
+            listingService.evictCachedListingsOfProperties(changed);
+            updated += changed.size();
+        }
+        return new BulkStatusResult(request.getStatus(), ids.size(), updated);
     }
 
     /**
@@ -87,6 +328,7 @@ public class PropertyService {
      * @return the updated property entity
      * @throws Exception if no property is found with the given ID
      */
+    @CacheEvict(cacheNames = { CacheConfig.PROPERTIES, CacheConfig.PROPERTY_STAMPS }, key = "#id")
     public Property updateProperty(Long id, Property property) throws Exception {
         // Fetch the property by ID
         Optional<Property> existingPropertyOptional = propertyRepository.findById(id);
@@ -110,22 +352,106 @@ public class PropertyService {
             existingProperty.setZipCode(property.getZipCode());
             existingProperty.setLatitude(property.getLatitude());
             existingProperty.setLongitude(property.getLongitude());
-            existingProperty.setUpdatedAt(java.time.LocalDateTime.now());
+            existingProperty.setThumbnailUrl(property.getThumbnailUrl());
 
-            // Save the updated property to the database
-            return propertyRepository.save(existingProperty);
+            // Save the updated property to the database and refresh the in-memory indexes
+            Property savedProperty = propertyRepository.save(existingProperty);
+            propertyIndexManager.propertySaved(savedProperty);
+            listingService.evictCachedListingsOfProperty(id);
+            return savedProperty;
         } else {
             // Handle the case where the property does not exist
             throw new Exception("Property with ID " + id + " not found.");
         }
     }
 
+    /**
+     * Applies a JSON Merge Patch to a property, writing only the columns it changes.
+     * When the client names the version it last read, the change is a single UPDATE guarded by
+     * that version, without reading the row first. Otherwise the property is loaded and patched,
+     * and Hibernate's dynamic update writes only the columns whose value differs. Either way the
+     * committed row is read back once, after the write transaction, for the response and the
+     * in-memory indexes.
+     *
+     * @param id the ID of the property
+     * @param patch the merge patch; a {@code version} member is used if {@code expectedVersion} is null
+     * @param expectedVersion the version the client last read (from {@code If-Match}), or {@code null}
+     * @return the patched property
+     * @throws IllegalArgumentException if the patch is malformed or leaves the property invalid
+     * @throws ResourceNotFoundException if no property has the given ID
+     * @throws VersionConflictException if the property has changed since the expected version
+     */
+    @CacheEvict(cacheNames = { CacheConfig.PROPERTIES, CacheConfig.PROPERTY_STAMPS }, key = "#id")
+    public Property patchProperty(Long id, ObjectNode patch, Long expectedVersion) {
+        Map<String, Object> changes = MergePatch.changes(objectMapper, patch, Property.class, PATCHABLE_FIELDS);
+        changes.forEach(PropertyService::validatePatchedField);
+        Long version = expectedVersion != null ? expectedVersion : MergePatch.version(patch);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (version == null) {
+                    Property property = propertyRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Property with ID " + id + " not found."));
+                    MergePatch.apply(property, changes);
+                } else if (MergePatch.update(entityManager, Property.class, id, version, changes) == 0) {
+                    throw propertyRepository.existsById(id)
+                        ? new VersionConflictException("Property " + id + " is no longer at version " + version)
+                        : new ResourceNotFoundException("Property with ID " + id + " not found.");
+                }
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("Property " + id + " was changed by another request");
+        }
+
+        Property patchedProperty = propertyRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Property with ID " + id + " not found."));
+        propertyIndexManager.propertySaved(patchedProperty);
+        listingService.evictCachedListingsOfProperty(id);
+        return patchedProperty;
+    }
+
+    private static void validatePatchedField(String field, Object value) {
+        switch (field) {
+            case "title", "propertyType", "status", "address", "city", "state", "zipCode" -> {
+                if (value == null || value instanceof String text && text.isBlank()) {
+                    throw new IllegalArgumentException(field + " is required");
+                }
+            }
+            case "price" -> {
+                if (value == null || ((BigDecimal) value).signum() < 0) {
+                    throw new IllegalArgumentException("price is required and must not be negative");
+                }
+            }
+            case "squareFeet", "bedrooms", "bathrooms" -> {
+                if (value != null && ((Number) value).doubleValue() < 0) {
+                    throw new IllegalArgumentException(field + " must not be negative");
+                }
+            }
+            case "latitude" -> {
+                if (value != null && Math.abs((Double) value) > 90) {
+                    throw new IllegalArgumentException("latitude must be between -90 and 90");
+                }
+            }
+            case "longitude" -> {
+                if (value != null && Math.abs((Double) value) > 180) {
+                    throw new IllegalArgumentException("longitude must be between -180 and 180");
+                }
+            }
+            default -> {
+                // No constraint beyond the column type
+            }
+        }
+    }
+
     /**
      * Deletes a property by its ID.
      *
      * @param id the ID of the property to be deleted
      */
+    @CacheEvict(cacheNames = { CacheConfig.PROPERTIES, CacheConfig.PROPERTY_STAMPS }, key = "#id")
     public void deleteProperty(Long id) {
         propertyRepository.deleteById(id);
+        propertyIndexManager.propertyDeleted(id);
     }
 }
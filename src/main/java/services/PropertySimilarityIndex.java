@@ -0,0 +1,327 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+
+/**
+ * In-memory feature matrix for "similar properties" recommendations.
+ * Each property is a row of normalized floats: log price and log square footage (one unit per
+ * doubling), bedrooms and bathrooms (one unit per two rooms), and a planar projection of its
+ * location (one unit per {@value #KM_PER_UNIT} km). Similarity is the squared Euclidean distance
+ * between rows, plus a fixed penalty for a different property type or a feature missing on either side.
+ * Scales are fixed rather than derived from the data, so a write never re-normalizes other rows.
+ * A search scans the matrix in partitions, in parallel once it is large, keeping a bounded heap of
+ * the nearest rows per partition and merging them. Rows are recycled like in the {@link PropertyCatalog}.
+ */
+@Component
+public class PropertySimilarityIndex implements PropertyIndex {
+
+    /**
+     * Most similar properties returned per request.
+     */
+    public static final int MAX_RESULTS = 50;
+
+    static final double KM_PER_UNIT = 25;
+
+    private static final int PRICE = 0;
+    private static final int SQUARE_FEET = 1;
+    private static final int BEDROOMS = 2;
+    private static final int BATHROOMS = 3;
+    private static final int X = 4;
+    private static final int Y = 5;
+    private static final int FEATURES = 6;
+
+    private static final float LN_2 = (float) Math.log(2);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    /**
+     * Added to the squared distance for each feature missing on either side; the location counts once.
+     */
+    private static final float MISSING_PENALTY = 1f;
+
+    /**
+     * Added to the squared distance when the property types differ.
+     */
+    private static final float TYPE_PENALTY = 4f;
+
+    /**
+     * Matrices with fewer rows are scanned on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 50_000;
+
+    /**
+     * Rows per partition of a parallel scan.
+     */
+    private static final int PARTITION_SIZE = 16_384;
+
+    private static final byte NO_ORDINAL = -1;
+
+    private long[] ids = new long[1024];
+    private float[] features = new float[1024 * FEATURES];
+    private byte[] types = new byte[1024];
+    private byte[] statuses = new byte[1024];
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final List<Integer> freeRows = new ArrayList<>();
+    private int nextRow;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        float[] row = features(property);
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.get(property.getId());
+            int r = existing != null ? existing : allocateRow();
+            ids[r] = property.getId();
+            System.arraycopy(row, 0, features, r * FEATURES, FEATURES);
+            types[r] = property.getPropertyType() == null ? NO_ORDINAL : (byte) property.getPropertyType().ordinal();
+            statuses[r] = property.getStatus() == null ? NO_ORDINAL : (byte) property.getStatus().ordinal();
+            rowById.put(property.getId(), r);
+            live.set(r);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                live.clear(row);
+                freeRows.add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void statusChanged(Collection<Long> changedIds, PropertyStatus status) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : changedIds) {
+                Integer row = rowById.get(id);
+                if (row != null) {
+                    statuses[row] = (byte) status.ordinal();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the available properties most similar to a property.
+     *
+     * @param id the ID of the property
+     * @param limit the maximum number of properties, capped at {@link #MAX_RESULTS}
+     * @return the IDs of the most similar properties, nearest first, or {@code null} if the property is not indexed
+     */
+    public List<Long> similarTo(Long id, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_RESULTS));
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(id);
+            if (row == null) {
+                return null;
+            }
+            float[] query = Arrays.copyOfRange(features, row * FEATURES, row * FEATURES + FEATURES);
+            byte type = types[row];
+            int partitions = (nextRow + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            IntStream scan = IntStream.range(0, partitions);
+            if (nextRow >= PARALLEL_THRESHOLD) {
+                scan = scan.parallel();
+            }
+            Nearest nearest = scan
+                .mapToObj(p -> scan(query, type, row, p * PARTITION_SIZE, Math.min(nextRow, (p + 1) * PARTITION_SIZE), k))
+                .reduce(Nearest::merge)
+                .orElseGet(() -> new Nearest(k));
+            return nearest.ids(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans rows [from, to) for the nearest available rows to the query, other than the query row itself.
+     */
+    private Nearest scan(float[] query, byte type, int queryRow, int from, int to, int k) {
+        Nearest nearest = new Nearest(k);
+        byte available = (byte) PropertyStatus.AVAILABLE.ordinal();
+        for (int r = live.nextSetBit(from); r >= 0 && r < to; r = live.nextSetBit(r + 1)) {
+            if (r == queryRow || statuses[r] != available) {
+                continue;
+            }
+            float bound = nearest.bound();
+            float distance = types[r] == type ? 0 : TYPE_PENALTY;
+            int base = r * FEATURES;
+            for (int f = PRICE; f <= BATHROOMS && distance < bound; f++) {
+                float diff = query[f] - features[base + f];
+                // NaN marks a missing feature and propagates through the difference
+                distance += Float.isNaN(diff) ? MISSING_PENALTY : diff * diff;
+            }
+            if (distance >= bound) {
+                continue;
+            }
+            float dx = query[X] - features[base + X];
+            float dy = query[Y] - features[base + Y];
+            distance += Float.isNaN(dx) ? MISSING_PENALTY : dx * dx + dy * dy;
+            nearest.offer(r, distance);
+        }
+        return nearest;
+    }
+
+    /**
+     * Builds the normalized feature row of a property; missing features are NaN.
+     */
+    static float[] features(Property property) {
+        float[] row = new float[FEATURES];
+        row[PRICE] = property.getPrice() == null || property.getPrice().signum() <= 0 ? Float.NaN
+            : (float) Math.log(property.getPrice().doubleValue()) / LN_2;
+        row[SQUARE_FEET] = property.getSquareFeet() == null || property.getSquareFeet() <= 0 ? Float.NaN
+            : (float) Math.log(property.getSquareFeet()) / LN_2;
+        row[BEDROOMS] = property.getBedrooms() == null ? Float.NaN : property.getBedrooms() / 2f;
+        row[BATHROOMS] = property.getBathrooms() == null ? Float.NaN : property.getBathrooms().floatValue() / 2f;
+        if (property.getLatitude() != null && property.getLongitude() != null) {
+            // Equirectangular projection; accurate enough at the distances that make properties similar
+            double latitude = Math.toRadians(property.getLatitude());
+            double longitude = Math.toRadians(property.getLongitude());
+            row[X] = (float) (EARTH_RADIUS_KM * longitude * Math.cos(latitude) / KM_PER_UNIT);
+            row[Y] = (float) (EARTH_RADIUS_KM * latitude / KM_PER_UNIT);
+        } else {
+            row[X] = Float.NaN;
+            row[Y] = Float.NaN;
+        }
+        return row;
+    }
+
+    private int allocateRow() {
+        if (!freeRows.isEmpty()) {
+            return freeRows.remove(freeRows.size() - 1);
+        }
+        if (nextRow == ids.length) {
+            int capacity = nextRow * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            features = Arrays.copyOf(features, capacity * FEATURES);
+            types = Arrays.copyOf(types, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        return nextRow++;
+    }
+
+    /**
+     * The k nearest rows seen so far, kept in a max-heap on distance so the farthest is replaced first.
+     */
+    private static final class Nearest {
+
+        private final int[] rows;
+        private final float[] distances;
+        private int size;
+
+        Nearest(int k) {
+            rows = new int[k];
+            distances = new float[k];
+        }
+
+        /**
+         * @return the distance a row must beat to be kept
+         */
+        float bound() {
+            return size < rows.length ? Float.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(int row, float distance) {
+            if (size < rows.length) {
+                rows[size] = row;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                rows[0] = row;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        Nearest merge(Nearest other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i], other.distances[i]);
+            }
+            return this;
+        }
+
+        /**
+         * @return the IDs of the kept rows, nearest first
+         */
+        List<Long> ids(long[] ids) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> distances[a] != distances[b]
+                ? Float.compare(distances[a], distances[b])
+                : Long.compare(ids[rows[a]], ids[rows[b]]));
+            List<Long> result = new ArrayList<>(size);
+            for (Integer i : order) {
+                result.add(ids[rows[i]]);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            float distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
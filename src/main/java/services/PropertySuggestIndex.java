@@ -0,0 +1,455 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Suggestion;
+
+/**
+ * Autocomplete index over property city, state, ZIP code and address.
+ * Each field has a path-compressed prefix trie of its normalized values, counting the
+ * properties that have each value. Every node whose subtree holds more than
+ * {@link #MAX_SUGGESTIONS} values keeps its best values ranked by count, so a completion
+ * walks the prefix and copies at most that many entries; smaller subtrees are collected
+ * directly. A write re-ranks only the nodes on the paths of the values it changes.
+ */
+@Component
+public class PropertySuggestIndex implements PropertyIndex {
+
+    /**
+     * Most suggestions returned per request, and the number of values each large trie node keeps ranked.
+     */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * The property fields suggestions are drawn from.
+     */
+    public enum Field {
+        CITY("city"),
+        STATE("state"),
+        ZIP_CODE("zipCode"),
+        ADDRESS("address");
+
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Parses a field name as used in the API, case-insensitively.
+         *
+         * @param value the field name
+         * @return the matching field
+         * @throws IllegalArgumentException if no field has that name
+         */
+        public static Field parse(String value) {
+            for (Field field : values()) {
+                if (field.name.equalsIgnoreCase(value.trim())) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown suggestion field '" + value + "'; use city, state, zipCode or address");
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Most frequent first; ties in alphabetical order so results are stable.
+     */
+    private static final Comparator<Term> RANKING = Comparator.comparingInt((Term term) -> term.count).reversed()
+        .thenComparing(term -> term.key);
+
+    private static final Comparator<Suggestion> SUGGESTION_RANKING = Comparator.comparingInt(Suggestion::getCount)
+        .reversed().thenComparing(Suggestion::getText);
+
+    private final Map<Field, Trie> tries = new EnumMap<>(Field.class);
+
+    /**
+     * The values each indexed property contributes, by field ordinal, so an update can retract them.
+     */
+    private final Map<Long, Term[]> termsById = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PropertySuggestIndex() {
+        for (Field field : FIELDS) {
+            tries.put(field, new Trie());
+        }
+    }
+
+    @Override
+    public void index(Property property) {
+        String[] values = { property.getCity(), property.getState(), property.getZipCode(), property.getAddress() };
+        lock.writeLock().lock();
+        try {
+            Term[] previous = termsById.remove(property.getId());
+            Term[] current = new Term[FIELDS.length];
+            for (int i = 0; i < FIELDS.length; i++) {
+                Trie trie = tries.get(FIELDS[i]);
+                String key = normalize(values[i]);
+                if (previous != null && previous[i] != null) {
+                    if (previous[i].key.equals(key)) {
+                        current[i] = previous[i];
+                        continue;
+                    }
+                    trie.add(previous[i].key, null, -1);
+                }
+                if (!key.isEmpty()) {
+                    current[i] = trie.add(key, values[i].trim(), 1);
+                }
+            }
+            termsById.put(property.getId(), current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Term[] previous = termsById.remove(id);
+            if (previous != null) {
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (previous[i] != null) {
+                        tries.get(FIELDS[i]).add(previous[i].key, null, -1);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Defers ranking while the whole table is loaded; it is done once in {@link #endBulkLoad()}.
+     */
+    @Override
+    public void beginBulkLoad() {
+        lock.writeLock().lock();
+        try {
+            tries.values().forEach(trie -> trie.ranked = false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void endBulkLoad() {
+        lock.writeLock().lock();
+        try {
+            for (Trie trie : tries.values()) {
+                trie.rankAll(trie.root);
+                trie.ranked = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Completes a prefix with the most common matching values of the given fields.
+     * Matching ignores case and repeated whitespace.
+     *
+     * @param prefix the text typed so far
+     * @param fields the fields to draw suggestions from
+     * @param limit the maximum number of suggestions, capped at {@link #MAX_SUGGESTIONS}
+     * @return the suggestions, most common first
+     */
+    public List<Suggestion> suggest(String prefix, Collection<Field> fields, int limit) {
+        String key = WHITESPACE.matcher(prefix.toLowerCase(Locale.ROOT).stripLeading()).replaceAll(" ");
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        List<Suggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Field field : fields) {
+                for (Term term : tries.get(field).complete(key, size)) {
+                    suggestions.add(new Suggestion(term.display, field.getName(), term.count));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        suggestions.sort(SUGGESTION_RANKING);
+        return suggestions.size() > size ? new ArrayList<>(suggestions.subList(0, size)) : suggestions;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : WHITESPACE.matcher(value.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    /**
+     * A distinct value of a field and the number of properties that have it.
+     */
+    private static final class Term {
+
+        private final String key;
+        private final String display;
+        private int count;
+
+        Term(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+    }
+
+    /**
+     * A path-compressed trie node. Children are sorted by the first character of their label.
+     */
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Term term;
+
+        /**
+         * Number of values in the subtree.
+         */
+        private int size;
+
+        /**
+         * The best values of the subtree, or null when the subtree is small enough to collect directly.
+         */
+        private Term[] top;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label.charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int at = childIndex(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        /**
+         * Recomputes the size and ranking of this node from its own value and its children.
+         */
+        void rank() {
+            int total = term != null ? 1 : 0;
+            for (Node child : children) {
+                total += child.size;
+            }
+            size = total;
+            if (size <= MAX_SUGGESTIONS) {
+                top = null;
+                return;
+            }
+            List<Term> candidates = new ArrayList<>();
+            if (term != null) {
+                candidates.add(term);
+            }
+            for (Node child : children) {
+                child.collectTop(candidates);
+            }
+            candidates.sort(RANKING);
+            top = candidates.subList(0, MAX_SUGGESTIONS).toArray(new Term[0]);
+        }
+
+        void collectTop(List<Term> out) {
+            if (top != null) {
+                Collections.addAll(out, top);
+            } else {
+                collectAll(out);
+            }
+        }
+
+        private void collectAll(List<Term> out) {
+            if (term != null) {
+                out.add(term);
+            }
+            for (Node child : children) {
+                child.collectAll(out);
+            }
+        }
+    }
+
+    /**
+     * The trie of one field. Not thread-safe; guarded by the index lock.
+     */
+    private static final class Trie {
+
+        private final Node root = new Node("");
+
+        /**
+         * False during a bulk load, when rankings are left stale until the load ends.
+         */
+        private boolean ranked = true;
+
+        /**
+         * Adjusts the count of a value, inserting or removing it as needed, and re-ranks its path.
+         *
+         * @return the value's term, or null if a decrement found no such value
+         */
+        Term add(String key, String display, int delta) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(root);
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.childIndex(key.charAt(i));
+                if (index < 0) {
+                    if (delta < 0) {
+                        return null;
+                    }
+                    Node leaf = new Node(key.substring(i));
+                    node.insertChild(-index - 1, leaf);
+                    node = leaf;
+                    path.add(leaf);
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    if (delta < 0) {
+                        return null;
+                    }
+                    // The key leaves this edge part way: split it where they diverge
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children = new Node[] { child };
+                    middle.size = child.size;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                path.add(node);
+                i += common;
+            }
+
+            Term term = node.term;
+            if (term == null) {
+                if (delta < 0) {
+                    return null;
+                }
+                term = new Term(key, display);
+                node.term = term;
+            }
+            term.count += delta;
+            if (term.count <= 0) {
+                node.term = null;
+            }
+            repair(path);
+            return term;
+        }
+
+        /**
+         * Walks a changed path bottom-up, pruning nodes left without a value and merging
+         * single-child nodes into their child, then re-ranks what remains.
+         */
+        private void repair(List<Node> path) {
+            for (int j = path.size() - 1; j >= 0; j--) {
+                Node node = path.get(j);
+                if (j > 0 && node.term == null && node.children.length <= 1) {
+                    Node parent = path.get(j - 1);
+                    if (node.children.length == 0) {
+                        parent.removeChild(node);
+                    } else {
+                        Node only = node.children[0];
+                        only.label = node.label + only.label;
+                        parent.children[parent.childIndex(node.label.charAt(0))] = only;
+                    }
+                    continue;
+                }
+                if (ranked) {
+                    node.rank();
+                }
+            }
+        }
+
+        void rankAll(Node node) {
+            for (Node child : node.children) {
+                rankAll(child);
+            }
+            node.rank();
+        }
+
+        List<Term> complete(String prefix, int limit) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                int index = node.childIndex(prefix.charAt(i));
+                if (index < 0) {
+                    return List.of();
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    // The prefix ends on or inside this edge: everything below matches
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                node = child;
+                i += common;
+            }
+            List<Term> terms = new ArrayList<>();
+            node.collectTop(terms);
+            if (node.top == null) {
+                terms.sort(RANKING);
+            }
+            return terms.size() > limit ? terms.subList(0, limit) : terms;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int length = Math.min(label.length(), key.length() - offset);
+            int i = 0;
+            while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.realestate.app.models.Property;
+
+/**
+ * Embedded inverted index over property title, description, address and city.
+ * Postings keep term positions so quoted phrases can be matched, the term dictionary
+ * is sorted so {@code term*} prefixes expand with a range scan, and matches are ranked
+ * with Okapi BM25. Every clause of a query must match. A prefix expands to every term it
+ * starts, so the index and {@link #matches(List, List)} agree on what it matches.
+ */
+@Component
+public class PropertyTextIndex implements PropertyIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    /**
+     * Position gap between fields, so a phrase never matches across two fields.
+     */
+    private static final int FIELD_GAP = 100;
+
+    /**
+     * Maximum number of postings a single prefix clause may expand to; broader prefixes are rejected
+     * rather than cut short, since a partial expansion would miss matches the percolator finds.
+     */
+    static final int MAX_PREFIX_POSTINGS = 200_000;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    /**
+     * term -> (doc -> positions of the term in the doc)
+     */
+    private final NavigableMap<String, Map<Integer, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Integer> docByPropertyId = new HashMap<>();
+    private final List<Integer> freeDocs = new ArrayList<>();
+    private long[] propertyIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private String[][] docTerms = new String[1024][];
+    private int nextDoc;
+    private int docCount;
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int length = 0;
+        int offset = 0;
+        for (List<String> tokens : tokenizeFields(property)) {
+            for (int i = 0; i < tokens.size(); i++) {
+                positions.computeIfAbsent(tokens.get(i), t -> new ArrayList<>()).add(offset + i);
+            }
+            length += tokens.size();
+            offset += tokens.size() + FIELD_GAP;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            int doc = allocateDoc();
+            propertyIds[doc] = property.getId();
+            docLengths[doc] = length;
+            docTerms[doc] = positions.keySet().toArray(new String[0]);
+            for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                int[] termPositions = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc, termPositions);
+            }
+            docByPropertyId.put(property.getId(), doc);
+            docCount++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Integer doc = docByPropertyId.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : docTerms[doc]) {
+            Map<Integer, int[]> termPostings = postings.get(term);
+            termPostings.remove(doc);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        docCount--;
+        totalLength -= docLengths[doc];
+        docTerms[doc] = null;
+        freeDocs.add(doc);
+    }
+
+    private int allocateDoc() {
+        if (!freeDocs.isEmpty()) {
+            return freeDocs.remove(freeDocs.size() - 1);
+        }
+        if (nextDoc == propertyIds.length) {
+            int capacity = nextDoc * 2;
+            propertyIds = Arrays.copyOf(propertyIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+        return nextDoc++;
+    }
+
+    /**
+     * Searches the index. The query is split into clauses: plain terms, {@code prefix*} terms and
+     * {@code "quoted phrases"}. A property matches when every clause matches; matches are ordered
+     * by their summed BM25 score.
+     *
+     * @param query the free-text query
+     * @param limit the maximum number of property IDs to return
+     * @return the IDs of the best matching properties, best first
+     * @throws IllegalArgumentException if a prefix expands to more than {@link #MAX_PREFIX_POSTINGS} postings
+     */
+    public List<Long> search(String query, int limit) {
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Evaluate the rarest clause first; later clauses only probe the surviving candidates
+            clauses.sort(Comparator.comparingInt(this::estimateMatches));
+            Map<Integer, Double> scores = null;
+            for (Clause clause : clauses) {
+                scores = score(clause, scores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> propertyIds[entry.getKey()])
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int estimateMatches(Clause clause) {
+        if (clause.prefix) {
+            return expand(clause.terms.get(0)).stream().mapToInt(Map::size).sum();
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (String term : clause.terms) {
+            Map<Integer, int[]> termPostings = postings.get(term);
+            estimate = Math.min(estimate, termPostings == null ? 0 : termPostings.size());
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the postings of every term starting with the prefix
+     * @throws IllegalArgumentException if they hold more than {@link #MAX_PREFIX_POSTINGS} postings
+     */
+    private List<Map<Integer, int[]>> expand(String prefix) {
+        List<Map<Integer, int[]>> expansions = new ArrayList<>();
+        long expandedPostings = 0;
+        for (Map<Integer, int[]> termPostings
+                : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            expansions.add(termPostings);
+            expandedPostings += termPostings.size();
+            if (expandedPostings > MAX_PREFIX_POSTINGS) {
+                throw new IllegalArgumentException("The prefix '" + prefix + "*' matches too many words; use a longer prefix");
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Scores one clause. With no candidates every matching doc is scored; otherwise only the
+     * candidates are probed and the result holds their accumulated scores.
+     */
+    private Map<Integer, Double> score(Clause clause, Map<Integer, Double> candidates) {
+        Map<Integer, Double> scores = new HashMap<>();
+        if (clause.prefix) {
+            for (Map<Integer, int[]> termPostings : expand(clause.terms.get(0))) {
+                addTermScores(termPostings, candidates, scores);
+            }
+        } else if (clause.terms.size() == 1) {
+            Map<Integer, int[]> termPostings = postings.get(clause.terms.get(0));
+            if (termPostings != null) {
+                addTermScores(termPostings, candidates, scores);
+            }
+        } else {
+            scorePhrase(clause.terms, candidates, scores);
+        }
+        if (candidates != null) {
+            scores.replaceAll((doc, score) -> score + candidates.get(doc));
+        }
+        return scores;
+    }
+
+    private void addTermScores(Map<Integer, int[]> termPostings, Map<Integer, Double> candidates,
+            Map<Integer, Double> scores) {
+        double idf = idf(termPostings.size());
+        if (candidates == null) {
+            for (Map.Entry<Integer, int[]> entry : termPostings.entrySet()) {
+                scores.merge(entry.getKey(), bm25(idf, entry.getValue().length, docLengths[entry.getKey()]), Double::sum);
+            }
+        } else {
+            for (Integer doc : candidates.keySet()) {
+                int[] positions = termPostings.get(doc);
+                if (positions != null) {
+                    scores.merge(doc, bm25(idf, positions.length, docLengths[doc]), Double::sum);
+                }
+            }
+        }
+    }
+
+    private void scorePhrase(List<String> terms, Map<Integer, Double> candidates, Map<Integer, Double> scores) {
+        List<Map<Integer, int[]>> termPostings = new ArrayList<>();
+        for (String term : terms) {
+            Map<Integer, int[]> p = postings.get(term);
+            if (p == null) {
+                return;
+            }
+            termPostings.add(p);
+        }
+        double idf = 0;
+        for (Map<Integer, int[]> p : termPostings) {
+            idf += idf(p.size());
+        }
+        Iterable<Integer> docs = candidates == null ? termPostings.get(0).keySet() : candidates.keySet();
+        for (Integer doc : docs) {
+            int[] starts = termPostings.get(0).get(doc);
+            if (starts == null) {
+                continue;
+            }
+            int occurrences = 0;
+            for (int start : starts) {
+                boolean matched = true;
+                for (int t = 1; t < termPostings.size() && matched; t++) {
+                    int[] positions = termPostings.get(t).get(doc);
+                    matched = positions != null && Arrays.binarySearch(positions, start + t) >= 0;
+                }
+                if (matched) {
+                    occurrences++;
+                }
+            }
+            if (occurrences > 0) {
+                scores.put(doc, bm25(idf, occurrences, docLengths[doc]));
+            }
+        }
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double bm25(double idf, int termFrequency, int docLength) {
+        double averageLength = docCount == 0 ? 1 : (double) totalLength / docCount;
+        return idf * (termFrequency * (K1 + 1))
+                / (termFrequency + K1 * (1 - B + B * docLength / averageLength));
+    }
+
+    /**
+     * @return the number of indexed properties
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cases text and splits it into runs of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokenizes the indexed fields of a property: title, address, city and description.
+     */
+    static List<List<String>> tokenizeFields(Property property) {
+        return List.of(tokenize(property.getTitle()), tokenize(property.getAddress()), tokenize(property.getCity()),
+            tokenize(property.getDescription()));
+    }
+
+    /**
+     * Tests a single property against a parsed query without consulting the index. Every clause must
+     * match, like in the index a phrase never spans two fields, and a prefix matches any word it starts.
+     *
+     * @param clauses the parsed query
+     * @param fields the tokenized fields of the property, from {@link #tokenizeFields(Property)}
+     * @return true if the property matches the query
+     */
+    static boolean matches(List<Clause> clauses, List<List<String>> fields) {
+        for (Clause clause : clauses) {
+            if (!matches(clause, fields)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Clause clause, List<List<String>> fields) {
+        int length = clause.terms.size();
+        for (List<String> tokens : fields) {
+            for (int i = 0; i + length <= tokens.size(); i++) {
+                if (clause.prefix ? tokens.get(i).startsWith(clause.terms.get(0))
+                        : tokens.subList(i, i + length).equals(clause.terms)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits a query into clauses: quoted phrases, trailing-star prefixes and plain terms.
+     */
+    static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = query.length();
+                }
+                List<String> terms = tokenize(query.substring(i + 1, end));
+                if (!terms.isEmpty() && seen.add("\"" + terms)) {
+                    clauses.add(new Clause(terms, false));
+                }
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                String word = query.substring(i, end);
+                boolean prefix = word.endsWith("*");
+                List<String> terms = tokenize(word);
+                if (prefix && terms.size() == 1 && terms.get(0).length() >= MIN_PREFIX_LENGTH) {
+                    if (seen.add(terms.get(0) + "*")) {
+                        clauses.add(new Clause(terms, true));
+                    }
+                } else {
+                    for (String term : terms) {
+                        if (seen.add(term)) {
+                            clauses.add(new Clause(List.of(term), false));
+                        }
+                    }
+                }
+                i = end;
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * One required part of a query: a single term, a prefix, or a phrase of several terms.
+     */
+    static final class Clause {
+        final List<String> terms;
+        final boolean prefix;
+
+        Clause(List<String> terms, boolean prefix) {
+            this.terms = terms;
+            this.prefix = prefix;
+        }
+    }
+}
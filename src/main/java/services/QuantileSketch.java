@@ -0,0 +1,126 @@
+package com.realestate.app.services;
+
+/**
+ * A mergeable quantile sketch over non-negative values with bounded relative error, after DDSketch.
+ * Values are counted in logarithmic buckets whose bounds grow by a factor of
+ * {@code (1 + a) / (1 - a)}, so any quantile is answered within a relative error of {@code a}
+ * of the true value. Because each bucket is a plain count, a value can be removed as exactly as
+ * it was added, and two sketches merge by adding their counts.
+ * Not thread-safe.
+ */
+final class QuantileSketch {
+
+    /**
+     * Relative error of the returned quantiles.
+     */
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /**
+     * Values at or below this are counted as zero.
+     */
+    private static final double MIN_INDEXABLE_VALUE = 1e-6;
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Bucket counts; {@code counts[i]} holds the values of bucket {@code offset + i}.
+     */
+    private long[] counts = EMPTY;
+
+    private int offset;
+
+    private long zeroCount;
+
+    private long count;
+
+    /**
+     * Adds a value, or removes a previously added one with a negative weight.
+     *
+     * @param value the value, clamped to zero if negative
+     * @param weight the number of times to add the value, negative to remove it
+     */
+    void add(double value, long weight) {
+        count += weight;
+        if (value <= MIN_INDEXABLE_VALUE) {
+            zeroCount += weight;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        ensureCapacity(index, index);
+        counts[index - offset] += weight;
+        if (count == 0) {
+            counts = EMPTY;
+        }
+    }
+
+    /**
+     * Adds every value counted by another sketch.
+     *
+     * @param other the sketch to merge into this one
+     */
+    void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * @return the number of values in the sketch
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param q the quantile, between 0 and 1
+     * @return the estimated value at that quantile, or {@code NaN} if the sketch is empty
+     */
+    double quantile(double q) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        double rank = q * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, offset + counts.length - 1) / (GAMMA + 1);
+    }
+
+    private void ensureCapacity(int minIndex, int maxIndex) {
+        if (counts.length == 0) {
+            counts = new long[maxIndex - minIndex + 1];
+            offset = minIndex;
+            return;
+        }
+        int from = Math.min(offset, minIndex);
+        int to = Math.max(offset + counts.length - 1, maxIndex);
+        if (from == offset && to == offset + counts.length - 1) {
+            return;
+        }
+        long[] grown = new long[to - from + 1];
+        System.arraycopy(counts, 0, grown, offset - from, counts.length);
+        counts = grown;
+        offset = from;
+    }
+}
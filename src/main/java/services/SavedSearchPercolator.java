@@ -0,0 +1,473 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.realestate.app.models.Listing;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.PropertySearchCriteria;
+import com.realestate.app.models.SavedSearch;
+import com.realestate.app.models.SavedSearchMatch;
+import com.realestate.app.repositories.PropertyRepository;
+import com.realestate.app.repositories.SavedSearchMatchRepository;
+import com.realestate.app.repositories.SavedSearchRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Matches property and listing writes against the saved searches, the other way round from a search.
+ * The saved searches themselves are indexed: each is filed under its most selective equality filter
+ * (ZIP code, city, a free-text term, state or property type), so a written property is only tested
+ * against the searches filed under its own values, plus the few that filter on ranges alone.
+ * The searches each property currently matches are remembered, so an update only reports the
+ * searches it newly matches, and a new listing reports the searches its property matches.
+ * Matches are queued in the database for the {@link SavedSearchService} digests by a single
+ * background thread, which also reloads properties when needed, so writes never wait on either.
+ */
+@Component
+public class SavedSearchPercolator implements PropertyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchPercolator.class);
+
+    /**
+     * Properties reloaded per query when a status change may make them match.
+     */
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final long[] NO_MATCHES = new long[0];
+
+    /**
+     * The equality filters a saved search can be filed under, most selective first.
+     */
+    private enum Anchor {
+        ZIP_CODE,
+        CITY,
+        TERM,
+        STATE,
+        TYPE
+    }
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private SavedSearchMatchRepository savedSearchMatchRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, Query> queries = new HashMap<>();
+
+    private final Map<Anchor, Map<String, List<Query>>> anchored = new EnumMap<>(Anchor.class);
+
+    /**
+     * Searches without an equality filter, tested against every write.
+     */
+    private final List<Query> unanchored = new ArrayList<>();
+
+    /**
+     * The sorted IDs of the saved searches each property matches, for the properties that match any.
+     * May still hold the IDs of deleted searches; they are dropped when the property is next written.
+     */
+    private final Map<Long, long[]> matchesByProperty = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Saves matches and reloads properties off the request threads, in the order they were submitted.
+     */
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "saved-search-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean bulkLoading;
+
+    public SavedSearchPercolator() {
+        for (Anchor anchor : Anchor.values()) {
+            anchored.put(anchor, new HashMap<>());
+        }
+    }
+
+    @Override
+    public void index(Property property) {
+        long[] current = match(property);
+        long[] previous = current.length == 0
+            ? matchesByProperty.remove(property.getId())
+            : matchesByProperty.put(property.getId(), current);
+        if (!bulkLoading) {
+            // Only report the searches the property did not match before this write
+            List<SavedSearchMatch> matches = new ArrayList<>();
+            for (long searchId : current) {
+                if (previous == null || Arrays.binarySearch(previous, searchId) < 0) {
+                    matches.add(new SavedSearchMatch(searchId, property.getId(), null));
+                }
+            }
+            enqueue(matches);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        matchesByProperty.remove(id);
+    }
+
+    /**
+     * Re-matches properties whose status changed. Matches of searches filtering on another status are
+     * ended from the IDs alone. Only if some search filters on the new status can a property newly
+     * match; those properties are reloaded in the background, so a bulk status change never loads
+     * entities on the request thread.
+     */
+    @Override
+    public void statusChanged(Collection<Long> ids, PropertyStatus status) {
+        boolean reload;
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                matchesByProperty.computeIfPresent(id, (propertyId, previous) -> {
+                    long[] kept = Arrays.stream(previous).filter(searchId -> {
+                        Query query = queries.get(searchId);
+                        return query != null && (query.criteria.getStatus() == null || query.criteria.getStatus() == status);
+                    }).toArray();
+                    return kept.length == 0 ? null : kept;
+                });
+            }
+            reload = queries.values().stream().anyMatch(query -> query.criteria.getStatus() == status);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (reload) {
+            List<Long> changed = List.copyOf(ids);
+            matcher.execute(() -> reload(changed));
+        }
+    }
+
+    /**
+     * Loads the saved searches before the startup rebuild streams the properties through
+     * {@link #index(Property)}, which then only records what each property matches.
+     */
+    @Override
+    public void beginBulkLoad() {
+        bulkLoading = true;
+        List<SavedSearch> searches = savedSearchRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            queries.clear();
+            anchored.values().forEach(Map::clear);
+            unanchored.clear();
+            searches.forEach(this::addLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        matchesByProperty.clear();
+        log.debug("Loaded {} saved searches", searches.size());
+    }
+
+    @Override
+    public void endBulkLoad() {
+        bulkLoading = false;
+    }
+
+    /**
+     * Starts matching writes against a new saved search once the current transaction commits.
+     *
+     * @param search the saved search
+     * @param matchingIds the IDs of the properties it already matches, which are not reported
+     */
+    public void searchSaved(SavedSearch search, List<Long> matchingIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                addLocked(search);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long searchId = search.getId();
+            for (Long propertyId : matchingIds) {
+                matchesByProperty.merge(propertyId, new long[] { searchId }, SavedSearchPercolator::union);
+            }
+        });
+    }
+
+    /**
+     * Stops matching writes against a deleted saved search once the current transaction commits.
+     *
+     * @param id the ID of the deleted saved search
+     */
+    public void searchDeleted(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Query query = queries.remove(id);
+                if (query != null) {
+                    List<Query> filed = query.anchor == null ? unanchored : anchored.get(query.anchor).get(query.anchorKey);
+                    filed.remove(query);
+                    if (filed.isEmpty() && query.anchor != null) {
+                        anchored.get(query.anchor).remove(query.anchorKey);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Reports a new listing to the saved searches its property matches, once the current transaction commits.
+     *
+     * @param listing the new listing
+     */
+    public void listingCreated(Listing listing) {
+        Long listingId = listing.getId();
+        Long propertyId = listing.getProperty().getId();
+        TransactionCallbacks.afterCommit(() -> {
+            long[] current = matchesByProperty.getOrDefault(propertyId, NO_MATCHES);
+            List<SavedSearchMatch> matches = new ArrayList<>(current.length);
+            for (long searchId : current) {
+                matches.add(new SavedSearchMatch(searchId, propertyId, listingId));
+            }
+            enqueue(matches);
+        });
+    }
+
+    /**
+     * Reloads properties in batches and re-matches them, reporting the searches they newly match.
+     * Runs on the matcher thread; a failed batch is logged and skipped.
+     */
+    private void reload(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+            try {
+                propertyRepository.findAllById(batch).forEach(this::index);
+            } catch (RuntimeException e) {
+                log.warn("Could not re-match {} properties whose status changed", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Finds the saved searches a property matches, testing only the candidates filed under its values.
+     *
+     * @return the sorted IDs of the matching searches
+     */
+    private long[] match(Property property) {
+        String zipCode = normalize(property.getZipCode());
+        String city = normalize(property.getCity());
+        String state = normalize(property.getState());
+        List<List<String>> fields = null;
+        List<Long> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (queries.isEmpty()) {
+                return NO_MATCHES;
+            }
+            List<List<Query>> candidates = new ArrayList<>();
+            candidates.add(unanchored);
+            addCandidates(candidates, Anchor.ZIP_CODE, zipCode);
+            addCandidates(candidates, Anchor.CITY, city);
+            addCandidates(candidates, Anchor.STATE, state);
+            addCandidates(candidates, Anchor.TYPE, property.getPropertyType() == null ? null : property.getPropertyType().name());
+            if (!anchored.get(Anchor.TERM).isEmpty()) {
+                fields = PropertyTextIndex.tokenizeFields(property);
+                Set<String> terms = new HashSet<>();
+                fields.forEach(terms::addAll);
+                for (String term : terms) {
+                    addCandidates(candidates, Anchor.TERM, term);
+                }
+            }
+            for (List<Query> filed : candidates) {
+                for (Query query : filed) {
+                    if (query.clauses != null && fields == null) {
+                        fields = PropertyTextIndex.tokenizeFields(property);
+                    }
+                    if (query.matches(property, zipCode, city, state, fields)) {
+                        matched.add(query.id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long[] ids = matched.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private void addCandidates(List<List<Query>> candidates, Anchor anchor, String key) {
+        if (key != null) {
+            List<Query> filed = anchored.get(anchor).get(key);
+            if (filed != null) {
+                candidates.add(filed);
+            }
+        }
+    }
+
+    private void addLocked(SavedSearch search) {
+        Query query = new Query(search.getId(), search.getCriteria());
+        queries.put(query.id, query);
+        if (query.anchor == null) {
+            unanchored.add(query);
+        } else {
+            anchored.get(query.anchor).computeIfAbsent(query.anchorKey, key -> new ArrayList<>()).add(query);
+        }
+    }
+
+    /**
+     * Queues matches for the next digest. They are saved on the matcher thread, after the write
+     * committed, so in their own transaction, and a failure is logged rather than failing the write.
+     */
+    private void enqueue(List<SavedSearchMatch> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        matcher.execute(() -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            try {
+                transaction.executeWithoutResult(status -> savedSearchMatchRepository.saveAll(matches));
+            } catch (RuntimeException e) {
+                log.warn("Could not queue {} saved search matches of property {}", matches.size(),
+                    matches.get(0).getPropertyId(), e);
+            }
+        });
+    }
+
+    /**
+     * Lets the matches queued before shutdown be saved.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        matcher.shutdown();
+        if (!matcher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Dropped saved search matches still queued at shutdown");
+            matcher.shutdownNow();
+        }
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return Arrays.stream(merged).sorted().distinct().toArray();
+    }
+
+    static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A saved search prepared for matching. Text values are normalized like the database collation
+     * compares them: ignoring case and surrounding whitespace.
+     */
+    private static final class Query {
+
+        private final long id;
+        private final PropertySearchCriteria criteria;
+        private final String zipCode;
+        private final String city;
+        private final String state;
+        private final List<PropertyTextIndex.Clause> clauses;
+        private final Anchor anchor;
+        private final String anchorKey;
+
+        Query(long id, PropertySearchCriteria criteria) {
+            this.id = id;
+            this.criteria = criteria;
+            this.zipCode = normalize(criteria.getZipCode());
+            this.city = normalize(criteria.getCity());
+            this.state = normalize(criteria.getState());
+            List<PropertyTextIndex.Clause> parsed = criteria.getQ() == null ? List.of() : PropertyTextIndex.parse(criteria.getQ());
+            this.clauses = parsed.isEmpty() ? null : parsed;
+            String term = clauses == null ? null : anchorTerm(clauses);
+
+            if (zipCode != null) {
+                anchor = Anchor.ZIP_CODE;
+                anchorKey = zipCode;
+            } else if (city != null) {
+                anchor = Anchor.CITY;
+                anchorKey = city;
+            } else if (term != null) {
+                anchor = Anchor.TERM;
+                anchorKey = term;
+            } else if (state != null) {
+                anchor = Anchor.STATE;
+                anchorKey = state;
+            } else if (criteria.getType() != null) {
+                anchor = Anchor.TYPE;
+                anchorKey = criteria.getType().name();
+            } else {
+                anchor = null;
+                anchorKey = null;
+            }
+        }
+
+        /**
+         * Picks the longest whole term of the query, as the likeliest to be rare; prefixes cannot be looked up.
+         */
+        private static String anchorTerm(List<PropertyTextIndex.Clause> clauses) {
+            String longest = null;
+            for (PropertyTextIndex.Clause clause : clauses) {
+                if (!clause.prefix) {
+                    for (String term : clause.terms) {
+                        if (longest == null || term.length() > longest.length()) {
+                            longest = term;
+                        }
+                    }
+                }
+            }
+            return longest;
+        }
+
+        boolean matches(Property property, String propertyZipCode, String propertyCity, String propertyState,
+                List<List<String>> fields) {
+            return (criteria.getType() == null || criteria.getType() == property.getPropertyType())
+                && (criteria.getStatus() == null || criteria.getStatus() == property.getStatus())
+                && (zipCode == null || zipCode.equals(propertyZipCode))
+                && (city == null || city.equals(propertyCity))
+                && (state == null || state.equals(propertyState))
+                && within(property.getPrice(), criteria.getMinPrice(), criteria.getMaxPrice())
+                && within(property.getBedrooms(), criteria.getMinBedrooms(), criteria.getMaxBedrooms())
+                && within(property.getBathrooms(), criteria.getMinBathrooms(), null)
+                && within(property.getSquareFeet(), criteria.getMinSquareFeet(), criteria.getMaxSquareFeet())
+                && (clauses == null || PropertyTextIndex.matches(clauses, fields));
+        }
+
+        /**
+         * Like a SQL range predicate, a missing value never satisfies a bound.
+         */
+        private static <T extends Comparable<T>> boolean within(T value, T min, T max) {
+            if (min == null && max == null) {
+                return true;
+            }
+            return value != null && (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+        }
+    }
+}
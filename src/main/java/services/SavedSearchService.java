@@ -0,0 +1,236 @@
+package com.realestate.app.services;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.realestate.app.exceptionHandlers.ResourceNotFoundException;
+import com.realestate.app.models.PropertySummary;
+import com.realestate.app.models.SavedSearch;
+import com.realestate.app.models.SavedSearchMatch;
+import com.realestate.app.repositories.PropertyRepository;
+import com.realestate.app.repositories.SavedSearchMatchRepository;
+import com.realestate.app.repositories.SavedSearchRepository;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Service class that manages saved searches and emails their new matches.
+ * Matches are found as properties and listings are written, by the {@link SavedSearchPercolator},
+ * and queued; a scheduled job sends each user one digest of everything queued for their searches.
+ */
+@Service
+public class SavedSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchService.class);
+
+    /**
+     * Queued matches read per round of a digest run.
+     */
+    static final int DIGEST_BATCH_SIZE = 5000;
+
+    /**
+     * Matches listed per saved search in one digest; the rest are only counted.
+     */
+    static final int MAX_MATCHES_PER_SEARCH = 20;
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private SavedSearchMatchRepository savedSearchMatchRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private SavedSearchPercolator savedSearchPercolator;
+
+    @Autowired
+    private PropertySearchService propertySearchService;
+
+    @Autowired
+    private PropertyIndexManager propertyIndexManager;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Saves a search for a user. Properties that already match it are not reported; only those
+     * created, changed or listed afterwards are.
+     *
+     * @param username the user saving the search
+     * @param search the search, with the address to send its matches to
+     * @return the saved search
+     * @throws IllegalArgumentException if the email address is missing or the criteria set no filter
+     */
+    @Transactional
+    public SavedSearch createSavedSearch(String username, SavedSearch search) {
+        if (search.getEmail() == null || !search.getEmail().contains("@")) {
+            throw new IllegalArgumentException("A valid email address is required");
+        }
+        if (search.getCriteria() == null) {
+            throw new IllegalArgumentException("The saved search must set at least one criterion");
+        }
+        propertyIndexManager.requireReady();
+        // Also rejects criteria without any filter, which would match every property
+        List<Long> matchingIds = propertySearchService.findIds(search.getCriteria());
+        search.setId(null);
+        search.setUsername(username);
+        SavedSearch savedSearch = savedSearchRepository.save(search);
+        savedSearchPercolator.searchSaved(savedSearch, matchingIds);
+        return savedSearch;
+    }
+
+    /**
+     * Retrieves the saved searches of a user.
+     *
+     * @param username the user
+     * @return the user's saved searches, oldest first
+     */
+    public List<SavedSearch> findSavedSearches(String username) {
+        return savedSearchRepository.findByUsernameOrderByIdAsc(username);
+    }
+
+    /**
+     * Deletes a saved search of a user, with its matches not sent yet.
+     *
+     * @param username the user
+     * @param id the ID of the saved search
+     * @throws ResourceNotFoundException if the user has no saved search with the given ID
+     */
+    @Transactional
+    public void deleteSavedSearch(String username, Long id) {
+        SavedSearch search = savedSearchRepository.findById(id)
+            .filter(found -> found.getUsername().equals(username))
+            .orElseThrow(() -> new ResourceNotFoundException("Saved search not found with id: " + id));
+        savedSearchMatchRepository.deleteBySavedSearchId(id);
+        savedSearchRepository.delete(search);
+        savedSearchPercolator.searchDeleted(id);
+    }
+
+    /**
+     * Sends each user one email listing the queued matches of their saved searches, then deletes the
+     * sent matches. Matches whose email fails stay queued for the next run.
+     */
+    @Scheduled(fixedDelayString = "${realestate.saved-search.digest-interval:PT1H}")
+    public void sendDigests() {
+        long afterId = 0;
+        int emails = 0;
+        List<SavedSearchMatch> pending;
+        do {
+            pending = savedSearchMatchRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(DIGEST_BATCH_SIZE));
+            if (pending.isEmpty()) {
+                break;
+            }
+            afterId = pending.get(pending.size() - 1).getId();
+            emails += sendDigests(pending);
+        } while (pending.size() == DIGEST_BATCH_SIZE);
+        if (emails > 0) {
+            log.info("Sent {} saved search digests", emails);
+        }
+    }
+
+    /**
+     * Sends the digests of one batch of queued matches.
+     *
+     * @return the number of emails sent
+     */
+    private int sendDigests(List<SavedSearchMatch> pending) {
+        Map<Long, SavedSearch> searches = savedSearchRepository
+            .findAllById(pending.stream().map(SavedSearchMatch::getSavedSearchId).collect(Collectors.toSet()))
+            .stream().collect(Collectors.toMap(SavedSearch::getId, Function.identity()));
+        Map<Long, PropertySummary> properties = propertyRepository
+            .findSummariesByIdIn(pending.stream().map(SavedSearchMatch::getPropertyId).collect(Collectors.toSet()))
+            .stream().collect(Collectors.toMap(PropertySummary::id, Function.identity()));
+
+        // Group by recipient, then by search, keeping one entry per property in the order found
+        Map<String, Map<SavedSearch, Map<Long, SavedSearchMatch>>> digests = new LinkedHashMap<>();
+        Map<String, List<Long>> matchIdsByEmail = new LinkedHashMap<>();
+        List<Long> orphaned = new ArrayList<>();
+        for (SavedSearchMatch match : pending) {
+            SavedSearch search = searches.get(match.getSavedSearchId());
+            if (search == null || !properties.containsKey(match.getPropertyId())) {
+                // The search or the property was deleted since the match was queued
+                orphaned.add(match.getId());
+                continue;
+            }
+            digests.computeIfAbsent(search.getEmail(), email -> new LinkedHashMap<>())
+                .computeIfAbsent(search, s -> new LinkedHashMap<>())
+                .merge(match.getPropertyId(), match, (first, later) -> later.getListingId() != null ? later : first);
+            matchIdsByEmail.computeIfAbsent(search.getEmail(), email -> new ArrayList<>()).add(match.getId());
+        }
+        deleteMatches(orphaned);
+
+        int sent = 0;
+        for (Map.Entry<String, Map<SavedSearch, Map<Long, SavedSearchMatch>>> digest : digests.entrySet()) {
+            List<Long> matchIds = matchIdsByEmail.get(digest.getKey());
+            try {
+                emailService.sendEmail(digest.getKey(), "New properties matching your saved searches",
+                    formatDigest(digest.getValue(), properties));
+                deleteMatches(matchIds);
+                sent++;
+            } catch (MailException e) {
+                log.warn("Could not send a saved search digest of {} matches; keeping them queued", matchIds.size(), e);
+            }
+        }
+        return sent;
+    }
+
+    private void deleteMatches(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> savedSearchMatchRepository.deleteByIdIn(ids));
+        }
+    }
+
+    private static String formatDigest(Map<SavedSearch, Map<Long, SavedSearchMatch>> matchesBySearch,
+            Map<Long, PropertySummary> properties) {
+        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
+        StringBuilder body = new StringBuilder("Your saved searches have new matches.\n");
+        for (Map.Entry<SavedSearch, Map<Long, SavedSearchMatch>> entry : matchesBySearch.entrySet()) {
+            SavedSearch search = entry.getKey();
+            Set<Long> propertyIds = entry.getValue().keySet();
+            body.append('\n')
+                .append(search.getName() != null && !search.getName().isBlank() ? search.getName() : "Saved search " + search.getId())
+                .append(" (").append(propertyIds.size()).append(propertyIds.size() == 1 ? " match" : " matches").append(")\n");
+            int listed = 0;
+            for (SavedSearchMatch match : entry.getValue().values()) {
+                if (listed++ == MAX_MATCHES_PER_SEARCH) {
+                    body.append("  ... and ").append(propertyIds.size() - MAX_MATCHES_PER_SEARCH).append(" more\n");
+                    break;
+                }
+                PropertySummary property = properties.get(match.getPropertyId());
+                body.append("  - ").append(property.title());
+                if (property.city() != null) {
+                    body.append(", ").append(property.city());
+                }
+                if (property.price() != null) {
+                    body.append(": ").append(currency.format(property.price()));
+                }
+                body.append(match.getListingId() != null ? " (newly listed)" : "")
+                    .append(" [property ").append(property.id()).append("]\n");
+            }
+        }
+        return body.toString();
+    }
+}
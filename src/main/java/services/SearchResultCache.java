@@ -0,0 +1,265 @@
+package com.realestate.app.services;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.PropertySearchCriteria;
+import com.realestate.app.models.SearchCacheStats;
+
+/**
+ * Caches the IDs a search returned, keyed on a canonical form of its parameters, so equivalent
+ * requests share an entry whatever the case, spacing or order of their parameters. Only IDs are
+ * cached; the rows are loaded fresh on every hit.
+ * <p>
+ * Each entry depends on one tag: the ZIP code, city or state its search is restricted to, the
+ * finest one set, or all properties when it has no location filter. A property write bumps the
+ * generation of the tags of its old and new location and of all properties, and an entry is only
+ * served while its tag is at the generation it was computed at, so a write in one city leaves the
+ * searches of every other city cached. Reading the generation before running a search also keeps
+ * a result computed concurrently with a write from being cached as current.
+ * <p>
+ * Hits and misses are counted per key, to show which searches are worth caching.
+ */
+@Component
+public class SearchResultCache implements PropertyIndex {
+
+    /**
+     * Keys whose hit and miss counts are kept; the least recently used are dropped beyond this.
+     */
+    static final int MAX_TRACKED_KEYS = 10_000;
+
+    private static final String ALL_PROPERTIES_TAG = "properties";
+
+    private final Cache<String, CachedPage> entries;
+
+    private final Cache<String, KeyStats> stats = Caffeine.newBuilder().maximumSize(MAX_TRACKED_KEYS).build();
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong allProperties = counter(ALL_PROPERTIES_TAG);
+
+    /**
+     * The generations of the ZIP code, city and state tags of each property, so a write can bump
+     * the tags of the location it moves away from.
+     */
+    private final Map<Long, AtomicLong[]> locationById = new ConcurrentHashMap<>();
+
+    /**
+     * False until the startup rebuild has recorded every property's location.
+     */
+    private volatile boolean enabled;
+
+    public SearchResultCache(@Value("${realestate.search-cache.spec}") String spec) {
+        this.entries = Caffeine.from(spec).build();
+    }
+
+    /**
+     * A cached page of results.
+     *
+     * @param ids the IDs of the results, in order
+     * @param total the total number of results, if it was known
+     * @param hasNext whether another page follows
+     * @param tag the generation counter of the tag the page depends on
+     * @param generation the generation of the tag the page was computed at
+     */
+    record CachedPage(List<Long> ids, Long total, boolean hasNext, AtomicLong tag, long generation) {
+    }
+
+    @Override
+    public void index(Property property) {
+        AtomicLong[] location = {
+            counter("zip:" + normalize(property.getZipCode())),
+            counter("city:" + normalize(property.getCity())),
+            counter("state:" + normalize(property.getState()))
+        };
+        invalidate(locationById.put(property.getId(), location));
+        invalidate(location);
+    }
+
+    @Override
+    public void remove(Long id) {
+        invalidate(locationById.remove(id));
+    }
+
+    @Override
+    public void statusChanged(Collection<Long> ids, PropertyStatus status) {
+        for (Long id : ids) {
+            invalidate(locationById.get(id));
+        }
+    }
+
+    @Override
+    public void endBulkLoad() {
+        enabled = true;
+    }
+
+    /**
+     * Looks up a cached page, counting a hit or a miss for the key.
+     *
+     * @param key the canonical key of the request
+     * @return the cached page, or {@code null} if it is missing or out of date
+     */
+    CachedPage get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPage page = entries.getIfPresent(key);
+        boolean hit = page != null && page.tag().get() == page.generation();
+        KeyStats keyStats = stats.get(key, k -> new KeyStats());
+        (hit ? keyStats.hits : keyStats.misses).increment();
+        return hit ? page : null;
+    }
+
+    /**
+     * Reads the current generation of a tag; take it before running the request whose result is cached.
+     *
+     * @param tag the tag
+     * @return the generation to pass to {@link #put}
+     */
+    long generation(String tag) {
+        AtomicLong counter = generations.get(tag);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Caches a page of results, unless its tag has moved past the generation it was computed at.
+     * Pages of tags no property has had are not cached: counters are only created by writes, so
+     * requests naming arbitrary locations cannot grow the map of generations.
+     *
+     * @param key the canonical key of the request
+     * @param tag the tag the page depends on
+     * @param generation the generation of the tag read before the request ran
+     * @param ids the IDs of the results, in order
+     * @param total the total number of results, or {@code null} if unknown
+     * @param hasNext whether another page follows
+     */
+    void put(String key, String tag, long generation, List<Long> ids, Long total, boolean hasNext) {
+        AtomicLong counter = generations.get(tag);
+        if (enabled && counter != null && counter.get() == generation) {
+            entries.put(key, new CachedPage(List.copyOf(ids), total, hasNext, counter, generation));
+        }
+    }
+
+    /**
+     * Reports the hit rates of the most requested keys.
+     *
+     * @param limit the maximum number of keys
+     * @return the statistics of each key, most requested first
+     */
+    public List<SearchCacheStats> stats(int limit) {
+        return stats.asMap().entrySet().stream()
+            .map(entry -> {
+                CachedPage page = entries.getIfPresent(entry.getKey());
+                return new SearchCacheStats(entry.getKey(), entry.getValue().hits.sum(), entry.getValue().misses.sum(),
+                    page != null && page.tag().get() == page.generation());
+            })
+            .sorted(Comparator.comparingLong(SearchCacheStats::getRequests).reversed())
+            .limit(Math.max(0, limit))
+            .toList();
+    }
+
+    /**
+     * Builds the canonical key of a property search: filters in a fixed order, text lower-cased
+     * with collapsed whitespace, numbers without trailing zeros, and unset filters left out.
+     *
+     * @param criteria the search filters
+     * @param page the page number
+     * @param size the page size, after clamping
+     * @param sort the requested sort
+     * @return the key
+     */
+    static String searchKey(PropertySearchCriteria criteria, int page, int size, Sort sort) {
+        StringBuilder key = new StringBuilder("search?");
+        append(key, "q", criteria.getQ() == null || criteria.getQ().isBlank() ? null
+            : criteria.getQ().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+        append(key, "type", criteria.getType());
+        append(key, "status", criteria.getStatus());
+        append(key, "city", normalize(criteria.getCity()));
+        append(key, "state", normalize(criteria.getState()));
+        append(key, "zipCode", normalize(criteria.getZipCode()));
+        append(key, "minPrice", canonical(criteria.getMinPrice()));
+        append(key, "maxPrice", canonical(criteria.getMaxPrice()));
+        append(key, "minBedrooms", criteria.getMinBedrooms());
+        append(key, "maxBedrooms", criteria.getMaxBedrooms());
+        append(key, "minBathrooms", criteria.getMinBathrooms());
+        append(key, "minSquareFeet", criteria.getMinSquareFeet());
+        append(key, "maxSquareFeet", criteria.getMaxSquareFeet());
+        key.append("page=").append(page).append("&size=").append(size);
+        for (Sort.Order order : sort) {
+            key.append("&sort=").append(order.getProperty()).append(',').append(order.getDirection().name().toLowerCase(Locale.ROOT));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Picks the tag of a property search: its finest location filter, or all properties.
+     *
+     * @param criteria the search filters
+     * @return the tag
+     */
+    static String searchTag(PropertySearchCriteria criteria) {
+        if (normalize(criteria.getZipCode()) != null) {
+            return "zip:" + normalize(criteria.getZipCode());
+        }
+        if (normalize(criteria.getCity()) != null) {
+            return "city:" + normalize(criteria.getCity());
+        }
+        if (normalize(criteria.getState()) != null) {
+            return "state:" + normalize(criteria.getState());
+        }
+        return ALL_PROPERTIES_TAG;
+    }
+
+    /**
+     * Returns the generation counter of a tag, creating it; only called for locations being written.
+     */
+    private AtomicLong counter(String tag) {
+        return generations.computeIfAbsent(tag, t -> new AtomicLong());
+    }
+
+    private void invalidate(AtomicLong[] location) {
+        if (location != null) {
+            for (AtomicLong tag : location) {
+                tag.incrementAndGet();
+            }
+        }
+        allProperties.incrementAndGet();
+    }
+
+    private static void append(StringBuilder key, String name, Object value) {
+        if (value != null) {
+            key.append(name).append('=').append(value).append('&');
+        }
+    }
+
+    private static String canonical(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Matches the database collation, which ignores case and trailing spaces.
+     */
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class KeyStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
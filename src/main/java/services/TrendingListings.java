@@ -0,0 +1,312 @@
+package com.realestate.app.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the most viewed listings of the last hour and the last day, overall and per city, in
+ * memory bounded regardless of how many listings there are.
+ * <p>
+ * Each window is a ring of time buckets: twelve of five minutes for the hour, twenty-four of an
+ * hour for the day. A bucket counts the views of every listing approximately in a Count-Min
+ * Sketch, and keeps the heavy hitters of each city, and of all cities, in Space-Saving sets of
+ * fixed capacity: a listing whose estimated count exceeds the smallest one monitored replaces it.
+ * A ranking sums the sketch estimates of the candidates monitored in the window's buckets, so its
+ * counts can only overestimate, by at most a small fraction of the window's views.
+ * <p>
+ * Recording a view never blocks: sketch cells are atomic counters, expired buckets are replaced
+ * with a compare-and-set, and only one thread at a time trims a full Space-Saving set while the
+ * others skip it.
+ */
+@Component
+public class TrendingListings {
+
+    /**
+     * Listings a ranking may return.
+     */
+    public static final int MAX_RESULTS = 25;
+
+    /**
+     * Listings monitored per city and bucket, above {@link #MAX_RESULTS} so the tail of a ranking is reliable.
+     */
+    static final int CAPACITY = 2 * MAX_RESULTS;
+
+    /**
+     * Cities with their own heavy hitters per bucket; views in further cities only count towards all
+     * cities, and rankings of those cities fall back to the heavy hitters of all cities.
+     */
+    public static final int MAX_CITIES_PER_BUCKET = 128;
+
+    /**
+     * Counters per row of a sketch; a power of two.
+     */
+    static final int SKETCH_WIDTH = 4096;
+
+    /**
+     * Rows of a sketch, each with its own hash function.
+     */
+    static final int SKETCH_DEPTH = 4;
+
+    private static final String ALL_CITIES = "";
+
+    /**
+     * The windows rankings are computed over.
+     */
+    public enum Window {
+        HOUR(TimeUnit.MINUTES.toMillis(5), 12),
+        DAY(TimeUnit.HOURS.toMillis(1), 24);
+
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(long bucketMillis, int buckets) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        /**
+         * Parses a window name case-insensitively.
+         *
+         * @param value {@code hour} or {@code day}
+         * @return the matching window
+         * @throws IllegalArgumentException if the value names no window
+         */
+        public static Window parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported window '" + value + "'; use hour or day");
+            }
+        }
+    }
+
+    /**
+     * A listing of a ranking.
+     *
+     * @param listingId the ID of the listing
+     * @param views the estimated number of views within the window
+     */
+    public record Entry(long listingId, long views) {
+    }
+
+    /**
+     * A ranking of a window.
+     *
+     * @param entries the ranked listings, most viewed first
+     * @param mixedCities whether the entries may include listings of other cities than the one
+     *     requested, because some bucket of the window had no heavy hitters of its own for it; the
+     *     caller then drops them and cuts the ranking to the limit itself
+     */
+    public record Ranking(List<Entry> entries, boolean mixedCities) {
+    }
+
+    private final Map<Window, AtomicReferenceArray<Bucket>> rings = Map.of(
+        Window.HOUR, new AtomicReferenceArray<>(Window.HOUR.buckets),
+        Window.DAY, new AtomicReferenceArray<>(Window.DAY.buckets));
+
+    /**
+     * Counts a view of a listing in every window.
+     *
+     * @param listingId the ID of the listing
+     * @param city the city of the listing's property, or {@code null}
+     */
+    public void viewed(long listingId, String city) {
+        long now = System.currentTimeMillis();
+        String cityKey = normalize(city);
+        for (Window window : Window.values()) {
+            bucket(window, now).record(listingId, cityKey);
+        }
+    }
+
+    /**
+     * Ranks the most viewed listings of a window. A city that a bucket could not give heavy hitters
+     * of its own, because it already had {@link #MAX_CITIES_PER_BUCKET} others, is ranked from the
+     * heavy hitters of all cities in that bucket instead; its busiest listings are then found as long
+     * as they rank among those of all cities.
+     *
+     * @param window the window
+     * @param city the city to rank, or {@code null} for all cities
+     * @param limit the maximum number of listings, capped at {@link #MAX_RESULTS}; not applied to a
+     *     ranking of mixed cities
+     * @return the most viewed listings, most viewed first
+     */
+    public Ranking trending(Window window, String city, int limit) {
+        String cityKey = city == null || city.isBlank() ? ALL_CITIES : normalize(city);
+        long current = System.currentTimeMillis() / window.bucketMillis;
+        AtomicReferenceArray<Bucket> ring = rings.get(window);
+        List<Bucket> live = new ArrayList<>(window.buckets);
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.epoch > current - window.buckets) {
+                live.add(bucket);
+            }
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        boolean mixedCities = false;
+        for (Bucket bucket : live) {
+            SpaceSaving heavyHitters = bucket.byCity.get(cityKey);
+            if (heavyHitters == null && bucket.citiesFull) {
+                heavyHitters = bucket.allCities;
+                mixedCities = true;
+            }
+            if (heavyHitters != null) {
+                candidates.addAll(heavyHitters.counts.keySet());
+            }
+        }
+        List<Entry> ranking = new ArrayList<>(candidates.size());
+        for (Long candidate : candidates) {
+            long views = 0;
+            for (Bucket bucket : live) {
+                views += bucket.sketch.estimate(candidate);
+            }
+            ranking.add(new Entry(candidate, views));
+        }
+        ranking.sort(Comparator.comparingLong(Entry::views).reversed().thenComparingLong(Entry::listingId));
+        if (mixedCities) {
+            return new Ranking(List.copyOf(ranking), true);
+        }
+        return new Ranking(List.copyOf(ranking.subList(0, Math.min(ranking.size(), Math.max(0, Math.min(limit, MAX_RESULTS))))),
+            false);
+    }
+
+    /**
+     * Returns the bucket of the window that covers the given time, replacing the expired bucket in its slot.
+     */
+    private Bucket bucket(Window window, long now) {
+        long epoch = now / window.bucketMillis;
+        AtomicReferenceArray<Bucket> ring = rings.get(window);
+        int slot = (int) (epoch % window.buckets);
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.epoch < epoch) {
+            Bucket fresh = new Bucket(epoch);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = ring.get(slot);
+        }
+        return bucket;
+    }
+
+    private static String normalize(String city) {
+        return city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The views of one time bucket of a window.
+     */
+    private static final class Bucket {
+        private final long epoch;
+        private final CountMinSketch sketch = new CountMinSketch();
+        private final Map<String, SpaceSaving> byCity = new ConcurrentHashMap<>();
+        private final SpaceSaving allCities = new SpaceSaving();
+
+        /**
+         * Set once a city was refused heavy hitters of its own.
+         */
+        private volatile boolean citiesFull;
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+            byCity.put(ALL_CITIES, allCities);
+        }
+
+        private void record(long listingId, String city) {
+            long estimate = sketch.add(listingId);
+            allCities.offer(listingId, estimate);
+            if (city != null) {
+                SpaceSaving heavyHitters = byCity.get(city);
+                if (heavyHitters == null && byCity.size() <= MAX_CITIES_PER_BUCKET) {
+                    heavyHitters = byCity.computeIfAbsent(city, c -> new SpaceSaving());
+                }
+                if (heavyHitters != null) {
+                    heavyHitters.offer(listingId, estimate);
+                } else {
+                    citiesFull = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Approximate counts of every listing in fixed memory. An estimate is never below the true
+     * count, and exceeds it by at most {@code e / SKETCH_WIDTH} of all counts with probability
+     * {@code 1 - e^-SKETCH_DEPTH}.
+     */
+    private static final class CountMinSketch {
+        private final AtomicIntegerArray cells = new AtomicIntegerArray(SKETCH_DEPTH * SKETCH_WIDTH);
+
+        /**
+         * @return the estimated count of the key after adding one
+         */
+        private long add(long key) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                estimate = Math.min(estimate, cells.incrementAndGet(index(row, key)));
+            }
+            return estimate;
+        }
+
+        private long estimate(long key) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                estimate = Math.min(estimate, cells.get(index(row, key)));
+            }
+            return estimate;
+        }
+
+        private static int index(int row, long key) {
+            // SplitMix64 finalizer, seeded per row
+            long hash = key + 0x9E3779B97F4A7C15L * (row + 1);
+            hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+            hash ^= hash >>> 31;
+            return row * SKETCH_WIDTH + (int) (hash & (SKETCH_WIDTH - 1));
+        }
+    }
+
+    /**
+     * The listings with the highest counts seen, at most {@link #CAPACITY} of them.
+     * Once full, a listing enters only with a count above the smallest one monitored, which it evicts.
+     */
+    private static final class SpaceSaving {
+        private final Map<Long, Long> counts = new ConcurrentHashMap<>();
+        private final AtomicBoolean trimming = new AtomicBoolean();
+
+        /**
+         * The smallest count monitored after the last trim.
+         */
+        private volatile long floor;
+
+        private void offer(long listingId, long count) {
+            if (count <= floor && !counts.containsKey(listingId)) {
+                return;
+            }
+            counts.put(listingId, count);
+            if (counts.size() > CAPACITY && trimming.compareAndSet(false, true)) {
+                try {
+                    while (counts.size() > CAPACITY) {
+                        counts.entrySet().stream()
+                            .min(Map.Entry.comparingByValue())
+                            .ifPresent(min -> counts.remove(min.getKey(), min.getValue()));
+                    }
+                    floor = counts.values().stream().mapToLong(Long::longValue).min().orElse(0);
+                } finally {
+                    trimming.set(false);
+                }
+            }
+        }
+    }
+}
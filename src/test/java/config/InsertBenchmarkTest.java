@@ -0,0 +1,182 @@
+package com.realestate.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.function.IntFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+
+/**
+ * Measures insert throughput with IDENTITY IDs, as properties had before, against IDs allocated in
+ * pooled blocks from {@code id_blocks}, as they have now. The same rows are inserted into two tables
+ * that differ only in their ID generator, in transactions of {@code commit-interval} rows flushed
+ * every JDBC batch, and the rows per second and JDBC statements prepared are printed for each.
+ * <p>
+ * Runs against the configured MySQL database only when asked to, with {@code -Dbenchmark=true}
+ * ({@code -Dbenchmark.rows=N} to change the row count), and deletes its rows afterwards; the
+ * properties table and its in-memory indexes are never touched.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.mapping-resources=META-INF/insert-benchmark-orm.xml",
+    "spring.jpa.hibernate.ddl-auto=update",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertBenchmarkTest {
+
+    @Value("${benchmark.rows:20000}")
+    private int rows;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int batchSize;
+
+    @Value("${realestate.import.commit-interval:5000}")
+    private int commitInterval;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void pooledIdsBatchInsertsThatIdentityIdsCannot() {
+        // Warm up connections, statement caches and both ID generators
+        insert(IdentityRow::new, Math.min(rows, 1000));
+        insert(PooledRow::new, Math.min(rows, 1000));
+
+        Run identity = run("IDENTITY", IdentityRow::new);
+        Run pooled = run("pooled", PooledRow::new);
+
+        // IDENTITY makes Hibernate execute each insert on its own to read the generated ID back
+        assertTrue(identity.statements() >= rows, identity.toString());
+        assertTrue(pooled.statements() < identity.statements() / 2, pooled + " vs " + identity);
+        assertEquals(rows + Math.min(rows, 1000), count(PooledRow.class));
+    }
+
+    @AfterEach
+    void deleteRows() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            deleteAll(IdentityRow.class);
+            deleteAll(PooledRow.class);
+        });
+    }
+
+    private Run run(String name, IntFunction<BenchmarkRow> row) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        insert(row, rows);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        Run run = new Run(name, rows / seconds, statistics.getPrepareStatementCount());
+        System.out.printf("%s: %d rows in %.2f s = %.0f rows/s, %d JDBC statements prepared%n",
+            name, rows, seconds, run.rowsPerSecond(), run.statements());
+        return run;
+    }
+
+    private void insert(IntFunction<BenchmarkRow> row, int count) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int start = 0; start < count; start += commitInterval) {
+            int first = start;
+            int end = Math.min(count, start + commitInterval);
+            transaction.executeWithoutResult(status -> {
+                for (int i = first; i < end; i++) {
+                    entityManager.persist(row.apply(i));
+                    if ((i - first + 1) % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+    }
+
+    private <T> void deleteAll(Class<T> type) {
+        CriteriaDelete<T> delete = entityManager.getCriteriaBuilder().createCriteriaDelete(type);
+        delete.from(type);
+        entityManager.createQuery(delete).executeUpdate();
+    }
+
+    private long count(Class<?> type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        query.select(cb.count(query.from(type)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private record Run(String name, double rowsPerSecond, long statements) {
+    }
+
+    /**
+     * The columns of a benchmark row, a subset of a property's; mapped in {@code insert-benchmark-orm.xml}.
+     */
+    abstract static class BenchmarkRow {
+        String title;
+        String description;
+        BigDecimal price;
+        String address;
+        String city;
+        String zipCode;
+
+        BenchmarkRow() {
+        }
+
+        BenchmarkRow(int i) {
+            title = "Benchmark row " + i;
+            description = "Inserted by InsertBenchmarkTest";
+            price = BigDecimal.valueOf(100_000 + i % 900_000);
+            address = i + " Benchmark Street";
+            city = "Benchmark City";
+            zipCode = String.format("%05d", i % 100_000);
+        }
+    }
+
+    static class IdentityRow extends BenchmarkRow {
+        Long id;
+
+        IdentityRow() {
+        }
+
+        IdentityRow(int i) {
+            super(i);
+        }
+    }
+
+    static class PooledRow extends BenchmarkRow {
+        Long id;
+
+        PooledRow() {
+        }
+
+        PooledRow(int i) {
+            super(i);
+        }
+    }
+}
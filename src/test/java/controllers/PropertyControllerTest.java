@@ -0,0 +1,130 @@
+package com.realestate.app.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.realestate.app.exceptionHandlers.IndexNotReadyException;
+import com.realestate.app.exceptionHandlers.VersionConflictException;
+import com.realestate.app.services.CollectionVersions;
+import com.realestate.app.services.ExportService;
+import com.realestate.app.services.PropertyGeoIndex;
+import com.realestate.app.services.PropertyImportService;
+import com.realestate.app.services.PropertyIndexManager;
+import com.realestate.app.services.PropertySearchService;
+import com.realestate.app.services.PropertyService;
+import com.realestate.app.services.PropertySuggestIndex;
+
+import io.github.resilience4j.springboot3.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+
+/**
+ * Checks the status codes property endpoints answer with when a request fails, with the rate
+ * limiter aspect in place, so only a rejected call is answered with 429.
+ */
+@WebMvcTest(PropertyController.class)
+@ImportAutoConfiguration({ AopAutoConfiguration.class, RateLimiterAutoConfiguration.class })
+@WithMockUser
+class PropertyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private PropertySearchService propertySearchService;
+
+    @MockitoBean
+    private PropertyGeoIndex propertyGeoIndex;
+
+    @MockitoBean
+    private PropertyIndexManager propertyIndexManager;
+
+    @MockitoBean
+    private PropertySuggestIndex propertySuggestIndex;
+
+    @MockitoBean
+    private ExportService exportService;
+
+    @MockitoBean
+    private PropertyImportService propertyImportService;
+
+    @MockitoBean
+    private CollectionVersions collectionVersions;
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/properties").param("cursor", "not a cursor!"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void searchWhileIndexesLoadIsServiceUnavailable() throws Exception {
+        doThrow(new IndexNotReadyException("Property indexes are still loading, please retry shortly."))
+            .when(propertyIndexManager).requireReady();
+
+        mockMvc.perform(get("/api/properties/suggest").param("prefix", "spr"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+
+    @Test
+    void patchAgainstStaleVersionIsConflict() throws Exception {
+        when(propertyService.patchProperty(eq(7L), any(), eq(3L)))
+            .thenThrow(new VersionConflictException("Property 7 is no longer at version 3"));
+
+        mockMvc.perform(patch("/api/properties/7").with(csrf())
+                .contentType("application/merge-patch+json")
+                .header(HttpHeaders.IF_MATCH, "\"p7-3\"")
+                .content("{\"price\": 450000}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.errorCode").value("CONFLICT"));
+    }
+
+    @Test
+    void malformedPatchIsBadRequest() throws Exception {
+        when(propertyService.patchProperty(eq(7L), any(), any()))
+            .thenThrow(new IllegalArgumentException("price is required and must not be negative"));
+
+        mockMvc.perform(patch("/api/properties/7").with(csrf())
+                .contentType("application/merge-patch+json")
+                .content("{\"price\": -1}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ifMatchOfAnotherResourceIsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/properties/7").with(csrf())
+                .contentType("application/merge-patch+json")
+                .header(HttpHeaders.IF_MATCH, "\"p8-3\"")
+                .content("{\"price\": 450000}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void callsBeyondTheRateLimitAreTooManyRequests() throws Exception {
+        // exportOperations allows two calls a minute
+        mockMvc.perform(get("/api/properties/export")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/properties/export")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/properties/export")).andExpect(status().isTooManyRequests());
+    }
+}
@@ -0,0 +1,164 @@
+package com.realestate.app.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.realestate.app.models.Agent;
+import com.realestate.app.models.Listing;
+import com.realestate.app.models.ListingSummary;
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks the number of SQL statements each listing endpoint issues, so a listing page never
+ * falls back to loading its properties and agents one by one.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fetchplans;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ListingFetchPlanTest {
+
+    private static final int LISTINGS = 10;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long firstListingId;
+
+    @BeforeEach
+    void createListings() {
+        for (int i = 0; i < LISTINGS; i++) {
+            Agent agent = new Agent();
+            agent.setFirstName("Agent");
+            agent.setLastName("No. " + i);
+            agent.setEmail("agent" + i + "@example.com");
+            agent.setLicenseNumber("LIC-" + i);
+            testEntityManager.persist(agent);
+
+            Property property = new Property();
+            property.setTitle("Property " + i);
+            property.setPrice(BigDecimal.valueOf(100_000 + i * 1_000));
+            property.setPropertyType(PropertyType.RESIDENTIAL);
+            property.setStatus(PropertyStatus.AVAILABLE);
+            property.setAddress(i + " Main Street");
+            property.setCity("Nairobi");
+            property.setState("Nairobi");
+            property.setZipCode("00100");
+            testEntityManager.persist(property);
+
+            Listing listing = new Listing();
+            listing.setProperty(property);
+            listing.setAgent(agent);
+            listing.setListingDate(LocalDate.of(2024, 1, 1).plusDays(i));
+            listing.setListingPrice(property.getPrice());
+            listing.setIsFeatured(i % 2 == 0);
+            testEntityManager.persist(listing);
+            if (firstListingId == null) {
+                firstListingId = listing.getId();
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void associationsAreLazyByDefault() {
+        Listing listing = testEntityManager.find(Listing.class, firstListingId);
+
+        assertFalse(Hibernate.isInitialized(listing.getProperty()));
+        assertFalse(Hibernate.isInitialized(listing.getAgent()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * GET /api/listings
+     */
+    @Test
+    void allListingsLoadInOneStatement() {
+        List<Listing> listings = listingRepository.findAll();
+        serialize(listings);
+
+        assertEquals(LISTINGS, listings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * GET /api/listings?view=summary
+     */
+    @Test
+    void allListingSummariesLoadInOneStatement() {
+        List<ListingSummary> summaries = listingRepository.findAllSummaries();
+
+        assertEquals(LISTINGS, summaries.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Rebuilding the snapshot behind GET /api/listings/featured: the listings, then their summaries
+     */
+    @Test
+    void featuredSnapshotLoadsInTwoStatements() {
+        List<Listing> listings = listingRepository.findByIsFeaturedTrue();
+        serialize(listings);
+        List<ListingSummary> summaries = listingRepository.findSummariesByIdIn(listings.stream().map(Listing::getId).toList());
+
+        assertEquals(LISTINGS / 2, listings.size());
+        assertEquals(LISTINGS / 2, summaries.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * GET /api/listings/{id}
+     */
+    @Test
+    void listingByIdLoadsInOneStatement() {
+        Listing listing = listingRepository.findById(firstListingId).orElseThrow();
+        serialize(List.of(listing));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Reads the associations the JSON response embeds, as serializing the listings would.
+     */
+    private static void serialize(List<Listing> listings) {
+        for (Listing listing : listings) {
+            listing.getProperty().getTitle();
+            listing.getAgent().getLastName();
+        }
+    }
+}
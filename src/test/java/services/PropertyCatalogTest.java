@@ -0,0 +1,134 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+import com.realestate.app.models.PropertySearchCriteria;
+
+/**
+ * Checks filtering and ordering candidate IDs in the catalog against a scan of the indexed
+ * properties, with missing values and rows removed and recycled along the way.
+ */
+class PropertyCatalogTest {
+
+    private static final String[] CITIES = { "Austin", " austin ", "Dallas", "Boston" };
+
+    private PropertyCatalog catalog;
+    private Map<Long, Property> indexed;
+    private List<Long> candidates;
+
+    @BeforeEach
+    void indexSeededProperties() {
+        catalog = new PropertyCatalog();
+        indexed = new HashMap<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(5000);
+            if (random.nextInt(6) == 0) {
+                catalog.remove(id);
+                indexed.remove(id);
+                continue;
+            }
+            Property property = property(id, random);
+            catalog.index(property);
+            indexed.put(id, property);
+        }
+        // Candidates in shuffled order, like relevance, some of them unknown to the catalog
+        candidates = new ArrayList<>();
+        for (long id = 0; id < 6000; id++) {
+            if (random.nextBoolean()) {
+                candidates.add(id);
+            }
+        }
+        Collections.shuffle(candidates, random);
+    }
+
+    @Test
+    void unsortedFilterKeepsTheGivenOrder() {
+        PropertySearchCriteria criteria = criteria();
+
+        assertEquals(scan(criteria), catalog.filter(criteria, candidates, Sort.unsorted()));
+    }
+
+    @Test
+    void sortedFilterOrdersMissingValuesLikeMySql() {
+        PropertySearchCriteria criteria = criteria();
+        Comparator<Long> ascending = Comparator
+            .comparing((Long id) -> indexed.get(id).getCreatedAt(), Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(id -> indexed.get(id).getPrice(), Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder()))
+            .thenComparing(Comparator.naturalOrder());
+
+        List<Long> expected = new ArrayList<>(scan(criteria));
+        expected.sort(ascending);
+        assertEquals(expected, catalog.filter(criteria, candidates, Sort.by("createdAt", "price", "id")));
+
+        expected.sort(ascending.reversed());
+        assertEquals(expected, catalog.filter(criteria, candidates, Sort.by(Sort.Direction.DESC, "createdAt", "price", "id")));
+    }
+
+    @Test
+    void sortByAFieldNotInTheCatalogIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> catalog.filter(criteria(), candidates, Sort.by("title")));
+    }
+
+    private static PropertySearchCriteria criteria() {
+        PropertySearchCriteria criteria = new PropertySearchCriteria();
+        criteria.setCity("AUSTIN");
+        criteria.setMinBedrooms(1);
+        criteria.setMaxPrice(BigDecimal.valueOf(60_000));
+        return criteria;
+    }
+
+    /**
+     * @return the candidates matching the criteria of {@link #criteria()}, in their given order
+     */
+    private List<Long> scan(PropertySearchCriteria criteria) {
+        List<Long> matching = new ArrayList<>();
+        for (Long id : candidates) {
+            Property property = indexed.get(id);
+            if (property != null
+                    && property.getCity().trim().equalsIgnoreCase(criteria.getCity())
+                    && property.getBedrooms() != null && property.getBedrooms() >= criteria.getMinBedrooms()
+                    && property.getPrice() != null && property.getPrice().compareTo(criteria.getMaxPrice()) <= 0) {
+                matching.add(id);
+            }
+        }
+        return matching;
+    }
+
+    private static Property property(long id, Random random) {
+        Property property = new Property();
+        property.setId(id);
+        if (random.nextInt(10) > 0) {
+            property.setPrice(BigDecimal.valueOf(random.nextInt(100) * 1000L));
+        }
+        if (random.nextInt(10) > 0) {
+            property.setBedrooms(random.nextInt(5));
+        }
+        if (random.nextInt(10) > 0) {
+            // Few distinct times, some a nanosecond apart, so later sort columns break ties
+            property.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(random.nextInt(50)).plusNanos(random.nextInt(3)));
+        }
+        property.setCity(CITIES[random.nextInt(CITIES.length)]);
+        property.setPropertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)]);
+        property.setStatus(PropertyStatus.values()[random.nextInt(PropertyStatus.values().length)]);
+        return property;
+    }
+}
@@ -0,0 +1,146 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.realestate.app.models.GeoPoint;
+import com.realestate.app.models.Property;
+
+/**
+ * Checks the grid searches against a scan of every point, including shapes that cross the antimeridian.
+ */
+class PropertyGeoIndexTest {
+
+    private static final int POINTS = 20_000;
+
+    private PropertyGeoIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @BeforeEach
+    void indexSeededPoints() {
+        index = new PropertyGeoIndex();
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            // Half the points cluster within 5 degrees of the antimeridian, the rest anywhere
+            latitudes[i] = random.nextDouble() * 160 - 80;
+            longitudes[i] = i % 2 == 0
+                ? random.nextDouble() * 360 - 180
+                : Math.IEEEremainder(180 + random.nextDouble() * 10 - 5, 360);
+            index.index(property(i, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Test
+    void boxCrossingTheAntimeridianCoversBothSides() {
+        List<GeoPoint> found = index.withinBox(-20, 175, 20, -175, Integer.MAX_VALUE);
+
+        Set<Long> expected = new TreeSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            if (latitudes[i] >= -20 && latitudes[i] <= 20 && (longitudes[i] >= 175 || longitudes[i] <= -175)) {
+                expected.add((long) i);
+            }
+        }
+        assertEquals(expected, ids(found));
+        assertTrue(found.stream().anyMatch(p -> p.getLongitude() > 0));
+        assertTrue(found.stream().anyMatch(p -> p.getLongitude() < 0));
+    }
+
+    @Test
+    void boxEdgesAtPlusAndMinus180AreIncluded() {
+        index.index(property(POINTS, 0, 180));
+        index.index(property(POINTS + 1, 0, -180));
+
+        Set<Long> found = ids(index.withinBox(-0.5, 179.5, 0.5, -179.5, Integer.MAX_VALUE));
+
+        assertTrue(found.contains((long) POINTS));
+        assertTrue(found.contains((long) POINTS + 1));
+    }
+
+    @Test
+    void boxIsCutOffAtTheLimit() {
+        assertEquals(10, index.withinBox(-20, 175, 20, -175, 10).size());
+    }
+
+    @Test
+    void boxMatchesFullScan() {
+        List<GeoPoint> found = index.withinBox(-40, -60, 40, 60, Integer.MAX_VALUE);
+
+        Set<Long> expected = new TreeSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            if (latitudes[i] >= -40 && latitudes[i] <= 40 && longitudes[i] >= -60 && longitudes[i] <= 60) {
+                expected.add((long) i);
+            }
+        }
+        assertEquals(expected, ids(found));
+    }
+
+    @Test
+    void radiusAcrossTheAntimeridianFindsNearestFirst() {
+        double radiusKm = 300;
+        List<GeoPoint> found = index.withinRadius(10, 179.9, radiusKm, Integer.MAX_VALUE);
+
+        Set<Long> expected = new TreeSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            if (PropertyGeoIndex.haversineKm(10, 179.9, latitudes[i], longitudes[i]) <= radiusKm) {
+                expected.add((long) i);
+            }
+        }
+        assertEquals(expected, ids(found));
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getDistanceKm() <= found.get(i).getDistanceKm());
+        }
+    }
+
+    @Test
+    void polygonCrossingTheAntimeridianCoversBothSides() {
+        // A diamond centred on (0, 180)
+        double[] polygonLatitudes = {10, 0, -10, 0};
+        double[] polygonLongitudes = {180, -170, 180, 170};
+        List<GeoPoint> found = index.withinPolygon(polygonLatitudes, polygonLongitudes, Integer.MAX_VALUE);
+
+        Set<Long> expected = new TreeSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            double distanceFromCentre = Math.abs(latitudes[i]) + Math.abs(Math.IEEEremainder(longitudes[i] - 180, 360));
+            if (distanceFromCentre < 10) {
+                expected.add((long) i);
+            }
+        }
+        assertEquals(expected, ids(found));
+        assertTrue(found.stream().anyMatch(p -> p.getLongitude() > 0));
+        assertTrue(found.stream().anyMatch(p -> p.getLongitude() < 0));
+    }
+
+    @Test
+    void removedPointsAreNotFound() {
+        for (long id = 0; id < POINTS; id += 2) {
+            index.remove(id);
+        }
+
+        assertEquals(POINTS / 2, index.size());
+        assertTrue(ids(index.withinBox(-90, -180, 90, 180, Integer.MAX_VALUE)).stream().allMatch(id -> id % 2 == 1));
+    }
+
+    private static Set<Long> ids(List<GeoPoint> points) {
+        return points.stream().map(GeoPoint::getId).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static Property property(long id, double latitude, double longitude) {
+        Property property = new Property();
+        property.setId(id);
+        property.setLatitude(latitude);
+        property.setLongitude(longitude);
+        return property;
+    }
+}
@@ -0,0 +1,147 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.realestate.app.models.Property;
+
+/**
+ * Checks ranges, counts and deep pages against a sorted copy of every entry, with writes pending
+ * in the deltas on top of the base arrays and across the merges that fold them in.
+ */
+class PropertyPriceIndexTest {
+
+    private PropertyPriceIndex index;
+    private Map<Long, Long> centsById;
+    private Random random;
+
+    @BeforeEach
+    void createIndex() {
+        index = new PropertyPriceIndex();
+        centsById = new HashMap<>();
+        random = new Random(23);
+    }
+
+    @Test
+    void rangesMatchASortedCopyThroughWrites() {
+        for (int i = 0; i < 60_000; i++) {
+            long id = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                centsById.remove(id);
+            } else {
+                Property property = property(id);
+                index.index(property);
+                if (property.getPrice() == null) {
+                    centsById.remove(id);
+                } else {
+                    centsById.put(id, PropertyCatalog.toCents(property.getPrice()));
+                }
+            }
+            if (i % 2500 == 0) {
+                assertMatchesSortedCopy();
+            }
+        }
+        assertMatchesSortedCopy();
+    }
+
+    @Test
+    void pagesOfDuplicatePricesAreOrderedById() {
+        for (long id = 10; id > 0; id--) {
+            index.index(priced(id, "100000"));
+        }
+        index.index(priced(11, "99999.99"));
+        index.remove(4L);
+
+        long cents = 10_000_000;
+        assertArrayEquals(new long[] { 1, 2, 3, 5 }, index.range(cents, cents, 0, 4, false));
+        assertArrayEquals(new long[] { 6, 7, 8, 9 }, index.range(cents, cents, 4, 4, false));
+        assertArrayEquals(new long[] { 3, 2, 1, 11 }, index.range(Long.MIN_VALUE, cents, 6, 4, true));
+        assertEquals(9, index.count(cents, cents));
+    }
+
+    @Test
+    void boundsRoundInward() {
+        assertEquals(10_000_001, PropertyPriceIndex.lowerBoundCents(new BigDecimal("100000.001")));
+        assertEquals(10_000_000, PropertyPriceIndex.upperBoundCents(new BigDecimal("100000.009")));
+        assertEquals(Long.MIN_VALUE, PropertyPriceIndex.lowerBoundCents(null));
+        assertEquals(Long.MAX_VALUE, PropertyPriceIndex.upperBoundCents(null));
+    }
+
+    /**
+     * Compares counts and pages of random ranges, at random and deep offsets in both directions,
+     * with the same slices of the entries sorted by price and then ID.
+     */
+    private void assertMatchesSortedCopy() {
+        List<long[]> entries = new ArrayList<>();
+        centsById.forEach((id, cents) -> entries.add(new long[] { cents, id }));
+        entries.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        assertEquals(entries.size(), index.size());
+
+        for (int q = 0; q < 100; q++) {
+            long minCents = random.nextInt(5) == 0 ? Long.MIN_VALUE : randomCents();
+            long maxCents = random.nextInt(5) == 0 ? Long.MAX_VALUE : randomCents();
+            List<Long> ascending = new ArrayList<>();
+            for (long[] entry : entries) {
+                if (entry[0] >= minCents && entry[0] <= maxCents) {
+                    ascending.add(entry[1]);
+                }
+            }
+            List<Long> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+            String range = "[" + minCents + ", " + maxCents + "]";
+            assertEquals(ascending.size(), index.count(minCents, maxCents), range);
+
+            int limit = 1 + random.nextInt(50);
+            // The first page, a random page, the last pages and one past the end
+            long[] offsets = { 0, random.nextInt(ascending.size() + 1), Math.max(0, ascending.size() - limit),
+                Math.max(0, ascending.size() - 1), ascending.size() };
+            for (long offset : offsets) {
+                assertArrayEquals(page(ascending, offset, limit), index.range(minCents, maxCents, offset, limit, false),
+                    range + " ascending from " + offset);
+                assertArrayEquals(page(descending, offset, limit), index.range(minCents, maxCents, offset, limit, true),
+                    range + " descending from " + offset);
+            }
+        }
+    }
+
+    private static long[] page(List<Long> ids, long offset, int limit) {
+        int from = (int) Math.min(offset, ids.size());
+        return ids.subList(from, Math.min(from + limit, ids.size())).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * A price from a few hundred values, so many properties share a price.
+     */
+    private long randomCents() {
+        return 5_000_000 + random.nextInt(400) * 250_000L;
+    }
+
+    private Property property(long id) {
+        Property property = new Property();
+        property.setId(id);
+        if (random.nextInt(20) > 0) {
+            property.setPrice(BigDecimal.valueOf(randomCents(), 2));
+        }
+        return property;
+    }
+
+    private static Property priced(long id, String price) {
+        Property property = new Property();
+        property.setId(id);
+        property.setPrice(new BigDecimal(price));
+        return property;
+    }
+}
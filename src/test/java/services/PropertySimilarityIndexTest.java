@@ -0,0 +1,162 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Property.PropertyStatus;
+import com.realestate.app.models.Property.PropertyType;
+
+/**
+ * Checks the nearest neighbours found by the partitioned scan against a brute-force ranking of a
+ * seeded dataset large enough to be scanned in parallel, with rows removed and recycled along the way.
+ */
+class PropertySimilarityIndexTest {
+
+    private static final int PROPERTIES = 100_000;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+
+    private PropertySimilarityIndex index;
+    private Map<Long, Property> indexed;
+    private Random random;
+
+    @BeforeEach
+    void indexSeededProperties() {
+        index = new PropertySimilarityIndex();
+        indexed = new HashMap<>();
+        random = new Random(7);
+        for (int i = 0; i < PROPERTIES; i++) {
+            long id = random.nextInt(PROPERTIES);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+                indexed.remove(id);
+                continue;
+            }
+            Property property = property(id);
+            index.index(property);
+            indexed.put(id, property);
+        }
+    }
+
+    @Test
+    void recallAgainstBruteForceIsExact() {
+        List<Long> ids = new ArrayList<>(indexed.keySet());
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            Property query = indexed.get(ids.get(random.nextInt(ids.size())));
+            List<Long> found = index.similarTo(query.getId(), K);
+
+            float[] expected = bruteForceDistances(query);
+            float kthDistance = expected[K - 1];
+            assertEquals(K, found.size());
+            float previous = Float.NEGATIVE_INFINITY;
+            for (Long id : found) {
+                Property property = indexed.get(id);
+                assertEquals(PropertyStatus.AVAILABLE, property.getStatus());
+                float distance = distance(query, property);
+                assertTrue(distance >= previous, "results are nearest first");
+                previous = distance;
+                // Ties at the k-th distance may be broken either way
+                if (distance <= kthDistance) {
+                    hits++;
+                }
+            }
+        }
+        assertEquals(1.0, (double) hits / (QUERIES * K), 0.0);
+    }
+
+    @Test
+    void soldPropertiesAndTheQueryItselfAreNotReturned() {
+        Long queryId = indexed.keySet().iterator().next();
+        List<Long> before = index.similarTo(queryId, K);
+        index.statusChanged(List.of(before.get(0)), PropertyStatus.SOLD);
+
+        List<Long> after = index.similarTo(queryId, K);
+
+        assertFalse(after.contains(before.get(0)));
+        assertFalse(after.contains(queryId));
+        assertEquals(before.subList(1, K), after.subList(0, K - 1));
+    }
+
+    @Test
+    void unknownOrRemovedPropertyHasNoResults() {
+        Long id = indexed.keySet().iterator().next();
+        index.remove(id);
+
+        assertNull(index.similarTo(id, K));
+        assertNull(index.similarTo((long) PROPERTIES, K));
+    }
+
+    @Test
+    void limitIsCappedAtMaxResults() {
+        Long id = indexed.keySet().iterator().next();
+
+        assertEquals(PropertySimilarityIndex.MAX_RESULTS, index.similarTo(id, 1000).size());
+    }
+
+    /**
+     * @return the sorted distances from the query to every other available property
+     */
+    private float[] bruteForceDistances(Property query) {
+        float[] distances = new float[indexed.size()];
+        int count = 0;
+        for (Property property : indexed.values()) {
+            if (!property.getId().equals(query.getId()) && property.getStatus() == PropertyStatus.AVAILABLE) {
+                distances[count++] = distance(query, property);
+            }
+        }
+        distances = Arrays.copyOf(distances, count);
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    /**
+     * The distance the index documents: squared Euclidean over the feature rows, a penalty per
+     * missing feature and a penalty for a different type, summed in the same order as the scan.
+     */
+    private static float distance(Property query, Property property) {
+        float[] a = PropertySimilarityIndex.features(query);
+        float[] b = PropertySimilarityIndex.features(property);
+        float distance = query.getPropertyType() == property.getPropertyType() ? 0 : 4f;
+        for (int f = 0; f < 4; f++) {
+            float diff = a[f] - b[f];
+            distance += Float.isNaN(diff) ? 1f : diff * diff;
+        }
+        float dx = a[4] - b[4];
+        float dy = a[5] - b[5];
+        distance += Float.isNaN(dx) ? 1f : dx * dx + dy * dy;
+        return distance;
+    }
+
+    private Property property(long id) {
+        Property property = new Property();
+        property.setId(id);
+        property.setPrice(BigDecimal.valueOf(50_000 + random.nextInt(2_000_000)));
+        if (random.nextInt(20) > 0) {
+            property.setSquareFeet(500 + random.nextInt(4000));
+        }
+        property.setBedrooms(random.nextInt(6));
+        property.setBathrooms(1 + random.nextInt(7) / 2.0);
+        if (random.nextInt(10) > 0) {
+            property.setLatitude(30 + random.nextDouble() * 5);
+            property.setLongitude(-100 + random.nextDouble() * 5);
+        }
+        property.setPropertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)]);
+        property.setStatus(PropertyStatus.values()[random.nextInt(PropertyStatus.values().length)]);
+        return property;
+    }
+}
@@ -0,0 +1,213 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.models.Suggestion;
+import com.realestate.app.services.PropertySuggestIndex.Field;
+
+/**
+ * Checks edge splits and merges in the prefix tries, and the ranked values kept on large nodes
+ * against a count of every value, through inserts, updates and removals.
+ */
+class PropertySuggestIndexTest {
+
+    private static final List<Field> CITY = List.of(Field.CITY);
+
+    private PropertySuggestIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        index = new PropertySuggestIndex();
+    }
+
+    @Test
+    void splitEdgesCompleteEveryBranch() {
+        index.index(city(1, "Springfield"));
+        index.index(city(2, "Spring"));
+        index.index(city(3, "Spruce Grove"));
+        index.index(city(4, "Sp"));
+
+        assertEquals(List.of("Sp", "Spring", "Springfield", "Spruce Grove"), texts(index.suggest("s", CITY, 10)));
+        assertEquals(List.of("Spring", "Springfield", "Spruce Grove"), texts(index.suggest("spr", CITY, 10)));
+        assertEquals(List.of("Spring", "Springfield"), texts(index.suggest("sprin", CITY, 10)));
+        assertEquals(List.of("Springfield"), texts(index.suggest("springf", CITY, 10)));
+        assertEquals(List.of(), texts(index.suggest("springs", CITY, 10)));
+        assertEquals(List.of(), texts(index.suggest("sprx", CITY, 10)));
+    }
+
+    @Test
+    void matchingIgnoresCaseAndRepeatedWhitespace() {
+        index.index(city(1, "  Spruce   Grove "));
+        index.index(city(2, "spruce grove"));
+
+        List<Suggestion> suggestions = index.suggest("SPRUCE  g", CITY, 10);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("Spruce   Grove", suggestions.get(0).getText());
+        assertEquals(2, suggestions.get(0).getCount());
+    }
+
+    @Test
+    void removalsPruneAndMergeNodes() {
+        index.index(city(1, "Spring"));
+        index.index(city(2, "Springfield"));
+        index.index(city(3, "Spruce"));
+
+        index.remove(1L);
+        assertEquals(List.of("Springfield"), texts(index.suggest("spring", CITY, 10)));
+        assertEquals(List.of("Springfield", "Spruce"), texts(index.suggest("spr", CITY, 10)));
+
+        index.remove(3L);
+        assertEquals(List.of("Springfield"), texts(index.suggest("s", CITY, 10)));
+        assertEquals(List.of("Springfield"), texts(index.suggest("springfie", CITY, 10)));
+
+        index.remove(2L);
+        assertEquals(List.of(), texts(index.suggest("s", CITY, 10)));
+
+        // Removing an unknown property, or one already removed, changes nothing
+        index.remove(2L);
+        index.index(city(4, "Spring"));
+        assertEquals(List.of("Spring"), texts(index.suggest("s", CITY, 10)));
+    }
+
+    @Test
+    void updatesMoveTheCountToTheNewValue() {
+        index.index(city(1, "Austin"));
+        index.index(city(2, "Austin"));
+        index.index(city(1, "Aurora"));
+
+        List<Suggestion> suggestions = index.suggest("au", CITY, 10);
+
+        assertEquals(List.of("Aurora", "Austin"), texts(suggestions));
+        assertEquals(1, suggestions.get(0).getCount());
+        assertEquals(1, suggestions.get(1).getCount());
+    }
+
+    @Test
+    void suggestionsFromSeveralFieldsAreRankedTogether() {
+        index.index(property(1, "Dallas", "DE", "19901", "1 Dover Street"));
+        index.index(property(2, "Dover", "DE", "19902", "2 Main Street"));
+        index.index(property(3, "Denver", "CO", "80201", "3 Main Street"));
+
+        List<Suggestion> suggestions = index.suggest("d", List.of(Field.CITY, Field.STATE), 3);
+
+        assertEquals(List.of("DE", "Dallas", "Denver"), texts(suggestions));
+        assertEquals("state", suggestions.get(0).getField());
+        assertEquals(2, suggestions.get(0).getCount());
+    }
+
+    @Test
+    void rankedNodesMatchExactCountsThroughWrites() {
+        Random random = new Random(11);
+        Map<Long, String> cities = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(3000);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                cities.remove(id);
+            } else {
+                String city = randomCity(random);
+                index.index(city(id, city));
+                cities.put(id, city);
+            }
+            if (i % 1000 == 0) {
+                assertMatchesExactCounts(cities, random);
+            }
+        }
+        assertMatchesExactCounts(cities, random);
+    }
+
+    @Test
+    void bulkLoadRanksOnceAtTheEnd() {
+        Random random = new Random(13);
+        Map<Long, String> cities = new HashMap<>();
+        index.beginBulkLoad();
+        for (long id = 0; id < 5000; id++) {
+            String city = randomCity(random);
+            index.index(city(id, city));
+            cities.put(id, city);
+        }
+        index.endBulkLoad();
+
+        assertMatchesExactCounts(cities, random);
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        assertEquals(Field.ZIP_CODE, Field.parse(" ZIPCODE "));
+        assertThrows(IllegalArgumentException.class, () -> Field.parse("country"));
+    }
+
+    /**
+     * Compares the suggestions for every prefix of some random values, and for each single letter,
+     * with the values ranked by an exact count.
+     */
+    private void assertMatchesExactCounts(Map<Long, String> cities, Random random) {
+        Map<String, Integer> counts = new TreeMap<>();
+        cities.values().forEach(city -> counts.merge(city, 1, Integer::sum));
+        List<String> probes = new ArrayList<>(List.of("a", "b", "c", "d", ""));
+        for (int i = 0; i < 20; i++) {
+            String city = randomCity(random);
+            for (int length = 1; length <= city.length(); length++) {
+                probes.add(city.substring(0, length));
+            }
+        }
+        for (String prefix : Set.copyOf(probes)) {
+            List<String> expected = counts.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()))
+                .limit(PropertySuggestIndex.MAX_SUGGESTIONS)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .toList();
+            List<String> actual = index.suggest(prefix, CITY, PropertySuggestIndex.MAX_SUGGESTIONS).stream()
+                .map(suggestion -> suggestion.getText() + "=" + suggestion.getCount())
+                .toList();
+            assertEquals(expected, actual, "prefix '" + prefix + "'");
+        }
+    }
+
+    /**
+     * A lower-case name over a small alphabet, so values share long prefixes and counts tie often.
+     */
+    private static String randomCity(Random random) {
+        StringBuilder city = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            city.append((char) ('a' + random.nextInt(4)));
+        }
+        return city.toString();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).toList();
+    }
+
+    private static Property city(long id, String city) {
+        return property(id, city, null, null, null);
+    }
+
+    private static Property property(long id, String city, String state, String zipCode, String address) {
+        Property property = new Property();
+        property.setId(id);
+        property.setCity(city);
+        property.setState(state);
+        property.setZipCode(zipCode);
+        property.setAddress(address);
+        return property;
+    }
+}
@@ -0,0 +1,278 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.realestate.app.models.Property;
+import com.realestate.app.services.PropertyTextIndex.Clause;
+
+/**
+ * Checks query parsing, and the matches and BM25 scores of the index against a scan of every
+ * property's tokens, through inserts, updates and removals.
+ */
+class PropertyTextIndexTest {
+
+    /**
+     * Slack for scores summed in a different order.
+     */
+    private static final double EPSILON = 1e-9;
+
+    private PropertyTextIndex index;
+    private Map<Long, Property> indexed;
+    private Random random;
+
+    @BeforeEach
+    void createIndex() {
+        index = new PropertyTextIndex();
+        indexed = new HashMap<>();
+        random = new Random(19);
+    }
+
+    @Test
+    void queriesAreSplitIntoTermsPrefixesAndPhrases() {
+        List<Clause> clauses = PropertyTextIndex.parse("Pool  \"Ocean View\" gar* pool x* \"ocean view\" half\"open plan");
+
+        assertEquals(List.of("pool", "\"[ocean, view]", "gar*", "x", "half", "\"[open, plan]"), describe(clauses));
+    }
+
+    @Test
+    void punctuationSplitsTermsButNotPrefixes() {
+        assertEquals(List.of("3", "bed", "walk*"), describe(PropertyTextIndex.parse("3-bed walk*")));
+        assertEquals(List.of("walk", "in"), describe(PropertyTextIndex.parse("walk-in*")));
+        assertEquals(List.of(), describe(PropertyTextIndex.parse("\"\" * ...")));
+    }
+
+    @Test
+    void matchesAndScoresEqualAScanThroughWrites() {
+        for (int i = 0; i < 6000; i++) {
+            long id = random.nextInt(2000);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                indexed.remove(id);
+            } else {
+                Property property = randomProperty(id);
+                index.index(property);
+                indexed.put(id, property);
+            }
+            if (i % 1000 == 999) {
+                assertEquals(indexed.size(), index.size());
+                for (int q = 0; q < 50; q++) {
+                    assertMatchesScan(randomQuery());
+                }
+            }
+        }
+    }
+
+    @Test
+    void phrasesDoNotSpanFields() {
+        index.index(property(1, "Harbor view", "1 Main Street", "Springfield", "Quiet street"));
+        index.index(property(2, "Harbor", "2 View Road", "Springfield", "Harbor view from the deck"));
+
+        assertEquals(List.of(1L, 2L), sorted(index.search("\"harbor view\"", Integer.MAX_VALUE)));
+        assertEquals(List.of(), index.search("\"street springfield\"", Integer.MAX_VALUE));
+        assertEquals(List.of(1L), index.search("\"main street\" harb*", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void prefixExpandsToEveryTerm() {
+        // Hundreds of terms sort before the one the second property holds
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            description.append("ab").append(i).append(' ');
+        }
+        index.index(property(1, null, null, null, description.toString()));
+        index.index(property(2, null, null, null, "abzzz"));
+
+        assertEquals(List.of(1L, 2L), sorted(index.search("ab*", Integer.MAX_VALUE)));
+        assertTrue(PropertyTextIndex.matches(PropertyTextIndex.parse("ab*"), PropertyTextIndex.tokenizeFields(indexed.get(2L))));
+    }
+
+    @Test
+    void tooBroadPrefixIsRejected() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i <= PropertyTextIndex.MAX_PREFIX_POSTINGS; i++) {
+            description.append("ab").append(i).append(' ');
+        }
+        index.index(property(1, null, null, null, description.toString()));
+
+        assertThrows(IllegalArgumentException.class, () -> index.search("ab*", 10));
+        assertEquals(List.of(1L), index.search("ab1000*", 10));
+    }
+
+    @Test
+    void removedAndUpdatedPropertiesLeaveNoPostings() {
+        index.index(property(1, "Sunny loft", null, null, null));
+        index.index(property(1, "Shady cabin", null, null, null));
+        index.index(property(2, "Sunny cabin", null, null, null));
+        index.remove(2L);
+
+        assertEquals(List.of(), index.search("sunny", 10));
+        assertEquals(List.of(1L), index.search("cabin", 10));
+        assertFalse(index.search("sha*", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Compares the search result with the properties every clause matches in a scan, and each
+     * result's rank with the documented BM25 score computed from the scanned tokens.
+     */
+    private void assertMatchesScan(String query) {
+        List<Clause> clauses = PropertyTextIndex.parse(query);
+        Map<Long, List<List<String>>> fields = new HashMap<>();
+        indexed.forEach((id, property) -> fields.put(id, PropertyTextIndex.tokenizeFields(property)));
+        long totalLength = fields.values().stream().flatMap(List::stream).mapToLong(List::size).sum();
+        double averageLength = fields.isEmpty() ? 1 : (double) totalLength / fields.size();
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        for (List<List<String>> doc : fields.values()) {
+            doc.stream().flatMap(List::stream).distinct().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+        }
+
+        Map<Long, Double> expected = new HashMap<>();
+        for (Map.Entry<Long, List<List<String>>> entry : fields.entrySet()) {
+            if (clauses.isEmpty() || !PropertyTextIndex.matches(clauses, entry.getValue())) {
+                continue;
+            }
+            int length = entry.getValue().stream().mapToInt(List::size).sum();
+            double score = 0;
+            for (Clause clause : clauses) {
+                score += scanScore(clause, entry.getValue(), length, averageLength, documentFrequencies, fields.size());
+            }
+            expected.put(entry.getKey(), score);
+        }
+
+        List<Long> found = index.search(query, Integer.MAX_VALUE);
+        assertEquals(expected.keySet(), new HashSet<>(found), "query '" + query + "'");
+        double previous = Double.POSITIVE_INFINITY;
+        for (Long id : found) {
+            double score = expected.get(id);
+            assertTrue(score <= previous + EPSILON, "query '" + query + "' is ranked by score");
+            previous = score;
+        }
+        // A limit keeps the best matches
+        int limit = Math.min(found.size(), 5);
+        assertEquals(found.subList(0, limit).stream().map(expected::get).toList(),
+            index.search(query, limit).stream().map(expected::get).toList(), "query '" + query + "'");
+    }
+
+    private static double scanScore(Clause clause, List<List<String>> doc, int length, double averageLength,
+            Map<String, Integer> documentFrequencies, int docCount) {
+        if (clause.prefix) {
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            doc.stream().flatMap(List::stream).filter(token -> token.startsWith(clause.terms.get(0)))
+                .forEach(token -> termFrequencies.merge(token, 1, Integer::sum));
+            double score = 0;
+            for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+                score += bm25(idf(documentFrequencies.get(term.getKey()), docCount), term.getValue(), length, averageLength);
+            }
+            return score;
+        }
+        double idf = 0;
+        for (String term : clause.terms) {
+            idf += idf(documentFrequencies.getOrDefault(term, 0), docCount);
+        }
+        return bm25(idf, occurrences(clause.terms, doc), length, averageLength);
+    }
+
+    private static double idf(int documentFrequency, int docCount) {
+        return Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double bm25(double idf, int termFrequency, int length, double averageLength) {
+        return idf * (termFrequency * (PropertyTextIndex.K1 + 1))
+            / (termFrequency + PropertyTextIndex.K1 * (1 - PropertyTextIndex.B + PropertyTextIndex.B * length / averageLength));
+    }
+
+    /**
+     * @return the number of places the terms appear in a row within one field
+     */
+    private static int occurrences(List<String> terms, List<List<String>> doc) {
+        int occurrences = 0;
+        for (List<String> tokens : doc) {
+            for (int i = 0; i + terms.size() <= tokens.size(); i++) {
+                if (tokens.subList(i, i + terms.size()).equals(terms)) {
+                    occurrences++;
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * One to three clauses: a word, a prefix of a word, or a phrase taken from an indexed description.
+     */
+    private String randomQuery() {
+        List<String> clauses = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> clauses.add(randomWord());
+                case 1 -> clauses.add(randomWord().substring(0, 1) + (char) ('a' + random.nextInt(4)) + "*");
+                default -> {
+                    List<Property> properties = new ArrayList<>(indexed.values());
+                    List<String> tokens = PropertyTextIndex.tokenize(
+                        properties.get(random.nextInt(properties.size())).getDescription());
+                    int start = random.nextInt(Math.max(1, tokens.size() - 1));
+                    clauses.add(tokens.size() < 2 ? randomWord() : "\"" + tokens.get(start) + " " + tokens.get(start + 1) + "\"");
+                }
+            }
+        }
+        return String.join(" ", clauses);
+    }
+
+    /**
+     * A lower-case word over a small alphabet, so words share prefixes and repeat within documents.
+     */
+    private String randomWord() {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private String randomWords(int count) {
+        return IntStream.range(0, count).mapToObj(i -> randomWord()).collect(Collectors.joining(" "));
+    }
+
+    private Property randomProperty(long id) {
+        return property(id, randomWords(1 + random.nextInt(4)), random.nextInt(500) + " " + randomWord(),
+            randomWord(), randomWords(random.nextInt(25)));
+    }
+
+    private Property property(long id, String title, String address, String city, String description) {
+        Property property = new Property();
+        property.setId(id);
+        property.setTitle(title);
+        property.setAddress(address);
+        property.setCity(city);
+        property.setDescription(description);
+        indexed.put(id, property);
+        return property;
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    private static List<String> describe(List<Clause> clauses) {
+        return clauses.stream()
+            .map(clause -> clause.prefix ? clause.terms.get(0) + "*" : clause.terms.size() > 1 ? "\"" + clause.terms : clause.terms.get(0))
+            .toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.realestate.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sketch's quantiles against exact quantiles of seeded data, and that removals and
+ * merges leave the same counts as adding the remaining values to a single sketch.
+ */
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = { 0, 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1 };
+
+    /**
+     * Slack for floating point error in the bucket bounds.
+     */
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void quantilesAreWithinRelativeAccuracyOfExactQuantiles() {
+        Random random = new Random(3);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal around 400,000, like listing prices, with a few zeros
+            values[i] = random.nextInt(1000) == 0 ? 0 : Math.exp(Math.log(400_000) + random.nextGaussian() * 0.8);
+            sketch.add(values[i], 1);
+        }
+
+        assertEquals(values.length, sketch.count());
+        assertWithinAccuracy(sorted(values), sketch);
+    }
+
+    @Test
+    void wideRangesAndRepeatedValuesAreWithinRelativeAccuracy() {
+        Random random = new Random(5);
+        double[] values = new double[50_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? 250_000 : Math.pow(10, random.nextDouble() * 12 - 4);
+            sketch.add(values[i], 1);
+        }
+
+        assertWithinAccuracy(sorted(values), sketch);
+    }
+
+    @Test
+    void removalsMatchASketchOfTheRemainingValues() {
+        Random random = new Random(7);
+        double[] values = new double[20_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1_000_000;
+            sketch.add(values[i], 1);
+        }
+        QuantileSketch remaining = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            if (i % 4 == 0) {
+                sketch.add(values[i], -1);
+            } else {
+                remaining.add(values[i], 1);
+            }
+        }
+
+        assertEquals(remaining.count(), sketch.count());
+        for (double q : QUANTILES) {
+            assertEquals(remaining.quantile(q), sketch.quantile(q), 0.0, "q=" + q);
+        }
+    }
+
+    @Test
+    void mergedSketchesMatchASingleSketch() {
+        Random random = new Random(9);
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        QuantileSketch all = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) {
+            double value = random.nextDouble() * 100_000;
+            (value < 50_000 ? low : high).add(value, 1);
+            all.add(value, 1);
+        }
+        low.add(0, 3);
+        all.add(0, 3);
+
+        QuantileSketch merged = new QuantileSketch();
+        merged.merge(high);
+        merged.merge(new QuantileSketch());
+        merged.merge(low);
+
+        assertEquals(all.count(), merged.count());
+        for (double q : QUANTILES) {
+            assertEquals(all.quantile(q), merged.quantile(q), 0.0, "q=" + q);
+        }
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+
+        sketch.add(120_000, 2);
+        sketch.add(120_000, -2);
+
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    }
+
+    /**
+     * Compares each quantile with the exact value at the same rank, and checks that the share of
+     * values below the estimate is no further from q than the values within the error band allow.
+     */
+    private static void assertWithinAccuracy(double[] sorted, QuantileSketch sketch) {
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= QuantileSketch.RELATIVE_ACCURACY * exact + EPSILON,
+                "q=" + q + ": estimated " + estimate + ", exact " + exact);
+
+            double rank = (double) countBelow(sorted, estimate) / sorted.length;
+            double lowestRank = (double) countBelow(sorted, exact * (1 - QuantileSketch.RELATIVE_ACCURACY) - EPSILON) / sorted.length;
+            double highestRank = (double) countBelow(sorted, exact * (1 + QuantileSketch.RELATIVE_ACCURACY) + EPSILON) / sorted.length;
+            assertTrue(rank >= lowestRank && rank <= highestRank,
+                "q=" + q + ": rank " + rank + " outside [" + lowestRank + ", " + highestRank + "]");
+        }
+    }
+
+    private static int countBelow(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] sorted(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}